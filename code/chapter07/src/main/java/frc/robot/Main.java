@@ -5,11 +5,13 @@
 package frc.robot;
 
 import edu.wpi.first.wpilibj.RobotBase;
+import frc.robot.startup.StartupTime;
 
 public final class Main {
   private Main() {}
 
   public static void main(String... args) {
+    StartupTime.markMain();
     RobotBase.startRobot(Robot::new);
   }
 }
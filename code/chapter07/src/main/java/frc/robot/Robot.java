@@ -4,22 +4,135 @@
 
 package frc.robot;
 
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Threads;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.diagnostics.AllocationProfiler;
+import frc.robot.diagnostics.EnergyMonitor;
+import frc.robot.diagnostics.HealthMonitor;
+import frc.robot.diagnostics.LoadShedder;
+import frc.robot.diagnostics.LoadShedder.Priority;
+import frc.robot.logging.InputLogger;
+import frc.robot.scheduling.PeriodicScheduler;
+import frc.robot.startup.ClassArchive;
+import frc.robot.startup.StartupTime;
+import frc.robot.startup.TrainingRun;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.tuning.TunedGains;
+import frc.robot.tuning.Tunables;
 
 public class Robot extends TimedRobot {
+  // Set to true to measure how much memory each loop allocates. This adds a
+  // small amount of overhead, so leave it off for competitions.
+  private static final boolean PROFILE_ALLOCATIONS = false;
+
+  // Set to true to run the main loop at real-time priority, so that it
+  // starts on time even when NetworkTables, logging and the garbage
+  // collector are busy. Run "./gradlew jitterBenchmark" to see the
+  // difference this kind of change makes.
+  private static final boolean REALTIME_LOOP = false;
+
   private Command m_autonomousCommand;
+  private boolean m_autonomousStarted;
+  private final Command m_homingCommand;
 
   private final RobotContainer m_robotContainer;
+  private final AllocationProfiler m_allocationProfiler;
+  private final LoadShedder m_loadShedder;
+  private final PeriodicScheduler m_periodicScheduler;
+  private final HealthMonitor m_healthMonitor;
+  private final EnergyMonitor m_energyMonitor;
 
   public Robot() {
+    // Record NetworkTables values and console output to a log file.
+    DataLogManager.start();
+
+    // Decide whether we're on a real robot, in simulation, or replaying a
+    // log. This has to happen before the subsystems are created.
+    InputLogger.start(getPeriod());
+
+    // Load any gains found by the auto-tuner before the subsystems are
+    // configured.
+    TunedGains.load();
+
     m_robotContainer = new RobotContainer();
+    m_homingCommand = m_robotContainer.getHomingCommand();
+
+    // The profiler must be created after the RobotContainer so that it can
+    // tell when all of the button bindings have been checked.
+    m_allocationProfiler = PROFILE_ALLOCATIONS ? new AllocationProfiler() : null;
+
+    // The work done every loop, in order. Critical work always runs, but
+    // deferrable work is thinned out when the loop is running long.
+    m_loadShedder = new LoadShedder();
+    m_loadShedder.addTask("InputLogger", Priority.CRITICAL, InputLogger::startLoop);
+
+    // Apply any numbers changed on the dashboard since the last loop.
+    m_loadShedder.addTask("Tunables", Priority.CRITICAL, Tunables::applyChanges);
+
+    // Read the controllers once so every command sees the same inputs.
+    m_loadShedder.addTask("Controllers", Priority.CRITICAL, m_robotContainer::captureInputs);
+
+    // Subsystems and commands, which includes driving and the indexer.
+    m_loadShedder.addTask("Scheduler", Priority.CRITICAL, CommandScheduler.getInstance()::run);
+
+    // Send any dashboard values that have changed.
+    m_loadShedder.addTask("Telemetry", Priority.DEFERRABLE, Telemetry::update);
+
+    // The profiler is cheap and doesn't allocate, and the loops that run
+    // long are the ones it most needs to measure, so it always runs.
+    if (m_allocationProfiler != null) {
+      m_loadShedder.addTask("AllocationProfiler", Priority.CRITICAL, m_allocationProfiler::endLoop);
+    }
+
+    // Work that runs faster or slower than the main loop. Critical work is
+    // offset so that it doesn't run at the same time as the others, and
+    // deferrable work is added to the load shedder's tasks.
+    m_periodicScheduler = new PeriodicScheduler(this, m_loadShedder);
+    m_robotContainer.addPeriodicWork(m_periodicScheduler);
+
+    m_healthMonitor = new HealthMonitor();
+    m_periodicScheduler.add("HealthMonitor", 0.1, Priority.DEFERRABLE, m_healthMonitor::update);
+
+    // Add up how much of the battery each subsystem and command uses. It
+    // measures the time between updates, so skipping some only makes the
+    // totals coarser.
+    m_energyMonitor = new EnergyMonitor();
+    m_robotContainer.addEnergyAccounts(m_energyMonitor);
+    m_periodicScheduler.add("EnergyMonitor", 0.02, Priority.DEFERRABLE, m_energyMonitor::update);
+
+    if (REALTIME_LOOP) {
+      // The constructor runs on the main robot thread. Real-time threads
+      // always run ahead of normal ones, which puts the main loop ahead of
+      // every background thread. The HAL's notifier thread, which wakes up
+      // the main loop, has to be higher still. Be careful: if the main loop
+      // never finishes, nothing else on the roboRIO will get to run.
+      Notifier.setHALThreadPriority(true, 40);
+      if (!Threads.setCurrentThreadPriority(true, 15)) {
+        DriverStation.reportWarning("Couldn't raise the main loop's priority", false);
+      }
+    }
+
+    // Report how long the program took to get here. If the code has
+    // changed since the last boot, make a new class data sharing archive
+    // in the background while the robot is disabled, so the next boot is
+    // faster.
+    StartupTime.markReady();
+    ClassArchive.updateInBackground();
+    TrainingRun.startIfRequested();
   }
 
   @Override
   public void robotPeriodic() {
-    CommandScheduler.getInstance().run();
+    if (m_allocationProfiler != null) {
+      m_allocationProfiler.startLoop();
+    }
+
+    m_loadShedder.run();
   }
 
   @Override
@@ -34,14 +147,23 @@ public class Robot extends TimedRobot {
   @Override
   public void autonomousInit() {
     m_autonomousCommand = m_robotContainer.getAutonomousCommand();
+    m_autonomousStarted = false;
 
-    if (m_autonomousCommand != null) {
-      m_autonomousCommand.schedule();
-    }
+    // The mechanisms are homed the first time the robot is enabled. The
+    // autonomous command waits for that in autonomousPeriodic(), since
+    // both use the intake.
+    m_homingCommand.schedule();
   }
 
   @Override
-  public void autonomousPeriodic() {}
+  public void autonomousPeriodic() {
+    if (!m_autonomousStarted && !m_homingCommand.isScheduled()) {
+      m_autonomousStarted = true;
+      if (m_autonomousCommand != null) {
+        m_autonomousCommand.schedule();
+      }
+    }
+  }
 
   @Override
   public void autonomousExit() {}
@@ -51,6 +173,9 @@ public class Robot extends TimedRobot {
     if (m_autonomousCommand != null) {
       m_autonomousCommand.cancel();
     }
+
+    // Does nothing if the mechanisms were homed in autonomous.
+    m_homingCommand.schedule();
   }
 
   @Override
@@ -62,6 +187,7 @@ public class Robot extends TimedRobot {
   @Override
   public void testInit() {
     CommandScheduler.getInstance().cancelAll();
+    m_homingCommand.schedule();
   }
 
   @Override
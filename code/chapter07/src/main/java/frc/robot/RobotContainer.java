@@ -4,20 +4,85 @@
 
 package frc.robot;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
 import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.units.Units;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
-import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
-import edu.wpi.first.wpilibj2.command.button.Trigger;
+import edu.wpi.first.wpilibj2.command.button.RobotModeTriggers;
+import frc.robot.commands.AcquireCommand;
+import frc.robot.commands.AutoRouteCommand;
+import frc.robot.commands.BurstFireCommand;
+import frc.robot.commands.CanFaultBenchmarkCommand;
+import frc.robot.commands.CycleCommand;
+import frc.robot.commands.DriveToPoseCommand;
+import frc.robot.commands.PlayMacroCommand;
+import frc.robot.commands.RecordMacroCommand;
+import frc.robot.commands.SelfTestCommand;
+import frc.robot.diagnostics.EnergyMonitor;
+import frc.robot.diagnostics.LoadShedder.Priority;
+import frc.robot.input.ControllerInputs;
+import frc.robot.input.OperatorInputs;
+import frc.robot.logging.InputLogger;
+import frc.robot.navigation.NavigationGrid;
+import frc.robot.navigation.Pathfinder;
+import frc.robot.planning.AutoRoute;
+import frc.robot.scheduling.PeriodicScheduler;
+import frc.robot.subsystems.ClimberIO;
+import frc.robot.subsystems.ClimberIOSim;
+import frc.robot.subsystems.ClimberIOWithFaults;
+import frc.robot.subsystems.ClimberIOTalonFX;
 import frc.robot.subsystems.ClimberSubsystem;
+import frc.robot.subsystems.DriveIO;
+import frc.robot.subsystems.DriveIOSim;
+import frc.robot.subsystems.DriveIOWithFaults;
+import frc.robot.subsystems.DriveIOTalonSRX;
 import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.subsystems.IndexerIO;
+import frc.robot.subsystems.IndexerIOSim;
+import frc.robot.subsystems.IndexerIOWithFaults;
+import frc.robot.subsystems.IndexerIOTalonFX;
 import frc.robot.subsystems.IndexerSubsystem;
+import frc.robot.subsystems.IntakeIO;
+import frc.robot.subsystems.IntakeIOSim;
+import frc.robot.subsystems.IntakeIOWithFaults;
+import frc.robot.subsystems.IntakeIOTalonFX;
 import frc.robot.subsystems.IntakeSubsystem;
+import frc.robot.subsystems.ShooterIO;
+import frc.robot.subsystems.ShooterIOSim;
+import frc.robot.subsystems.ShooterIOWithFaults;
+import frc.robot.subsystems.ShooterIOTalonFX;
 import frc.robot.subsystems.ShooterSubsystem;
 
 public class RobotContainer {
-  private final CommandXboxController driverController;
-  private final CommandXboxController operatorController;
+  // Where a recorded teleop run is saved, to be played back in autonomous.
+  private static final File MACRO_FILE =
+      new File(Filesystem.getDeployDirectory(), "macros/auto.macro");
+
+  // Where the routes made by "./gradlew planAutos" are saved.
+  private static final File AUTO_ROUTES_DIRECTORY =
+      new File(Filesystem.getDeployDirectory(), "autos");
+
+  // The obstacles on the field, used to drive around them.
+  private static final File NAVIGATION_GRID_FILE =
+      new File(Filesystem.getDeployDirectory(), "navgrid.txt");
+
+  // Where the driver's "go score" button drives to: in front of our
+  // speaker, where the autonomous routes start.
+  private static final Pose2d SCORING_POSE = new Pose2d(1.40, 5.55, new Rotation2d());
+
+  private final OperatorInputs inputs;
+  private final ControllerInputs driverController;
+  private final ControllerInputs operatorController;
 
   private final DriveSubsystem driveBase;
   private final IntakeSubsystem intake;
@@ -25,16 +90,100 @@ public class RobotContainer {
   private final ShooterSubsystem shooter;
   private final ClimberSubsystem climber;
 
+  private final PlayMacroCommand playMacro;
+  private final Command homeMechanisms;
+  private final SendableChooser<Command> autoChooser;
+
+  // Null if the navigation grid couldn't be read.
+  private final Pathfinder pathfinder;
+
+  // Only used in simulation.
+  private final Command canFaultBenchmark;
+
   public RobotContainer() {
     // The number parameters here are the ports of the controllers in Driver Station.
-    driverController = new CommandXboxController(0);
-    operatorController = new CommandXboxController(1);
+    inputs = new OperatorInputs(0, 1);
+    driverController = inputs.driver;
+    operatorController = inputs.operator;
 
-    driveBase = new DriveSubsystem();
-    intake = new IntakeSubsystem();
-    indexer = new IndexerSubsystem();
-    shooter = new ShooterSubsystem();
-    climber = new ClimberSubsystem();
+    // The intake is assumed to start fully retracted.
+    double intakeStartRotations = IntakeSubsystem.RETRACTED_ANGLE.in(Units.Rotations);
+
+    // Pick the hardware each subsystem talks to. When replaying a log, the
+    // IO layers do nothing and the inputs come from the log instead.
+    switch (InputLogger.getMode()) {
+      case REAL:
+        driveBase = new DriveSubsystem(new DriveIOTalonSRX());
+        intake = new IntakeSubsystem(new IntakeIOTalonFX(intakeStartRotations));
+        indexer = new IndexerSubsystem(new IndexerIOTalonFX());
+        shooter = new ShooterSubsystem(new ShooterIOTalonFX());
+        climber = new ClimberSubsystem(new ClimberIOTalonFX());
+        canFaultBenchmark = null;
+        break;
+      case SIM:
+        // Everything in simulation goes through a pretend CAN bus, which
+        // can delay or lose messages. It works like a normal bus until
+        // faults are turned on from the dashboard or by the benchmark.
+        DriveIOWithFaults simDrive = new DriveIOWithFaults(new DriveIOSim());
+        IndexerIOWithFaults simIndexer = new IndexerIOWithFaults(new IndexerIOSim());
+        ClimberIOWithFaults simClimber = new ClimberIOWithFaults(new ClimberIOSim());
+        driveBase = new DriveSubsystem(simDrive);
+        intake = new IntakeSubsystem(new IntakeIOWithFaults(new IntakeIOSim(intakeStartRotations)));
+        indexer = new IndexerSubsystem(simIndexer);
+        shooter = new ShooterSubsystem(new ShooterIOWithFaults(new ShooterIOSim()));
+        climber = new ClimberSubsystem(simClimber);
+        canFaultBenchmark = new CanFaultBenchmarkCommand(
+            driveBase, simDrive, climber, simClimber, indexer, simIndexer);
+        break;
+      default:
+        driveBase = new DriveSubsystem(new DriveIO() {});
+        intake = new IntakeSubsystem(new IntakeIO() {});
+        indexer = new IndexerSubsystem(new IndexerIO() {});
+        shooter = new ShooterSubsystem(new ShooterIO() {});
+        climber = new ClimberSubsystem(new ClimberIO() {});
+        canFaultBenchmark = null;
+        break;
+    }
+
+    playMacro = new PlayMacroCommand(inputs, driveBase, MACRO_FILE);
+
+    // Find the climber and intake hard stops at the same time, so that
+    // it's over quickly.
+    homeMechanisms = Commands.parallel(climber.home(), intake.home())
+        .withName("HomeMechanisms");
+
+    // Let the drive team pick the autonomous routine on the dashboard. The
+    // planned routes are read now, so nothing is loaded once the match
+    // starts. The best route is picked by default, otherwise the recorded
+    // macro. The routes need drive encoders to know where the robot is, and
+    // without them each trajectory just warns and stops. They're offered
+    // either way so that replaying a log builds the same choices.
+    autoChooser = new SendableChooser<>();
+    autoChooser.setDefaultOption("None", Commands.print("No autonomous command configured"));
+    if (MACRO_FILE.exists()) {
+      autoChooser.setDefaultOption("Recorded macro", playMacro);
+    }
+    List<AutoRoute> routes = AutoRoute.loadAll(AUTO_ROUTES_DIRECTORY);
+    for (int i = 0; i < routes.size(); i++) {
+      AutoRoute route = routes.get(i);
+      Command command = new AutoRouteCommand(route, driveBase, intake, indexer, shooter);
+      if (i == 0) {
+        autoChooser.setDefaultOption(route.getName(), command);
+      } else {
+        autoChooser.addOption(route.getName(), command);
+      }
+    }
+    SmartDashboard.putData("Auto", autoChooser);
+
+    // Read the field's obstacles once now. Paths are found on a background
+    // thread while the robot runs.
+    Pathfinder loadedPathfinder = null;
+    try {
+      loadedPathfinder = new Pathfinder(NavigationGrid.load(NAVIGATION_GRID_FILE));
+    } catch (IOException | RuntimeException e) {
+      DriverStation.reportError("Couldn't load the navigation grid: " + e, false);
+    }
+    pathfinder = loadedPathfinder;
 
     configureBindings();
   }
@@ -42,28 +191,47 @@ public class RobotContainer {
   private void configureBindings() {
     // Configure the default controls for the drive base.
     driveBase.setDefaultCommand(driveBase.arcadeDrive(
-        () -> MathUtil.applyDeadband(-driverController.getLeftY(), 0.1),
-        () -> MathUtil.applyDeadband(driverController.getRightX(), 0.1)));
+        () -> MathUtil.applyDeadband(-driverController.leftY, 0.1),
+        () -> MathUtil.applyDeadband(driverController.rightX, 0.1)));
+
+    // Holding A on the driver controller drives to the scoring spot,
+    // going around anything in the way. Letting go gives control back.
+    // This needs drive encoders to know where the robot is, and just warns
+    // without them.
+    if (pathfinder != null) {
+      driverController.a()
+          .whileTrue(new DriveToPoseCommand(pathfinder, driveBase, SCORING_POSE));
+    }
 
     // Put the shooter flywheel in idle by default to save battery power.
     shooter.setDefaultCommand(shooter.idle());
 
     // Bind the flywheels to the left trigger on the operator controller.
-    // Use a Trigger to convert the analog input into a digital (boolean) one.
-    new Trigger(() -> (operatorController.getLeftTriggerAxis() > 0.5))
+    // The trigger is active while the analog input is more than halfway down.
+    operatorController.leftTrigger(0.5)
         .whileTrue(shooter.spinFlywheel());
 
     // Put the indexer in idle when nothing else is using it.
     indexer.setDefaultCommand(indexer.idle());
 
-    // Bind the intake control to the A button on the operator controller.
+    // Bind picking up a piece to the A button on the operator controller.
+    // The intake retracts by itself once the indexer has the piece.
     operatorController.a()
-        .whileTrue(indexer.receivePieceFromIntake())
-        .whileTrue(intake.extend());
+        .whileTrue(new AcquireCommand(intake, indexer));
 
     // Bind the shoot control to the B button on the operator controller.
     operatorController.b()
         .whileTrue(indexer.feedPieceToShooter());
+
+    // Holding the right bumper runs the intake, indexer and shooter
+    // together, picking up and shooting pieces one after another.
+    operatorController.rightBumper()
+        .whileTrue(new CycleCommand(intake, indexer, shooter));
+
+    // Holding the right trigger shoots every piece in the robot, feeding
+    // each one as soon as the flywheel has recovered from the last.
+    operatorController.rightTrigger(0.5)
+        .whileTrue(new BurstFireCommand(intake, indexer, shooter));
     
     // Keep the climber arms down by default.
     climber.setDefaultCommand(climber.retract());
@@ -76,9 +244,78 @@ public class RobotContainer {
     // Bind the climber pull to down on the D-pad.
     operatorController.povDown()
         .onTrue(climber.pull());
+
+    // In test mode, X and Y run the auto-tuners for the climber and the
+    // intake pivot. The gains they find are used the next time the robot
+    // starts.
+    RobotModeTriggers.test().and(operatorController.x())
+        .onTrue(climber.autoTune());
+    RobotModeTriggers.test().and(operatorController.y())
+        .onTrue(intake.autoTune());
+
+    // With the robot hanging just off the ground, the left bumper in test
+    // mode tunes the climber's gains for carrying the robot.
+    RobotModeTriggers.test().and(operatorController.leftBumper())
+        .onTrue(climber.autoTuneHanging());
+
+    // In test mode, start runs the pre-match self-test on every mechanism
+    // at once.
+    RobotModeTriggers.test().and(operatorController.start())
+        .onTrue(new SelfTestCommand(driveBase, intake, indexer, shooter, climber));
+
+    // In simulation, back in test mode measures how the drive base, climber
+    // and indexer cope with a slow CAN bus.
+    if (canFaultBenchmark != null) {
+      RobotModeTriggers.test().and(operatorController.back())
+          .onTrue(canFaultBenchmark);
+    }
+
+    // Pressing start on the driver controller in teleop starts recording a
+    // macro, and pressing it again stops. This only works in teleop so a
+    // macro that is being played back can't start recording itself.
+    RobotModeTriggers.teleop().and(driverController.start())
+        .toggleOnTrue(new RecordMacroCommand(inputs, driveBase, MACRO_FILE));
+  }
+
+  /**
+   * Reads the controllers for this loop. The bindings above all use this
+   * snapshot, so this must be called before the command scheduler runs.
+   */
+  public void captureInputs() {
+    inputs.capture();
+  }
+
+  /**
+   * Adds the subsystem work that runs at its own rate instead of with the
+   * main loop. Driving and the other commands run every 20 ms with the
+   * command scheduler.
+   */
+  public void addPeriodicWork(PeriodicScheduler scheduler) {
+    scheduler.add("IndexerFastCheck", 0.01, Priority.CRITICAL, indexer::fastPeriodic);
+    scheduler.add(
+        "ClimberSync", ClimberSubsystem.SYNC_PERIOD, Priority.CRITICAL, climber::fastPeriodic);
+  }
+
+  /** Tells the energy monitor how to measure each subsystem. */
+  public void addEnergyAccounts(EnergyMonitor monitor) {
+    monitor.addSubsystem("Drive", driveBase, driveBase::getSupplyCurrentAmps);
+    monitor.addSubsystem("Intake", intake, intake::getSupplyCurrentAmps);
+    monitor.addSubsystem("Indexer", indexer, indexer::getSupplyCurrentAmps);
+    monitor.addSubsystem("Shooter", shooter, shooter::getSupplyCurrentAmps);
+    monitor.addSubsystem("Climber", climber, climber::getSupplyCurrentAmps);
+  }
+
+  /**
+   * Gets the command that finds the climber and intake positions by
+   * driving them into their hard stops. It only moves the mechanisms the
+   * first time it runs, and should be scheduled whenever the robot is
+   * enabled.
+   */
+  public Command getHomingCommand() {
+    return homeMechanisms;
   }
 
   public Command getAutonomousCommand() {
-    return Commands.print("No autonomous command configured");
+    return autoChooser.getSelected();
   }
 }
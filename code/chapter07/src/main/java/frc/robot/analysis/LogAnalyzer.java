@@ -0,0 +1,149 @@
+package frc.robot.analysis;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Summarizes the robot's WPILOG files after an event. This runs on a
+ * computer, not the robot:
+ *
+ * <pre>
+ * ./gradlew analyzeLogs --args="path/to/logs"
+ * </pre>
+ *
+ * <p>Any number of files or folders can be given, and folders are searched
+ * for {@code .wpilog} files. Each file is read on its own thread, so a full
+ * event's logs are spread across every core. For each log, and for all of
+ * them together, it shows how long the robot loops took, brownouts, the
+ * lowest battery voltage, shots and the time between them, and how much
+ * current each subsystem drew.
+ */
+public final class LogAnalyzer {
+  // Loops longer than this missed their 20 ms slot.
+  private static final double OVERRUN_MS = 25.0;
+
+  private LogAnalyzer() {}
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length == 0) {
+      System.out.println("Usage: ./gradlew analyzeLogs --args=\"<log file or folder> ...\"");
+      return;
+    }
+
+    List<Path> files = findLogs(args);
+    if (files.isEmpty()) {
+      System.out.println("No .wpilog files found");
+      return;
+    }
+
+    long startNanos = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    List<Future<MatchSummary>> futures = new ArrayList<>();
+    for (Path file : files) {
+      futures.add(executor.submit(() -> analyze(file)));
+    }
+
+    MatchSummary total = new MatchSummary("All logs");
+    System.out.printf("%-40s %8s %8s %8s %8s %6s %7s %6s %7s%n",
+        "log", "minutes", "p99 ms", "max ms", "overruns", "brown", "min V", "shots", "cycle s");
+    for (int i = 0; i < files.size(); i++) {
+      try {
+        MatchSummary summary = futures.get(i).get();
+        printRow(summary);
+        total.add(summary);
+      } catch (ExecutionException e) {
+        System.out.printf("%-40s failed: %s%n", files.get(i).getFileName(), e.getCause().getMessage());
+      }
+    }
+    executor.shutdown();
+    printRow(total);
+
+    printHistogram(total);
+    printCurrents(total);
+
+    System.out.printf("%nAnalyzed %d logs in %.2f s%n", files.size(), (System.nanoTime() - startNanos) / 1e9);
+  }
+
+  private static MatchSummary analyze(Path file) throws IOException {
+    MatchSummary summary = new MatchSummary(file.getFileName().toString());
+    WpilogReader.read(file, summary);
+    return summary;
+  }
+
+  private static List<Path> findLogs(String[] args) throws IOException {
+    List<Path> files = new ArrayList<>();
+    for (String arg : args) {
+      Path path = Paths.get(arg);
+      if (Files.isDirectory(path)) {
+        try (Stream<Path> walk = Files.walk(path)) {
+          walk.filter(p -> p.toString().endsWith(".wpilog")).sorted().forEach(files::add);
+        }
+      } else if (Files.exists(path)) {
+        files.add(path);
+      } else {
+        System.out.println("Not found: " + arg);
+      }
+    }
+    return files;
+  }
+
+  private static void printRow(MatchSummary summary) {
+    System.out.printf("%-40s %8.1f %8.0f %8.1f %8d %6d %7.2f %6d %7.2f%n",
+        summary.name,
+        summary.durationSeconds / 60.0,
+        summary.loopPercentile(0.99),
+        summary.maxLoopMs,
+        countOverruns(summary),
+        summary.brownoutCount,
+        Double.isNaN(summary.minBatteryVoltage) ? 0.0 : summary.minBatteryVoltage,
+        summary.shotCount,
+        summary.medianCycleSeconds());
+  }
+
+  private static long countOverruns(MatchSummary summary) {
+    long count = 0;
+    for (int i = (int) OVERRUN_MS; i < MatchSummary.HISTOGRAM_BUCKETS; i++) {
+      count += summary.loopHistogram[i];
+    }
+    return count;
+  }
+
+  private static void printHistogram(MatchSummary total) {
+    System.out.println();
+    System.out.println("Time between loop starts, all logs:");
+    for (int i = 0; i < MatchSummary.HISTOGRAM_BUCKETS; i++) {
+      long count = total.loopHistogram[i];
+      if (count == 0) {
+        continue;
+      }
+
+      String label = i == MatchSummary.HISTOGRAM_BUCKETS - 1
+          ? String.format("%d+ ms", i)
+          : String.format("%d-%d ms", i, i + 1);
+      double percent = 100.0 * count / total.loopCount;
+      System.out.printf("%10s %10d %6.2f%% %s%n", label, count, percent, "#".repeat((int) Math.ceil(percent / 2)));
+    }
+  }
+
+  private static void printCurrents(MatchSummary total) {
+    System.out.println();
+    System.out.println("Supply current by subsystem, all logs:");
+    System.out.printf("%-12s %10s %10s %10s%n", "subsystem", "amp-hours", "avg A", "peak A");
+    for (Map.Entry<String, MatchSummary.SubsystemCurrent> entry : total.currents.entrySet()) {
+      MatchSummary.SubsystemCurrent current = entry.getValue();
+      double average = total.durationSeconds > 0 ? current.ampSeconds / total.durationSeconds : 0.0;
+      System.out.printf("%-12s %10.3f %10.2f %10.1f%n",
+          entry.getKey(), current.ampSeconds / 3600.0, average, current.peakAmps);
+    }
+  }
+}
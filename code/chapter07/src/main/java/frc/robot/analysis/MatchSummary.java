@@ -0,0 +1,282 @@
+package frc.robot.analysis;
+
+import java.nio.MappedByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The statistics the analyzer collects from one log, or from several logs
+ * added together.
+ */
+final class MatchSummary implements WpilogReader.Handler {
+  // Loop times are counted in 1 ms buckets, and the last bucket counts
+  // everything longer.
+  static final int HISTOGRAM_BUCKETS = 51;
+
+  // Gaps between shots longer than this are pauses, not cycles.
+  private static final double MAX_CYCLE_SECONDS = 30.0;
+
+  private static final String ROOT = "/RealInputs/";
+  private static final String CURRENT_SUFFIX = "SupplyCurrentAmps";
+
+  // What each entry in the log is used for.
+  private static final byte IGNORED = 0;
+  private static final byte LOOP_TIMESTAMP = 1;
+  private static final byte BROWNED_OUT = 2;
+  private static final byte BATTERY_VOLTAGE = 3;
+  private static final byte SHOT_COUNT = 4;
+  private static final byte SUPPLY_CURRENT = 5;
+
+  final String name;
+
+  final long[] loopHistogram = new long[HISTOGRAM_BUCKETS];
+  long loopCount;
+  double maxLoopMs;
+  double durationSeconds;
+  int brownoutCount;
+  double minBatteryVoltage = Double.NaN;
+  int shotCount;
+  double[] cycleSeconds = new double[16];
+  int cycleCount;
+  final Map<String, SubsystemCurrent> currents = new LinkedHashMap<>();
+
+  // State used while reading a log. Entries are numbered from 1, so these
+  // are indexed by entry number.
+  private byte[] roles = new byte[64];
+  private SubsystemCurrent[] currentByEntry = new SubsystemCurrent[64];
+  private long[] lastTimestamp = new long[64];
+  private double[] lastValue = new double[64];
+  private long firstLoopTimestamp = -1;
+  private long lastLoopTimestamp = -1;
+  private long previousLoopTimestamp = -1;
+  private boolean brownedOut;
+  private double lastShotCount;
+  private long lastShotTimestamp = -1;
+
+  /** Current drawn by the motors of one subsystem. */
+  static final class SubsystemCurrent {
+    double ampSeconds;
+    double peakAmps;
+
+    // The latest reading from each of the subsystem's motors added
+    // together, and the loop those readings came from.
+    private double totalAmps;
+    private long totalTimestamp = -1;
+
+    void endLoop() {
+      peakAmps = Math.max(peakAmps, totalAmps);
+    }
+
+    void add(SubsystemCurrent other) {
+      ampSeconds += other.ampSeconds;
+      peakAmps = Math.max(peakAmps, other.peakAmps);
+    }
+  }
+
+  MatchSummary(String name) {
+    this.name = name;
+  }
+
+  @Override
+  public void start(int entry, String entryName, String type) {
+    grow(entry);
+
+    byte role = IGNORED;
+    if (entryName.equals(ROOT + "Timestamp")) {
+      role = LOOP_TIMESTAMP;
+    } else if (entryName.equals(ROOT + "DriverStation/BrownedOut")) {
+      role = BROWNED_OUT;
+    } else if (entryName.equals(ROOT + "DriverStation/BatteryVoltage")) {
+      role = BATTERY_VOLTAGE;
+    } else if (entryName.equals(ROOT + "Shooter/ShotCount")) {
+      role = SHOT_COUNT;
+    } else if (entryName.startsWith(ROOT) && entryName.endsWith(CURRENT_SUFFIX)
+        && type.equals("double")) {
+      // The subsystem is the part of the name after the root, such as
+      // "Climber" in "/RealInputs/Climber/LeftSupplyCurrentAmps".
+      int slash = entryName.indexOf('/', ROOT.length());
+      if (slash > 0) {
+        String subsystem = entryName.substring(ROOT.length(), slash);
+        currentByEntry[entry] = currents.computeIfAbsent(subsystem, s -> new SubsystemCurrent());
+        role = SUPPLY_CURRENT;
+      }
+    }
+    roles[entry] = role;
+    lastTimestamp[entry] = -1;
+  }
+
+  @Override
+  public void record(int entry, long timestamp, MappedByteBuffer buffer, int offset, int size) {
+    if (entry >= roles.length) {
+      return;
+    }
+
+    switch (roles[entry]) {
+      case LOOP_TIMESTAMP:
+        addLoop(timestamp);
+        break;
+      case BROWNED_OUT:
+        boolean nowBrownedOut = size >= 1 && buffer.get(offset) != 0;
+        if (nowBrownedOut && !brownedOut) {
+          brownoutCount++;
+        }
+        brownedOut = nowBrownedOut;
+        break;
+      case BATTERY_VOLTAGE:
+        double voltage = buffer.getDouble(offset);
+        // Zero means the value wasn't read yet.
+        if (voltage > 0.0 && !(voltage >= minBatteryVoltage)) {
+          minBatteryVoltage = voltage;
+        }
+        break;
+      case SHOT_COUNT:
+        addShotCount(timestamp, buffer.getDouble(offset));
+        break;
+      case SUPPLY_CURRENT:
+        addCurrent(entry, timestamp, Math.abs(buffer.getDouble(offset)));
+        break;
+      default:
+        break;
+    }
+  }
+
+  @Override
+  public void end() {
+    for (SubsystemCurrent current : currents.values()) {
+      current.endLoop();
+    }
+
+    // The last loop's values last until the end of the loop, which is
+    // taken to be as long as the loop before it.
+    if (previousLoopTimestamp < 0) {
+      return;
+    }
+    long lastLoopMicros = lastLoopTimestamp - previousLoopTimestamp;
+    for (int entry = 0; entry < currentByEntry.length; entry++) {
+      SubsystemCurrent current = currentByEntry[entry];
+      if (current != null && lastTimestamp[entry] >= 0) {
+        long until = lastLoopTimestamp + lastLoopMicros;
+        current.ampSeconds += lastValue[entry] * Math.max(0, until - lastTimestamp[entry]) / 1e6;
+      }
+    }
+    durationSeconds += lastLoopMicros / 1e6;
+  }
+
+  private void addLoop(long timestamp) {
+    if (firstLoopTimestamp < 0) {
+      firstLoopTimestamp = timestamp;
+    }
+    if (lastLoopTimestamp >= 0) {
+      previousLoopTimestamp = lastLoopTimestamp;
+      double loopMs = (timestamp - lastLoopTimestamp) / 1000.0;
+      int bucket = (int) Math.min(HISTOGRAM_BUCKETS - 1, Math.max(0.0, loopMs));
+      loopHistogram[bucket]++;
+      loopCount++;
+      maxLoopMs = Math.max(maxLoopMs, loopMs);
+    }
+    lastLoopTimestamp = timestamp;
+    durationSeconds = (timestamp - firstLoopTimestamp) / 1e6;
+  }
+
+  private void addShotCount(long timestamp, double count) {
+    // The count starts again when the robot restarts, so a smaller count
+    // is counted from zero.
+    if (count < lastShotCount) {
+      lastShotCount = 0.0;
+    }
+    if (count > lastShotCount) {
+      shotCount += (int) Math.round(count - lastShotCount);
+      if (lastShotTimestamp >= 0) {
+        double seconds = (timestamp - lastShotTimestamp) / 1e6;
+        if (seconds <= MAX_CYCLE_SECONDS) {
+          addCycle(seconds);
+        }
+      }
+      lastShotTimestamp = timestamp;
+    }
+    lastShotCount = count;
+  }
+
+  private void addCurrent(int entry, long timestamp, double amps) {
+    SubsystemCurrent current = currentByEntry[entry];
+
+    // Every motor in a subsystem is logged with the same loop timestamp, so
+    // the total for a loop is complete once the next loop's values start.
+    if (timestamp != current.totalTimestamp) {
+      current.endLoop();
+      current.totalTimestamp = timestamp;
+    }
+    current.totalAmps += amps - lastValue[entry];
+
+    // Values are only logged each loop, so each one lasts until the next.
+    long previous = lastTimestamp[entry];
+    if (previous >= 0) {
+      current.ampSeconds += lastValue[entry] * (timestamp - previous) / 1e6;
+    }
+    lastTimestamp[entry] = timestamp;
+    lastValue[entry] = amps;
+  }
+
+  private void addCycle(double seconds) {
+    if (cycleCount == cycleSeconds.length) {
+      cycleSeconds = Arrays.copyOf(cycleSeconds, cycleCount * 2);
+    }
+    cycleSeconds[cycleCount++] = seconds;
+  }
+
+  private void grow(int entry) {
+    if (entry < roles.length) {
+      return;
+    }
+    int size = Math.max(entry + 1, roles.length * 2);
+    roles = Arrays.copyOf(roles, size);
+    currentByEntry = Arrays.copyOf(currentByEntry, size);
+    lastTimestamp = Arrays.copyOf(lastTimestamp, size);
+    lastValue = Arrays.copyOf(lastValue, size);
+  }
+
+  /** Adds another log's statistics to these. */
+  void add(MatchSummary other) {
+    for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+      loopHistogram[i] += other.loopHistogram[i];
+    }
+    loopCount += other.loopCount;
+    maxLoopMs = Math.max(maxLoopMs, other.maxLoopMs);
+    durationSeconds += other.durationSeconds;
+    brownoutCount += other.brownoutCount;
+    if (!Double.isNaN(other.minBatteryVoltage) && !(minBatteryVoltage <= other.minBatteryVoltage)) {
+      minBatteryVoltage = other.minBatteryVoltage;
+    }
+    shotCount += other.shotCount;
+    for (int i = 0; i < other.cycleCount; i++) {
+      addCycle(other.cycleSeconds[i]);
+    }
+    for (Map.Entry<String, SubsystemCurrent> entry : other.currents.entrySet()) {
+      currents.computeIfAbsent(entry.getKey(), s -> new SubsystemCurrent()).add(entry.getValue());
+    }
+  }
+
+  /** Gets the loop time that this fraction of loops were shorter than, in ms. */
+  double loopPercentile(double fraction) {
+    long target = (long) Math.ceil(fraction * loopCount);
+    long seen = 0;
+    for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+      seen += loopHistogram[i];
+      if (seen >= target && seen > 0) {
+        return i + 1;
+      }
+    }
+    return 0.0;
+  }
+
+  /** Gets the median time between shots, in seconds. */
+  double medianCycleSeconds() {
+    if (cycleCount == 0) {
+      return 0.0;
+    }
+    double[] sorted = Arrays.copyOf(cycleSeconds, cycleCount);
+    Arrays.sort(sorted);
+    return sorted[cycleCount / 2];
+  }
+}
@@ -0,0 +1,124 @@
+package frc.robot.analysis;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the records in a WPILOG file without loading the file onto the
+ * heap. The file is memory-mapped, so the operating system pages it in as
+ * it's read, and each record is handed to a {@link Handler} as a position
+ * in the mapped buffer rather than being copied out.
+ *
+ * <p>The format is described in WPILib's {@code datalog.adoc}.
+ */
+final class WpilogReader {
+  /** Receives the records of a log, in the order they appear in the file. */
+  interface Handler {
+    /** Called when an entry is started, before any of its records. */
+    void start(int entry, String name, String type);
+
+    /**
+     * Called for each data record. The payload is {@code size} bytes
+     * starting at {@code offset} in {@code buffer}.
+     */
+    void record(int entry, long timestampMicros, MappedByteBuffer buffer, int offset, int size);
+
+    /** Called after the last record in the file. */
+    default void end() {}
+  }
+
+  private static final byte[] MAGIC = "WPILOG".getBytes(StandardCharsets.US_ASCII);
+  private static final int CONTROL_START = 0;
+
+  private WpilogReader() {}
+
+  static void read(Path path, Handler handler) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException(path + " is too large to read");
+      }
+
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      read(path, buffer, handler);
+    }
+  }
+
+  private static void read(Path path, MappedByteBuffer buffer, Handler handler) throws IOException {
+    int limit = buffer.limit();
+    if (limit < 12) {
+      throw new IOException(path + " is not a WPILOG file");
+    }
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (buffer.get(i) != MAGIC[i]) {
+        throw new IOException(path + " is not a WPILOG file");
+      }
+    }
+
+    // Skip the version and the extra header string.
+    int position = 12 + buffer.getInt(8);
+
+    while (position < limit) {
+      // The first byte says how many bytes each of the next fields use.
+      int lengths = buffer.get(position) & 0xFF;
+      int entryBytes = (lengths & 0x3) + 1;
+      int sizeBytes = ((lengths >> 2) & 0x3) + 1;
+      int timestampBytes = ((lengths >> 4) & 0x7) + 1;
+      int headerEnd = position + 1 + entryBytes + sizeBytes + timestampBytes;
+      if (headerEnd > limit) {
+        // The robot lost power partway through writing this record.
+        break;
+      }
+
+      int entry = (int) readVarInt(buffer, position + 1, entryBytes);
+      int size = (int) readVarInt(buffer, position + 1 + entryBytes, sizeBytes);
+      long timestamp = readVarInt(buffer, position + 1 + entryBytes + sizeBytes, timestampBytes);
+      if (size < 0 || headerEnd + size > limit) {
+        break;
+      }
+
+      if (entry == 0) {
+        readControl(buffer, headerEnd, size, handler);
+      } else {
+        handler.record(entry, timestamp, buffer, headerEnd, size);
+      }
+      position = headerEnd + size;
+    }
+    handler.end();
+  }
+
+  private static void readControl(MappedByteBuffer buffer, int offset, int size, Handler handler) {
+    if (size < 5 || buffer.get(offset) != CONTROL_START) {
+      // Finish and metadata records aren't needed.
+      return;
+    }
+
+    int entry = buffer.getInt(offset + 1);
+    int nameLength = buffer.getInt(offset + 5);
+    String name = readString(buffer, offset + 9, nameLength);
+    int typeOffset = offset + 9 + nameLength;
+    int typeLength = buffer.getInt(typeOffset);
+    String type = readString(buffer, typeOffset + 4, typeLength);
+    handler.start(entry, name, type);
+  }
+
+  private static long readVarInt(MappedByteBuffer buffer, int offset, int length) {
+    long value = 0;
+    for (int i = 0; i < length; i++) {
+      value |= (long) (buffer.get(offset + i) & 0xFF) << (8 * i);
+    }
+    return value;
+  }
+
+  private static String readString(MappedByteBuffer buffer, int offset, int length) {
+    byte[] bytes = new byte[length];
+    buffer.get(offset, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,179 @@
+package frc.robot.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures how steadily a 20 ms robot loop starts on time, with and without
+ * a raised thread priority, while other threads load the CPU and the
+ * garbage collector. This runs on a desktop computer, not the robot:
+ *
+ * <pre>
+ * ./gradlew jitterBenchmark
+ * ./gradlew jitterBenchmark --args="30"   (seconds per configuration)
+ * </pre>
+ *
+ * <p>The loop sleeps until each 20 ms deadline the same way the robot's
+ * notifier does, then does a couple of milliseconds of work like robot code
+ * would. For each configuration, it prints how late each loop started
+ * compared to its deadline.
+ *
+ * <p>Java only changes a thread's operating system priority on Linux when
+ * the JVM runs with {@code -XX:ThreadPriorityPolicy=1} as root, which the
+ * Gradle task sets up. Without root, both priority settings behave the same.
+ * To try a real-time priority like the robot uses, run the JVM under
+ * {@code sudo chrt -f 50}.
+ */
+public final class JitterBenchmark {
+  private static final long PERIOD_NANOS = 20_000_000L;
+
+  // How much work each loop does, similar to a busy robot program.
+  private static final long LOOP_WORK_NANOS = 2_000_000L;
+
+  private static final double DEFAULT_SECONDS_PER_CONFIG = 10.0;
+
+  private enum Load { NONE, CPU, GC, CPU_AND_GC }
+
+  // Keeps the loop's work from being optimized away.
+  private static volatile long sink;
+
+  private JitterBenchmark() {}
+
+  public static void main(String[] args) throws InterruptedException {
+    double seconds = args.length > 0 ? Double.parseDouble(args[0]) : DEFAULT_SECONDS_PER_CONFIG;
+    int loops = (int) (seconds * 1e9 / PERIOD_NANOS);
+
+    System.out.printf("%d loops of %d ms per configuration, %d CPUs%n",
+        loops, PERIOD_NANOS / 1_000_000, Runtime.getRuntime().availableProcessors());
+    System.out.println("Milliseconds each loop started after its deadline:");
+    System.out.printf("%-12s %-9s %8s %8s %8s %8s %8s %8s%n",
+        "load", "priority", "mean", "p50", "p90", "p99", "p99.9", "max");
+
+    for (Load load : Load.values()) {
+      for (boolean raised : new boolean[] {false, true}) {
+        double[] lateMs = run(load, raised, loops);
+        printRow(load, raised, lateMs);
+      }
+    }
+  }
+
+  /** Runs the loop under one configuration, and returns how late each loop started. */
+  private static double[] run(Load load, boolean raisedPriority, int loops) throws InterruptedException {
+    List<Thread> loadThreads = startLoad(load, raisedPriority);
+    double[] lateMs = new double[loops];
+
+    Thread loopThread = new Thread(() -> {
+      long deadline = System.nanoTime() + PERIOD_NANOS;
+      for (int i = 0; i < loops; i++) {
+        long now;
+        while ((now = System.nanoTime()) < deadline) {
+          LockSupport.parkNanos(deadline - now);
+        }
+        lateMs[i] = (now - deadline) / 1e6;
+
+        doLoopWork();
+
+        // Like the robot's notifier, skip ahead if a whole period was missed
+        // rather than running several loops back to back.
+        deadline += PERIOD_NANOS;
+        long after = System.nanoTime();
+        if (after > deadline) {
+          deadline += (after - deadline) / PERIOD_NANOS * PERIOD_NANOS + PERIOD_NANOS;
+        }
+      }
+    }, "Benchmark loop");
+    loopThread.setPriority(raisedPriority ? Thread.MAX_PRIORITY : Thread.NORM_PRIORITY);
+    loopThread.start();
+    loopThread.join();
+
+    for (Thread thread : loadThreads) {
+      thread.interrupt();
+    }
+    for (Thread thread : loadThreads) {
+      thread.join();
+    }
+    return lateMs;
+  }
+
+  private static List<Thread> startLoad(Load load, boolean raisedPriority) {
+    List<Thread> threads = new ArrayList<>();
+
+    // With the loop's priority raised, the background work is also lowered,
+    // the same as on the robot.
+    int backgroundPriority = raisedPriority ? Thread.MIN_PRIORITY : Thread.NORM_PRIORITY;
+
+    if (load == Load.CPU || load == Load.CPU_AND_GC) {
+      // One busy thread for every CPU.
+      for (int i = 0; i < Runtime.getRuntime().availableProcessors(); i++) {
+        threads.add(new Thread(() -> {
+          long x = 0;
+          while (!Thread.currentThread().isInterrupted()) {
+            x += x * 31 + 7;
+          }
+          sink = x;
+        }, "CPU load " + i));
+      }
+    }
+
+    if (load == Load.GC || load == Load.CPU_AND_GC) {
+      // Keep some objects alive for a while so the collector has real work
+      // to do, like NetworkTables and logging buffers.
+      threads.add(new Thread(() -> {
+        Object[] retained = new Object[4096];
+        int index = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+          retained[index] = new byte[1024 + (index % 64) * 64];
+          index = (index + 1) % retained.length;
+        }
+        sink = retained.length;
+      }, "GC load"));
+    }
+
+    for (Thread thread : threads) {
+      thread.setDaemon(true);
+      thread.setPriority(backgroundPriority);
+      thread.start();
+    }
+    return threads;
+  }
+
+  private static void doLoopWork() {
+    long end = System.nanoTime() + LOOP_WORK_NANOS;
+    long x = 0;
+    while (System.nanoTime() < end) {
+      // Allocate a little, as robot code does.
+      double[] values = new double[16];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = Math.sqrt(x + i);
+      }
+      x += (long) values[15];
+    }
+    sink = x;
+  }
+
+  private static void printRow(Load load, boolean raised, double[] lateMs) {
+    double[] sorted = lateMs.clone();
+    Arrays.sort(sorted);
+
+    double total = 0.0;
+    for (double value : sorted) {
+      total += value;
+    }
+
+    System.out.printf("%-12s %-9s %8.3f %8.3f %8.3f %8.3f %8.3f %8.3f%n",
+        load, raised ? "raised" : "normal",
+        total / sorted.length,
+        percentile(sorted, 0.50),
+        percentile(sorted, 0.90),
+        percentile(sorted, 0.99),
+        percentile(sorted, 0.999),
+        sorted[sorted.length - 1]);
+  }
+
+  private static double percentile(double[] sorted, double fraction) {
+    int index = (int) Math.ceil(fraction * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+  }
+}
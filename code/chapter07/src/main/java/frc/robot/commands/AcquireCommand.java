@@ -0,0 +1,126 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+import frc.robot.subsystems.IndexerSubsystem;
+import frc.robot.subsystems.IntakeSubsystem;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.TelemetryTable;
+
+/**
+ * Picks up a game piece and hands it to the indexer. The intake extends and
+ * runs its rollers until the indexer's beam break sees the piece, then
+ * retracts while the indexer holds the piece in place.
+ *
+ * <p>Every pickup is timed, and the statistics are shown on the dashboard
+ * under "Acquire" so we can see how long this part of a cycle takes. The
+ * intake's current-based piece detection is also checked against the beam
+ * break, to show how much earlier it sees the piece and whether it ever
+ * misses one.
+ */
+public class AcquireCommand extends WrapperCommand {
+  private final IntakeSubsystem intake;
+  private final IndexerSubsystem indexer;
+  private final Timer timer;
+
+  private boolean alreadyHadPiece;
+  private int completedCount;
+  private int interruptedCount;
+  private double lastSeconds;
+  private double totalSeconds;
+  private double fastestSeconds;
+  private double slowestSeconds;
+
+  private boolean contactSeen;
+  private int contactCount;
+  private int missedContactCount;
+  private int contactWithoutPieceCount;
+  private double lastContactLeadSeconds;
+  private double totalContactLeadSeconds;
+
+  public AcquireCommand(IntakeSubsystem intake, IndexerSubsystem indexer) {
+    super(Commands.parallel(intake.extend(), indexer.receivePieceFromIntake())
+        .until(indexer::hasGamePiece)
+        .unless(indexer::hasGamePiece));
+    this.intake = intake;
+    this.indexer = indexer;
+    timer = new Timer();
+
+    setName("Acquire");
+
+    TelemetryTable telemetry = Telemetry.getTable("Acquire");
+    telemetry.addDouble("Count", () -> completedCount);
+    telemetry.addDouble("Interrupted", () -> interruptedCount);
+    telemetry.addDouble("LastSeconds", () -> lastSeconds);
+    telemetry.addDouble("AverageSeconds", this::getAverageSeconds);
+    telemetry.addDouble("FastestSeconds", () -> fastestSeconds);
+    telemetry.addDouble("SlowestSeconds", () -> slowestSeconds);
+    telemetry.addDouble("ContactLeadSeconds", () -> lastContactLeadSeconds);
+    telemetry.addDouble("AverageContactLeadSeconds",
+        () -> contactCount > 0 ? totalContactLeadSeconds / contactCount : 0.0);
+    telemetry.addDouble("MissedContacts", () -> missedContactCount);
+    telemetry.addDouble("ContactsWithoutPiece", () -> contactWithoutPieceCount);
+  }
+
+  @Override
+  public void initialize() {
+    alreadyHadPiece = indexer.hasGamePiece();
+    contactSeen = false;
+    timer.restart();
+    super.initialize();
+  }
+
+  @Override
+  public void execute() {
+    super.execute();
+
+    if (intake.hasPieceContact()) {
+      contactSeen = true;
+    }
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    super.end(interrupted);
+    timer.stop();
+
+    if (alreadyHadPiece) {
+      // Nothing was picked up, so there's nothing to time.
+      return;
+    }
+
+    if (interrupted) {
+      // The operator let go of the button before we got a piece.
+      interruptedCount++;
+      if (contactSeen) {
+        contactWithoutPieceCount++;
+      }
+      return;
+    }
+
+    // Compare when the rollers felt the piece to when the beam break saw it.
+    if (contactSeen) {
+      lastContactLeadSeconds = Timer.getFPGATimestamp() - intake.getPieceContactTime();
+      totalContactLeadSeconds += lastContactLeadSeconds;
+      contactCount++;
+    } else {
+      missedContactCount++;
+    }
+
+    lastSeconds = timer.get();
+    totalSeconds += lastSeconds;
+    if (completedCount == 0 || lastSeconds < fastestSeconds) {
+      fastestSeconds = lastSeconds;
+    }
+    if (lastSeconds > slowestSeconds) {
+      slowestSeconds = lastSeconds;
+    }
+    completedCount++;
+  }
+
+  /** Gets the average time it takes to pick up a piece, in seconds. */
+  public double getAverageSeconds() {
+    return completedCount > 0 ? totalSeconds / completedCount : 0.0;
+  }
+}
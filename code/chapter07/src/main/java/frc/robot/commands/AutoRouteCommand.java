@@ -0,0 +1,79 @@
+package frc.robot.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+import frc.robot.planning.AutoRoute;
+import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.subsystems.IndexerSubsystem;
+import frc.robot.subsystems.IntakeSubsystem;
+import frc.robot.subsystems.ShooterSubsystem;
+
+/**
+ * Drives an autonomous route made by the route planner. The intake runs
+ * while the robot drives to each piece, and each piece is shot once the
+ * robot reaches a scoring spot. The flywheel spins for the whole route so
+ * it's always ready.
+ */
+public class AutoRouteCommand extends WrapperCommand {
+  // How long to keep trying to pick up a piece after reaching it, and to
+  // wait for a shot, before moving on.
+  private static final double INTAKE_TIMEOUT_SECONDS = 1.0;
+  private static final double SHOOT_TIMEOUT_SECONDS = 1.0;
+
+  public AutoRouteCommand(
+      AutoRoute route,
+      DriveSubsystem driveBase,
+      IntakeSubsystem intake,
+      IndexerSubsystem indexer,
+      ShooterSubsystem shooter) {
+    super(Commands.deadline(
+        legs(route, driveBase, intake, indexer, shooter),
+        shooter.spinFlywheel()));
+
+    setName("AutoRoute " + route.getName());
+  }
+
+  private static Command legs(
+      AutoRoute route,
+      DriveSubsystem driveBase,
+      IntakeSubsystem intake,
+      IndexerSubsystem indexer,
+      ShooterSubsystem shooter) {
+    List<Command> steps = new ArrayList<>();
+
+    // The route was planned from this position, so the robot must be
+    // placed there at the start of the match.
+    steps.add(Commands.runOnce(() -> driveBase.resetPose(route.getStart())));
+
+    for (AutoRoute.Leg leg : route.getLegs()) {
+      Command drive = leg.trajectory != null
+          ? driveBase.followTrajectory(leg.trajectory)
+          : Commands.none();
+
+      if (leg.shoot) {
+        steps.add(drive);
+        steps.add(Commands.sequence(
+            Commands.waitUntil(shooter::isReadyToFire),
+            Commands.deadline(shooter.waitForShot(), indexer.feedPieceToShooter()))
+            .withTimeout(SHOOT_TIMEOUT_SECONDS));
+      } else {
+        // Start the intake on the way, so the piece is taken in as soon as
+        // the robot reaches it.
+        steps.add(Commands.deadline(drive, pickUp(intake, indexer)));
+        steps.add(pickUp(intake, indexer)
+            .withTimeout(INTAKE_TIMEOUT_SECONDS)
+            .unless(indexer::hasGamePiece));
+      }
+    }
+    return Commands.sequence(steps.toArray(new Command[0]));
+  }
+
+  private static Command pickUp(IntakeSubsystem intake, IndexerSubsystem indexer) {
+    return Commands.parallel(intake.extend(), indexer.receivePieceFromIntake())
+        .until(indexer::hasGamePiece);
+  }
+}
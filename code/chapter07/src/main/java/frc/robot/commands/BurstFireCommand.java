@@ -0,0 +1,72 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+import frc.robot.subsystems.IndexerSubsystem;
+import frc.robot.subsystems.IntakeSubsystem;
+import frc.robot.subsystems.ShooterSubsystem;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.TelemetryTable;
+
+/**
+ * Shoots every piece in the robot as fast as the flywheel allows.
+ *
+ * <p>Instead of feeding for a fixed time, the indexer feeds until the
+ * shooter sees the flywheel slow down from a shot, then stops and waits only
+ * until the flywheel is back up to speed before feeding the next piece. The
+ * intake keeps its rollers running to push the next piece into the indexer.
+ * Every shot leaves the flywheel at the same speed, so the shots stay
+ * accurate even though they come one after another.
+ *
+ * <p>The shots in each burst and the overall shot rate are shown on the
+ * dashboard under "BurstFire".
+ */
+public class BurstFireCommand extends WrapperCommand {
+  private final ShooterSubsystem shooter;
+
+  private int shotCountAtStart;
+  private int burstShots;
+  private double burstStartTime;
+  private double shotsPerSecond;
+
+  public BurstFireCommand(IntakeSubsystem intake, IndexerSubsystem indexer, ShooterSubsystem shooter) {
+    super(Commands.parallel(
+        shooter.spinFlywheel(),
+        intake.extend(),
+        Commands.sequence(
+            indexer.idle().until(shooter::isReadyToFire),
+            Commands.deadline(shooter.waitForShot(), indexer.feedPieceToShooter()))
+            .repeatedly()));
+    this.shooter = shooter;
+
+    setName("BurstFire");
+
+    TelemetryTable telemetry = Telemetry.getTable("BurstFire");
+    telemetry.addDouble("BurstShots", () -> burstShots);
+    telemetry.addDouble("ShotsPerSecond", () -> shotsPerSecond);
+  }
+
+  @Override
+  public void initialize() {
+    super.initialize();
+    shotCountAtStart = shooter.getShotCount();
+    burstShots = 0;
+    burstStartTime = Timer.getFPGATimestamp();
+    shotsPerSecond = 0.0;
+  }
+
+  @Override
+  public void execute() {
+    super.execute();
+
+    int shots = shooter.getShotCount() - shotCountAtStart;
+    if (shots != burstShots) {
+      burstShots = shots;
+
+      // The rate from the start of the burst, which includes spinning up
+      // for the first shot.
+      shotsPerSecond = burstShots / (Timer.getFPGATimestamp() - burstStartTime);
+    }
+  }
+}
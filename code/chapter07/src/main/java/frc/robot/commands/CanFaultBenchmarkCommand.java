@@ -0,0 +1,314 @@
+package frc.robot.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+import frc.robot.subsystems.ClimberIOWithFaults;
+import frc.robot.subsystems.ClimberSubsystem;
+import frc.robot.subsystems.DriveIOWithFaults;
+import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.subsystems.IndexerIOWithFaults;
+import frc.robot.subsystems.IndexerSubsystem;
+
+/**
+ * Measures how badly the drive base, climber and indexer are controlled
+ * when the CAN bus is slow or losing messages. This only works in
+ * simulation.
+ *
+ * <p>For each level of faults, the drive base and the climber arms each
+ * move to a position and back using a simple loop on the RoboRIO, and the
+ * indexer takes in a piece and stops on the beam break. The real positions
+ * are compared with the targets to find how far each one overshoots and how
+ * long it takes to settle. The results are printed to the console and
+ * saved in the log.
+ */
+public class CanFaultBenchmarkCommand extends WrapperCommand {
+  // Each level is {latency in ms, extra random delay in ms, fraction of
+  // messages lost}. The first level has no faults, to compare against.
+  private static final double[][] FAULT_LEVELS = {
+    {0.0, 0.0, 0.0},
+    {10.0, 5.0, 0.0},
+    {20.0, 10.0, 0.02},
+    {40.0, 20.0, 0.05},
+    {80.0, 40.0, 0.15},
+  };
+
+  private static final double DRIVE_DISTANCE = 2.0; // meters
+  private static final double DRIVE_KP = 0.8; // output per meter
+  private static final double DRIVE_MAX_OUTPUT = 0.6;
+  private static final double DRIVE_TOLERANCE = 0.05; // meters
+  private static final double DRIVE_MOVE_SECONDS = 3.0;
+
+  private static final double CLIMBER_DISTANCE = 20.0; // rotations
+  private static final double CLIMBER_KP = 1.0; // volts per rotation
+  private static final double CLIMBER_MAX_VOLTAGE = 6.0;
+  private static final double CLIMBER_TOLERANCE = 0.5; // rotations
+  private static final double CLIMBER_MOVE_SECONDS = 2.0;
+
+  // The indexer first feeds out any piece it has, then takes in a new one.
+  private static final double INDEXER_CLEAR_SECONDS = 0.5;
+  private static final double INDEXER_RECEIVE_SECONDS = 1.5;
+
+  private final List<Result> results;
+
+  public CanFaultBenchmarkCommand(
+      DriveSubsystem driveBase,
+      DriveIOWithFaults driveIO,
+      ClimberSubsystem climber,
+      ClimberIOWithFaults climberIO,
+      IndexerSubsystem indexer,
+      IndexerIOWithFaults indexerIO) {
+    this(new ArrayList<>(), driveBase, driveIO, climber, climberIO, indexer, indexerIO);
+  }
+
+  private CanFaultBenchmarkCommand(
+      List<Result> results,
+      DriveSubsystem driveBase,
+      DriveIOWithFaults driveIO,
+      ClimberSubsystem climber,
+      ClimberIOWithFaults climberIO,
+      IndexerSubsystem indexer,
+      IndexerIOWithFaults indexerIO) {
+    super(allLevels(results, driveBase, driveIO, climber, climberIO, indexer, indexerIO)
+        .finallyDo(() -> setFaults(driveIO, climberIO, indexerIO, FAULT_LEVELS[0])));
+    this.results = results;
+
+    setName("CanFaultBenchmark");
+  }
+
+  @Override
+  public void initialize() {
+    results.clear();
+    super.initialize();
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    super.end(interrupted);
+
+    DataLogManager.log("CAN fault benchmark" + (interrupted ? " (stopped early)" : "") + ":");
+    for (Result result : results) {
+      DataLogManager.log(result.toString());
+    }
+  }
+
+  private static Command allLevels(
+      List<Result> results,
+      DriveSubsystem driveBase,
+      DriveIOWithFaults driveIO,
+      ClimberSubsystem climber,
+      ClimberIOWithFaults climberIO,
+      IndexerSubsystem indexer,
+      IndexerIOWithFaults indexerIO) {
+    List<Command> levels = new ArrayList<>();
+    for (double[] faults : FAULT_LEVELS) {
+      Result result = new Result(faults);
+
+      // The mechanisms don't affect each other, so they're all tested at
+      // the same time.
+      levels.add(Commands.sequence(
+          Commands.runOnce(() -> {
+            setFaults(driveIO, climberIO, indexerIO, faults);
+            result.reset();
+            results.add(result);
+          }),
+          Commands.parallel(
+              driveTrial(driveBase, driveIO, result.drive),
+              climberTrial(climber, climberIO, result.climber),
+              indexerTrial(indexer, indexerIO, result))));
+    }
+    return Commands.sequence(levels.toArray(new Command[0]));
+  }
+
+  private static void setFaults(
+      DriveIOWithFaults driveIO,
+      ClimberIOWithFaults climberIO,
+      IndexerIOWithFaults indexerIO,
+      double[] faults) {
+    driveIO.getChannel().setFaults(faults[0], faults[1], faults[2]);
+    climberIO.getChannel().setFaults(faults[0], faults[1], faults[2]);
+    indexerIO.getChannel().setFaults(faults[0], faults[1], faults[2]);
+  }
+
+  private static Command driveTrial(DriveSubsystem driveBase, DriveIOWithFaults driveIO, StepResult result) {
+    return Commands.sequence(
+        driveMove(driveBase, driveIO, DRIVE_DISTANCE, result),
+        driveMove(driveBase, driveIO, -DRIVE_DISTANCE, result));
+  }
+
+  private static Command driveMove(
+      DriveSubsystem driveBase, DriveIOWithFaults driveIO, double distance, StepResult result) {
+    StepTracker tracker = new StepTracker(DRIVE_TOLERANCE);
+
+    // The drive code only knows where the robot is from the encoders, which
+    // come over CAN, but the real position is used to score the move.
+    return Commands.sequence(
+        Commands.runOnce(() -> tracker.start(getActualDistance(driveIO), distance)),
+        Commands.parallel(
+            driveBase.arcadeDrive(
+                () -> MathUtil.clamp(
+                    DRIVE_KP * (tracker.getGoal() - driveBase.getDistanceMeters()),
+                    -DRIVE_MAX_OUTPUT, DRIVE_MAX_OUTPUT),
+                () -> 0.0),
+            Commands.run(() -> tracker.sample(getActualDistance(driveIO))))
+            .withTimeout(DRIVE_MOVE_SECONDS),
+        Commands.runOnce(() -> tracker.finish(result)));
+  }
+
+  private static double getActualDistance(DriveIOWithFaults driveIO) {
+    return (driveIO.getActualInputs().leftPositionMeters
+        + driveIO.getActualInputs().rightPositionMeters) / 2.0;
+  }
+
+  private static Command climberTrial(ClimberSubsystem climber, ClimberIOWithFaults climberIO, StepResult result) {
+    return Commands.sequence(
+        climberMove(climber, climberIO, CLIMBER_DISTANCE, result),
+        climberMove(climber, climberIO, -CLIMBER_DISTANCE, result));
+  }
+
+  private static Command climberMove(
+      ClimberSubsystem climber, ClimberIOWithFaults climberIO, double distance, StepResult result) {
+    StepTracker tracker = new StepTracker(CLIMBER_TOLERANCE);
+
+    // This loop runs on the RoboRIO instead of the motor controllers, so
+    // both its readings and its outputs go over CAN.
+    return Commands.sequence(
+        Commands.runOnce(() -> tracker.start(getActualPosition(climberIO), distance)),
+        Commands.run(
+            () -> {
+              double volts = MathUtil.clamp(
+                  CLIMBER_KP * (tracker.getGoal() - climber.getAveragePosition()),
+                  -CLIMBER_MAX_VOLTAGE, CLIMBER_MAX_VOLTAGE);
+              climberIO.setVoltages(volts, volts);
+              tracker.sample(getActualPosition(climberIO));
+            },
+            climber)
+            .withTimeout(CLIMBER_MOVE_SECONDS),
+        Commands.runOnce(() -> {
+          climberIO.setVoltages(0.0, 0.0);
+          tracker.finish(result);
+        }));
+  }
+
+  private static double getActualPosition(ClimberIOWithFaults climberIO) {
+    return (climberIO.getActualInputs().leftPositionRotations
+        + climberIO.getActualInputs().rightPositionRotations) / 2.0;
+  }
+
+  private static Command indexerTrial(IndexerSubsystem indexer, IndexerIOWithFaults indexerIO, Result result) {
+    // The beam break is read straight away by the indexer's fast check,
+    // but the command to stop the roller still has to cross the bus. Count
+    // how far the roller really turns after the beam is blocked.
+    return Commands.sequence(
+        indexer.feedPieceToShooter().withTimeout(INDEXER_CLEAR_SECONDS),
+        Commands.deadline(
+            indexer.receivePieceFromIntake().withTimeout(INDEXER_RECEIVE_SECONDS),
+            Commands.run(() -> {
+              if (!Double.isNaN(result.indexerOvershoot)) {
+                result.indexerOvershoot += indexerIO.getActualInputs().velocityRPS * 0.02;
+              } else if (indexerIO.getActualInputs().beamBroken) {
+                result.indexerOvershoot = 0.0;
+              }
+            })),
+        Commands.runOnce(() -> result.indexerHoldsPiece = indexerIO.getActualInputs().beamBroken));
+  }
+
+  /** Follows one move to find how far past the goal it goes and when it settles. */
+  private static final class StepTracker {
+    private final double tolerance;
+    private final Timer timer = new Timer();
+    private double goal;
+    private double direction;
+    private double overshoot;
+    private double settleTime;
+    private boolean settled;
+
+    StepTracker(double tolerance) {
+      this.tolerance = tolerance;
+    }
+
+    void start(double position, double distance) {
+      goal = position + distance;
+      direction = Math.signum(distance);
+      overshoot = 0.0;
+      settleTime = 0.0;
+      settled = false;
+      timer.restart();
+    }
+
+    double getGoal() {
+      return goal;
+    }
+
+    void sample(double position) {
+      overshoot = Math.max(overshoot, (position - goal) * direction);
+      settled = Math.abs(position - goal) <= tolerance;
+      if (!settled) {
+        settleTime = timer.get();
+      }
+    }
+
+    void finish(StepResult result) {
+      result.maxOvershoot = Math.max(result.maxOvershoot, overshoot);
+
+      // A move that is still outside the tolerance at the end never settled.
+      result.maxSettleTime = settled ? Math.max(result.maxSettleTime, settleTime) : Double.POSITIVE_INFINITY;
+    }
+  }
+
+  /** The worst of the moves made by one mechanism. */
+  private static final class StepResult {
+    double maxOvershoot;
+    double maxSettleTime;
+
+    void reset() {
+      maxOvershoot = 0.0;
+      maxSettleTime = 0.0;
+    }
+
+    String describe(String units) {
+      String settle = Double.isInfinite(maxSettleTime)
+          ? "never settles"
+          : String.format("settles in %.2f s", maxSettleTime);
+      return String.format("overshoots %.2f %s, %s", maxOvershoot, units, settle);
+    }
+  }
+
+  /** What was measured at one level of faults. */
+  private static final class Result {
+    final double[] faults;
+    final StepResult drive = new StepResult();
+    final StepResult climber = new StepResult();
+    double indexerOvershoot = Double.NaN;
+    boolean indexerHoldsPiece;
+
+    Result(double[] faults) {
+      this.faults = faults;
+    }
+
+    void reset() {
+      drive.reset();
+      climber.reset();
+      indexerOvershoot = Double.NaN;
+      indexerHoldsPiece = false;
+    }
+
+    @Override
+    public String toString() {
+      String indexer = Double.isNaN(indexerOvershoot)
+          ? "never saw a piece"
+          : String.format("turns %.2f rotations past the beam, %s",
+              indexerOvershoot, indexerHoldsPiece ? "holds the piece" : "loses the piece");
+      return String.format(
+          "  %.0f ms +%.0f ms, %.0f%% lost: drive %s; climber %s; indexer %s",
+          faults[0], faults[1], faults[2] * 100.0,
+          drive.describe("m"), climber.describe("rotations"), indexer);
+    }
+  }
+}
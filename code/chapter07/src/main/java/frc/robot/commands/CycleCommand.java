@@ -0,0 +1,157 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+import frc.robot.subsystems.IndexerSubsystem;
+import frc.robot.subsystems.IntakeSubsystem;
+import frc.robot.subsystems.ShooterSubsystem;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.TelemetryTable;
+
+/**
+ * Runs the intake, indexer and shooter together to score pieces as quickly
+ * as possible. Each mechanism works on its own piece at the same time:
+ *
+ * <ul>
+ *   <li>The flywheel spins the whole time, so it's ready by the time the
+ *       next piece gets to it.
+ *   <li>The indexer takes a piece from the intake, waits for the flywheel
+ *       to be at speed and recovered from the last shot, then feeds it into
+ *       the shooter.
+ *   <li>The intake stays out and picks up the next piece while the indexer
+ *       is feeding the last one. If the indexer is still full, it holds the
+ *       piece with the rollers stopped, and hands it over as soon as there
+ *       is room.
+ * </ul>
+ *
+ * <p>Where each piece is, and how many cycles per minute we're managing, is
+ * shown on the dashboard under "Superstructure".
+ */
+public class CycleCommand extends WrapperCommand {
+  // How long to keep feeding after the piece passes the beam break, so it's
+  // fully in the flywheel before the next piece is pulled in.
+  private static final double FEED_CLEAR_SECONDS = 0.2;
+
+  // Cycle times are averaged over the last few shots.
+  private static final int CYCLE_HISTORY = 5;
+
+  private final IntakeSubsystem intake;
+  private final IndexerSubsystem indexer;
+  private final ShooterSubsystem shooter;
+
+  private final double[] cycleSeconds = new double[CYCLE_HISTORY];
+  private int shotCount;
+  private double lastShotTime;
+  private boolean indexerHadPiece;
+
+  // Whether the intake is holding a piece that hasn't reached the indexer
+  // yet. The roller contact detection forgets about a piece as soon as the
+  // rollers stop, so while the intake holds a piece this is the only place
+  // that knows it's there.
+  private boolean intakeHasPiece;
+  private double lastHandoffTime;
+
+  public CycleCommand(IntakeSubsystem intake, IndexerSubsystem indexer, ShooterSubsystem shooter) {
+    super(Commands.parallel(
+        shooter.spinFlywheel(),
+
+        // Indexer: receive, wait for the flywheel, then feed.
+        Commands.sequence(
+            indexer.receivePieceFromIntake().until(indexer::hasGamePiece),
+            indexer.idle().until(shooter::isReadyToFire),
+            indexer.feedPieceToShooter().until(() -> !indexer.hasGamePiece()),
+            indexer.feedPieceToShooter().withTimeout(FEED_CLEAR_SECONDS))
+            .repeatedly(),
+
+        // Intake: hand a piece to the indexer, then pick up the next one
+        // while the indexer is busy, and hold it until there's room. The
+        // extend command is restarted after each handoff so the roller
+        // current detection starts fresh for the next piece.
+        Commands.sequence(
+            intake.extend().until(indexer::hasGamePiece),
+            intake.extend().until(intake::hasPieceContact),
+            intake.hold().until(() -> !indexer.hasGamePiece()))
+            .repeatedly()));
+    this.intake = intake;
+    this.indexer = indexer;
+    this.shooter = shooter;
+
+    setName("Cycle");
+
+    TelemetryTable telemetry = Telemetry.getTable("Superstructure");
+    telemetry.addBoolean("IntakeHasPiece", 0.02, () -> intakeHasPiece);
+    telemetry.addBoolean("IndexerHasPiece", 0.02, indexer::hasGamePiece);
+    telemetry.addBoolean("ShooterReady", 0.02, shooter::isAtSpeed);
+    telemetry.addDouble("PiecesHeld", this::getPiecesHeld);
+    telemetry.addDouble("Shots", () -> shotCount);
+    telemetry.addDouble("LastCycleSeconds",
+        () -> shotCount > 0 ? cycleSeconds[(shotCount - 1) % CYCLE_HISTORY] : 0.0);
+    telemetry.addDouble("CyclesPerMinute", this::getCyclesPerMinute);
+  }
+
+  @Override
+  public void initialize() {
+    super.initialize();
+
+    // The first shot is timed from when cycling started.
+    lastShotTime = Timer.getFPGATimestamp();
+    indexerHadPiece = indexer.hasGamePiece();
+    intakeHasPiece = intake.hasPieceContact();
+    lastHandoffTime = Double.NEGATIVE_INFINITY;
+  }
+
+  @Override
+  public void execute() {
+    super.execute();
+
+    // A piece leaving the indexer while the flywheel is at speed has been
+    // shot.
+    boolean indexerHasPiece = indexer.hasGamePiece();
+
+    // The intake has a piece once the rollers touch a new one, and hands it
+    // over when the indexer's beam break sees it. Contact that started
+    // before the last handoff belongs to the piece that was handed over.
+    if (intake.hasPieceContact() && intake.getPieceContactTime() > lastHandoffTime) {
+      intakeHasPiece = true;
+    }
+    if (!indexerHadPiece && indexerHasPiece) {
+      intakeHasPiece = false;
+      lastHandoffTime = Timer.getFPGATimestamp();
+    }
+
+    if (indexerHadPiece && !indexerHasPiece && shooter.isAtSpeed()) {
+      double now = Timer.getFPGATimestamp();
+      cycleSeconds[shotCount % CYCLE_HISTORY] = now - lastShotTime;
+      lastShotTime = now;
+      shotCount++;
+    }
+    indexerHadPiece = indexerHasPiece;
+  }
+
+  /** Gets how many pieces are in the robot, from 0 to 2. */
+  public int getPiecesHeld() {
+    int count = 0;
+    if (intakeHasPiece) {
+      count++;
+    }
+    if (indexer.hasGamePiece()) {
+      count++;
+    }
+    return count;
+  }
+
+  /** Gets how many pieces per minute were shot, over the last few shots. */
+  public double getCyclesPerMinute() {
+    int samples = Math.min(shotCount, CYCLE_HISTORY);
+    if (samples == 0) {
+      return 0.0;
+    }
+
+    double total = 0.0;
+    for (int i = 0; i < samples; i++) {
+      total += cycleSeconds[i];
+    }
+    return 60.0 * samples / total;
+  }
+}
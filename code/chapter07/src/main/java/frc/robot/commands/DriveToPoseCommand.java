@@ -0,0 +1,79 @@
+package frc.robot.commands;
+
+import java.util.Set;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+import frc.robot.navigation.Pathfinder;
+import frc.robot.subsystems.DriveSubsystem;
+
+/**
+ * Drives to a position on the field, going around obstacles. The path is
+ * found on a background thread by the {@link Pathfinder}, and the robot
+ * holds still until it's ready, which is usually a loop or two. If no path
+ * is found, or the drive has no encoders to tell where the robot is, a
+ * warning is sent to the Driver Station and the command ends.
+ */
+public class DriveToPoseCommand extends WrapperCommand {
+  public DriveToPoseCommand(Pathfinder pathfinder, DriveSubsystem driveBase, Pose2d goal) {
+    this(pathfinder, driveBase, goal, new PathSearch(pathfinder));
+  }
+
+  private DriveToPoseCommand(
+      Pathfinder pathfinder, DriveSubsystem driveBase, Pose2d goal, PathSearch search) {
+    super(Commands.either(
+        Commands.sequence(
+            Commands.runOnce(() -> search.start(driveBase.getPose(), goal)),
+
+            // Hold still until the path is ready.
+            Commands.deadline(
+                Commands.waitUntil(search::isReady),
+                driveBase.arcadeDrive(() -> 0.0, () -> 0.0)),
+
+            // The trajectory only exists once the search is done, so the
+            // command that follows it is made then.
+            Commands.defer(() -> search.follow(driveBase, goal), Set.of(driveBase))),
+        Commands.runOnce(() -> DriverStation.reportWarning(
+            "Can't drive to " + goal + " without drive encoders", false)),
+        driveBase::hasEncoders));
+
+    setName("DriveToPose");
+  }
+
+  /** Keeps track of the path requested each time the command starts. */
+  private static class PathSearch {
+    private final Pathfinder pathfinder;
+    private long requestId;
+    private Pathfinder.Result result;
+
+    PathSearch(Pathfinder pathfinder) {
+      this.pathfinder = pathfinder;
+    }
+
+    void start(Pose2d start, Pose2d goal) {
+      result = null;
+      requestId = pathfinder.request(start, goal);
+    }
+
+    boolean isReady() {
+      if (result == null) {
+        result = pathfinder.poll(requestId);
+      }
+      return result != null;
+    }
+
+    Command follow(DriveSubsystem driveBase, Pose2d goal) {
+      if (!result.found) {
+        return Commands.runOnce(() -> DriverStation.reportWarning("No path to " + goal, false));
+      }
+      if (result.trajectory == null) {
+        // Already there.
+        return Commands.none();
+      }
+      return driveBase.followTrajectory(result.trajectory);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package frc.robot.commands;
+
+import java.io.File;
+import java.io.IOException;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.input.MacroReader;
+import frc.robot.input.OperatorInputs;
+import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.TelemetryTable;
+
+/**
+ * Plays back a recording made by {@link RecordMacroCommand}. Each loop, the
+ * controllers are replaced by the next recorded frame, so the robot's
+ * normal button bindings and default commands do exactly what they did when
+ * it was recorded, one frame per loop.
+ *
+ * <p>The drive outputs are compared against the recording to show how
+ * closely the robot is following it.
+ */
+public class PlayMacroCommand extends Command {
+  private final OperatorInputs inputs;
+  private final DriveSubsystem driveBase;
+  private final File file;
+
+  private MacroReader reader;
+  private int frameCount;
+  private double squaredErrorTotal;
+
+  public PlayMacroCommand(OperatorInputs inputs, DriveSubsystem driveBase, File file) {
+    this.inputs = inputs;
+    this.driveBase = driveBase;
+    this.file = file;
+
+    // The commands started by the recorded buttons require the subsystems,
+    // so playback itself mustn't.
+    setName("PlayMacro");
+
+    TelemetryTable telemetry = Telemetry.getTable("Macro");
+    telemetry.addDouble("Frames", () -> frameCount);
+    telemetry.addDouble("OutputError", this::getOutputError);
+  }
+
+  @Override
+  public void initialize() {
+    frameCount = 0;
+    squaredErrorTotal = 0.0;
+    try {
+      reader = new MacroReader(file);
+      inputs.setPlayback(reader);
+    } catch (IOException e) {
+      DriverStation.reportError("Couldn't play macro: " + e.getMessage(), false);
+      reader = null;
+    }
+  }
+
+  @Override
+  public void execute() {
+    if (reader == null || reader.isFinished()) {
+      return;
+    }
+
+    double leftError = driveBase.getLeftOutput() - reader.getLeftOutput();
+    double rightError = driveBase.getRightOutput() - reader.getRightOutput();
+    squaredErrorTotal += (leftError * leftError + rightError * rightError) / 2.0;
+    frameCount++;
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    inputs.setPlayback(null);
+    if (reader != null) {
+      try {
+        reader.close();
+      } catch (IOException e) {
+        // Nothing useful to do, since we were only reading.
+      }
+      reader = null;
+    }
+  }
+
+  @Override
+  public boolean isFinished() {
+    return reader == null || reader.isFinished();
+  }
+
+  /** Gets the RMS difference between the drive outputs and the recording. */
+  private double getOutputError() {
+    return frameCount == 0 ? 0.0 : Math.sqrt(squaredErrorTotal / frameCount);
+  }
+}
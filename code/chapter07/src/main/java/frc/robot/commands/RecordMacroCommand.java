@@ -0,0 +1,87 @@
+package frc.robot.commands;
+
+import java.io.File;
+import java.io.IOException;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.input.MacroWriter;
+import frc.robot.input.OperatorInputs;
+import frc.robot.subsystems.DriveSubsystem;
+
+/**
+ * Records the controllers and drive outputs every loop while it runs, so
+ * that the run can be played back as an autonomous routine with
+ * {@link PlayMacroCommand}.
+ *
+ * <p>The recording is saved in the robot's deploy directory. To keep it,
+ * copy it into {@code src/main/deploy} before the next deploy.
+ */
+public class RecordMacroCommand extends Command {
+  private final OperatorInputs inputs;
+  private final DriveSubsystem driveBase;
+  private final File file;
+
+  private MacroWriter writer;
+  private int frameCount;
+
+  public RecordMacroCommand(OperatorInputs inputs, DriveSubsystem driveBase, File file) {
+    this.inputs = inputs;
+    this.driveBase = driveBase;
+    this.file = file;
+
+    // Recording only watches the robot, so it doesn't require any
+    // subsystems and never interrupts driving.
+    setName("RecordMacro");
+  }
+
+  @Override
+  public void initialize() {
+    frameCount = 0;
+    try {
+      writer = new MacroWriter(file);
+      DataLogManager.log("Recording macro to " + file);
+    } catch (IOException e) {
+      DriverStation.reportError("Couldn't start recording: " + e.getMessage(), false);
+      writer = null;
+    }
+  }
+
+  @Override
+  public void execute() {
+    if (writer == null) {
+      return;
+    }
+
+    try {
+      writer.writeFrame(inputs, driveBase.getLeftOutput(), driveBase.getRightOutput());
+      frameCount++;
+    } catch (IOException e) {
+      DriverStation.reportError("Recording failed: " + e.getMessage(), false);
+      closeWriter();
+    }
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    if (writer != null) {
+      closeWriter();
+      DataLogManager.log("Recorded " + frameCount + " frames (" + file.length() + " bytes)");
+    }
+  }
+
+  @Override
+  public boolean isFinished() {
+    return writer == null;
+  }
+
+  private void closeWriter() {
+    try {
+      writer.close();
+    } catch (IOException e) {
+      DriverStation.reportError("Couldn't save the recording: " + e.getMessage(), false);
+    }
+    writer = null;
+  }
+}
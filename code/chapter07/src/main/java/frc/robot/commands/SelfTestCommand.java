@@ -0,0 +1,62 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+import frc.robot.diagnostics.SelfTestReport;
+import frc.robot.subsystems.ClimberSubsystem;
+import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.subsystems.IndexerSubsystem;
+import frc.robot.subsystems.IntakeSubsystem;
+import frc.robot.subsystems.ShooterSubsystem;
+
+/**
+ * Checks every mechanism at the same time before a match. Each subsystem
+ * gently moves its motors and checks that they respond, move the right way
+ * and draw a sensible current. The results are printed to the console and
+ * shown on the dashboard under "SelfTest".
+ *
+ * <p>The robot should be on blocks, and someone should pass a piece through
+ * the indexer's beam break while the test runs.
+ */
+public class SelfTestCommand extends WrapperCommand {
+  private final SelfTestReport report;
+
+  public SelfTestCommand(
+      DriveSubsystem driveBase,
+      IntakeSubsystem intake,
+      IndexerSubsystem indexer,
+      ShooterSubsystem shooter,
+      ClimberSubsystem climber) {
+    this(new SelfTestReport(), driveBase, intake, indexer, shooter, climber);
+  }
+
+  private SelfTestCommand(
+      SelfTestReport report,
+      DriveSubsystem driveBase,
+      IntakeSubsystem intake,
+      IndexerSubsystem indexer,
+      ShooterSubsystem shooter,
+      ClimberSubsystem climber) {
+    super(Commands.parallel(
+        driveBase.selfTest(report),
+        intake.selfTest(report),
+        indexer.selfTest(report),
+        shooter.selfTest(report),
+        climber.selfTest(report)));
+    this.report = report;
+
+    setName("SelfTest");
+  }
+
+  @Override
+  public void initialize() {
+    report.clear();
+    super.initialize();
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    super.end(interrupted);
+    report.finish(interrupted);
+  }
+}
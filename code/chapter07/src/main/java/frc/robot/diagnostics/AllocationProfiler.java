@@ -0,0 +1,246 @@
+package frc.robot.diagnostics;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+
+/**
+ * Measures how many bytes the main robot thread allocates during each call
+ * to {@code robotPeriodic()}, and how much time the JVM spent in garbage
+ * collection. Allocations are attributed to the subsystem or command that
+ * was running. Subsystems call {@link #mark(String)} at the start of their
+ * {@code periodic()} methods, and commands are found using the hooks the
+ * command scheduler provides.
+ *
+ * <p>Results are published to NetworkTables under "Diagnostics/Allocation",
+ * which also puts them in the robot's log when DataLogManager is running.
+ */
+public class AllocationProfiler {
+  // Name used for allocations made before the first subsystem runs, such
+  // as logging inputs, applying tunables and reading the controllers.
+  private static final String PRE_SCHEDULER_BUCKET = "(before scheduler)";
+
+  // Name used for allocations made while triggers are polled, after the
+  // last subsystem runs and before any commands execute.
+  private static final String TRIGGER_BUCKET = "(triggers)";
+
+  // Name used for everything after the last command executes, such as
+  // scheduling new commands, starting default commands and publishing
+  // telemetry.
+  private static final String REMAINDER_BUCKET = "(other)";
+
+  // Only one profiler runs at a time, so subsystems can mark their
+  // sections without needing to be given it.
+  private static AllocationProfiler instance;
+
+  private final com.sun.management.ThreadMXBean threadBean;
+  private final List<GarbageCollectorMXBean> gcBeans;
+  private final long mainThreadId;
+  private final NetworkTable table;
+
+  private final DoublePublisher loopBytesPublisher;
+  private final DoublePublisher gcCountPublisher;
+  private final DoublePublisher gcTimePublisher;
+  private final DoublePublisher schedulerBytesPublisher;
+
+  // Publishers are created the first time each section and command runs,
+  // and then reused so that the profiler itself doesn't create garbage.
+  private final Map<String, DoublePublisher> sectionPublishers;
+  private final List<String> sectionsThisLoop;
+  private final double[] sectionBytesThisLoop;
+
+  // Command names are kept instead of the commands themselves, so that
+  // commands created again each time they run share one publisher.
+  private final Map<String, DoublePublisher> commandPublishers;
+  private final List<Command> commandsThisLoop;
+  private final double[] commandBytesThisLoop;
+
+  private boolean inLoop;
+  private long loopStartBytes;
+  private long markBytes;
+  private String currentSection;
+  private long lastGcCount;
+  private long lastGcTimeMs;
+
+  public AllocationProfiler() {
+    threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    if (threadBean.isThreadAllocatedMemorySupported()) {
+      threadBean.setThreadAllocatedMemoryEnabled(true);
+    }
+    gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+
+    // The profiler is created by the main robot thread, which is the one
+    // that runs the command scheduler.
+    mainThreadId = Thread.currentThread().getId();
+
+    table = NetworkTableInstance.getDefault().getTable("Diagnostics/Allocation");
+    loopBytesPublisher = table.getDoubleTopic("LoopBytes").publish();
+    gcCountPublisher = table.getDoubleTopic("GCCount").publish();
+    gcTimePublisher = table.getDoubleTopic("GCTimeMs").publish();
+    schedulerBytesPublisher = table.getDoubleTopic("Commands/" + REMAINDER_BUCKET).publish();
+
+    sectionPublishers = new HashMap<>();
+    sectionsThisLoop = new ArrayList<>();
+    sectionBytesThisLoop = new double[64];
+    commandPublishers = new HashMap<>();
+    commandsThisLoop = new ArrayList<>();
+    commandBytesThisLoop = new double[64];
+
+    lastGcCount = totalGcCount();
+    lastGcTimeMs = totalGcTimeMs();
+
+    // Command execute actions run right after each command's execute()
+    // method, so the bytes allocated since the previous mark belong to
+    // that command.
+    CommandScheduler.getInstance().onCommandExecute(this::afterCommandExecute);
+
+    // Actions bound to the default button loop run after all the triggers
+    // are polled. The profiler is created after RobotContainer, so this
+    // runs after every binding.
+    CommandScheduler.getInstance().getDefaultButtonLoop().bind(this::afterTriggersPolled);
+
+    // Subsystems run in the order they were registered. This one is
+    // registered after all of the robot's subsystems, so it marks where the
+    // last of them finished and trigger polling starts.
+    CommandScheduler.getInstance().registerSubsystem(new EndOfSubsystems());
+
+    instance = this;
+  }
+
+  /**
+   * Attributes everything the main thread allocates from now until the next
+   * mark to the named section. Subsystems call this at the start of their
+   * {@code periodic()} methods. It does nothing when no profiler is running.
+   */
+  public static void mark(String section) {
+    if (instance != null) {
+      instance.startSection(section);
+    }
+  }
+
+  /** Call at the start of robotPeriodic(), before the scheduler runs. */
+  public void startLoop() {
+    inLoop = true;
+    sectionsThisLoop.clear();
+    commandsThisLoop.clear();
+    loopStartBytes = allocatedBytes();
+    markBytes = loopStartBytes;
+    currentSection = PRE_SCHEDULER_BUCKET;
+  }
+
+  /** Call at the end of robotPeriodic(), after the scheduler runs. */
+  public void endLoop() {
+    long endBytes = allocatedBytes();
+    inLoop = false;
+    currentSection = null;
+
+    long sectionTotal = 0;
+    for (int i = 0; i < sectionsThisLoop.size(); i++) {
+      String section = sectionsThisLoop.get(i);
+      sectionTotal += (long) sectionBytesThisLoop[i];
+      sectionPublishers
+          .computeIfAbsent(section, s -> table.getDoubleTopic("Sections/" + s).publish())
+          .set(sectionBytesThisLoop[i]);
+    }
+
+    long commandTotal = 0;
+    for (int i = 0; i < commandsThisLoop.size(); i++) {
+      Command command = commandsThisLoop.get(i);
+      commandTotal += (long) commandBytesThisLoop[i];
+      commandPublishers
+          .computeIfAbsent(command.getName(), c -> table.getDoubleTopic("Commands/" + c).publish())
+          .set(commandBytesThisLoop[i]);
+    }
+
+    long loopBytes = endBytes - loopStartBytes;
+    loopBytesPublisher.set(loopBytes);
+    schedulerBytesPublisher.set(loopBytes - sectionTotal - commandTotal);
+
+    long gcCount = totalGcCount();
+    long gcTimeMs = totalGcTimeMs();
+    gcCountPublisher.set(gcCount - lastGcCount);
+    gcTimePublisher.set(gcTimeMs - lastGcTimeMs);
+    lastGcCount = gcCount;
+    lastGcTimeMs = gcTimeMs;
+  }
+
+  private void startSection(String section) {
+    if (!inLoop) {
+      return;
+    }
+    endSection(allocatedBytes());
+    currentSection = section;
+  }
+
+  private void endSection(long now) {
+    if (currentSection == null) {
+      return;
+    }
+    int index = sectionsThisLoop.size();
+    if (index < sectionBytesThisLoop.length) {
+      sectionsThisLoop.add(currentSection);
+      sectionBytesThisLoop[index] = now - markBytes;
+    }
+    markBytes = now;
+    currentSection = null;
+  }
+
+  private void afterTriggersPolled() {
+    if (!inLoop) {
+      return;
+    }
+    endSection(allocatedBytes());
+  }
+
+  private void afterCommandExecute(Command command) {
+    if (!inLoop) {
+      return;
+    }
+    long now = allocatedBytes();
+    endSection(now);
+    int index = commandsThisLoop.size();
+    if (index < commandBytesThisLoop.length) {
+      commandsThisLoop.add(command);
+      commandBytesThisLoop[index] = now - markBytes;
+    }
+    markBytes = now;
+  }
+
+  private long allocatedBytes() {
+    return threadBean.getThreadAllocatedBytes(mainThreadId);
+  }
+
+  private long totalGcCount() {
+    long total = 0;
+    for (GarbageCollectorMXBean bean : gcBeans) {
+      total += Math.max(bean.getCollectionCount(), 0);
+    }
+    return total;
+  }
+
+  private long totalGcTimeMs() {
+    long total = 0;
+    for (GarbageCollectorMXBean bean : gcBeans) {
+      total += Math.max(bean.getCollectionTime(), 0);
+    }
+    return total;
+  }
+
+  /** Marks the end of the robot's subsystems, see the constructor. */
+  private static class EndOfSubsystems implements Subsystem {
+    @Override
+    public void periodic() {
+      mark(TRIGGER_BUCKET);
+    }
+  }
+}
@@ -0,0 +1,194 @@
+package frc.robot.diagnostics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.PowerDistribution;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.TelemetryTable;
+
+/**
+ * Keeps track of how much of the battery each subsystem uses, and how much
+ * each subsystem uses while each of its commands runs. The current drawn by
+ * each subsystem's motors is added up over time into amp-hours and joules.
+ * The power distribution panel measures the whole robot, so whatever isn't
+ * used by a subsystem, like the RoboRIO and radio, is counted as "(other)".
+ *
+ * <p>The totals are shown on the dashboard under "Diagnostics/Energy". They
+ * start over when autonomous starts, and a summary is printed and saved in
+ * the log when the robot is disabled at the end of a match. On the field,
+ * that is when teleop ends, not the pause between autonomous and teleop.
+ * Off the field, it is every time the robot is disabled.
+ */
+public class EnergyMonitor {
+  private static final String NO_COMMAND = "(none)";
+  private static final String OTHER = "(other)";
+  private static final double SECONDS_PER_HOUR = 3600.0;
+
+  private final PowerDistribution powerDistribution;
+  private final TelemetryTable telemetry;
+  private final List<SubsystemAccount> subsystems;
+  private final Account total;
+  private final Account other;
+
+  private double lastTime = Double.NaN;
+  private boolean wasEnabled;
+  private boolean wasTeleop;
+
+  public EnergyMonitor() {
+    powerDistribution = new PowerDistribution();
+    telemetry = Telemetry.getTable("Diagnostics/Energy");
+    subsystems = new ArrayList<>();
+
+    total = new Account();
+    other = new Account();
+    addTelemetry("Total", total, true);
+    addTelemetry(OTHER, other, true);
+  }
+
+  /**
+   * Adds a subsystem to keep track of. This should be called once when the
+   * robot starts.
+   *
+   * @param name the name shown on the dashboard, such as "Shooter"
+   * @param subsystem the subsystem, used to find which command is running
+   * @param supplyCurrent gets the total current drawn by the subsystem's motors
+   */
+  public void addSubsystem(String name, Subsystem subsystem, DoubleSupplier supplyCurrent) {
+    SubsystemAccount account = new SubsystemAccount(name, subsystem, supplyCurrent);
+    subsystems.add(account);
+    addTelemetry(name, account, true);
+  }
+
+  /** Takes a sample of the currents. This should be called at a fixed rate. */
+  public void update() {
+    double now = Timer.getFPGATimestamp();
+    double dt = Double.isNaN(lastTime) ? 0.0 : now - lastTime;
+    lastTime = now;
+
+    // A match always starts in autonomous, so start counting over then.
+    boolean enabled = DriverStation.isEnabled();
+    if (enabled && !wasEnabled && DriverStation.isAutonomous()) {
+      reset();
+    }
+
+    double volts = RobotController.getBatteryVoltage();
+    double subsystemAmps = 0.0;
+    for (int i = 0; i < subsystems.size(); i++) {
+      SubsystemAccount account = subsystems.get(i);
+      double amps = account.supplyCurrent.getAsDouble();
+      subsystemAmps += amps;
+      account.add(amps, volts, dt);
+
+      Command command = CommandScheduler.getInstance().requiring(account.subsystem);
+      account.getCommandAccount(command != null ? command.getName() : NO_COMMAND)
+          .add(amps, volts, dt);
+    }
+
+    // The panel can't tell us which motor is which, but it does see
+    // everything. In simulation it reads zero, so don't let the total be
+    // less than the subsystems.
+    double totalAmps = Math.max(powerDistribution.getTotalCurrent(), subsystemAmps);
+    total.add(totalAmps, volts, dt);
+    other.add(totalAmps - subsystemAmps, volts, dt);
+
+    if (wasEnabled && !enabled && (wasTeleop || !DriverStation.isFMSAttached())) {
+      logSummary();
+    }
+    if (enabled) {
+      wasTeleop = DriverStation.isTeleop();
+    }
+    wasEnabled = enabled;
+  }
+
+  private void reset() {
+    total.reset();
+    other.reset();
+    for (SubsystemAccount account : subsystems) {
+      account.reset();
+      for (Account commandAccount : account.commands.values()) {
+        commandAccount.reset();
+      }
+    }
+  }
+
+  private void logSummary() {
+    DataLogManager.log(String.format(
+        "Energy used: %.3f Ah, %.1f kJ", total.ampHours, total.joules / 1000.0));
+    for (SubsystemAccount account : subsystems) {
+      logLine("  " + account.name, account);
+      for (Map.Entry<String, Account> command : account.commands.entrySet()) {
+        logLine("    " + command.getKey(), command.getValue());
+      }
+    }
+    logLine("  " + OTHER, other);
+  }
+
+  private void logLine(String name, Account account) {
+    double share = total.joules > 0.0 ? account.joules / total.joules * 100.0 : 0.0;
+    DataLogManager.log(String.format(
+        "%s: %.3f Ah, %.1f kJ (%.0f%%)", name, account.ampHours, account.joules / 1000.0, share));
+  }
+
+  private void addTelemetry(String name, Account account, boolean includeCurrent) {
+    if (includeCurrent) {
+      telemetry.addDouble(name + "/CurrentAmps", () -> account.currentAmps);
+    }
+    telemetry.addDouble(name + "/AmpHours", 0.5, () -> account.ampHours);
+    telemetry.addDouble(name + "/Joules", 0.5, () -> account.joules);
+  }
+
+  private static class Account {
+    double currentAmps;
+    double ampHours;
+    double joules;
+
+    void add(double amps, double volts, double dt) {
+      currentAmps = amps;
+      ampHours += amps * dt / SECONDS_PER_HOUR;
+      joules += amps * volts * dt;
+    }
+
+    void reset() {
+      ampHours = 0.0;
+      joules = 0.0;
+    }
+  }
+
+  private final class SubsystemAccount extends Account {
+    final String name;
+    final Subsystem subsystem;
+    final DoubleSupplier supplyCurrent;
+
+    // Command names are kept instead of the commands themselves, so that
+    // commands created again each time they run share one account.
+    final Map<String, Account> commands = new HashMap<>();
+
+    SubsystemAccount(String name, Subsystem subsystem, DoubleSupplier supplyCurrent) {
+      this.name = name;
+      this.subsystem = subsystem;
+      this.supplyCurrent = supplyCurrent;
+    }
+
+    Account getCommandAccount(String commandName) {
+      Account account = commands.get(commandName);
+      if (account == null) {
+        // The dashboard values are added the first time each command runs.
+        account = new Account();
+        commands.put(commandName, account);
+        addTelemetry(name + "/Commands/" + commandName, account, false);
+      }
+      return account;
+    }
+  }
+}
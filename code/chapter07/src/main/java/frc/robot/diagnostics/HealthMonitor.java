@@ -0,0 +1,50 @@
+package frc.robot.diagnostics;
+
+import edu.wpi.first.hal.can.CANStatus;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.TelemetryTable;
+
+/**
+ * Checks the health of the CAN bus and the robot's power. These change
+ * slowly, so this only needs to run every 100 ms.
+ */
+public class HealthMonitor {
+  private double canUtilization;
+  private int busOffCount;
+  private int transmitErrorCount;
+  private int receiveErrorCount;
+  private int brownoutCount;
+  private boolean wasBrownedOut;
+
+  public HealthMonitor() {
+    TelemetryTable telemetry = Telemetry.getTable("Diagnostics/Health");
+    telemetry.addDouble("CANUtilization", () -> canUtilization);
+    telemetry.addDouble("CANBusOffCount", () -> busOffCount);
+    telemetry.addDouble("CANTransmitErrors", () -> transmitErrorCount);
+    telemetry.addDouble("CANReceiveErrors", () -> receiveErrorCount);
+    telemetry.addDouble("BrownoutCount", () -> brownoutCount);
+  }
+
+  public void update() {
+    CANStatus canStatus = RobotController.getCANStatus();
+    canUtilization = canStatus.percentBusUtilization;
+    transmitErrorCount = canStatus.transmitErrorCount;
+    receiveErrorCount = canStatus.receiveErrorCount;
+
+    // The bus turns itself off after too many errors, which makes every
+    // motor controller stop responding.
+    if (canStatus.busOffCount > busOffCount) {
+      DriverStation.reportWarning("CAN bus went off " + canStatus.busOffCount + " times", false);
+    }
+    busOffCount = canStatus.busOffCount;
+
+    boolean brownedOut = RobotController.isBrownedOut();
+    if (brownedOut && !wasBrownedOut) {
+      brownoutCount++;
+      DriverStation.reportWarning("Brownout detected", false);
+    }
+    wasBrownedOut = brownedOut;
+  }
+}
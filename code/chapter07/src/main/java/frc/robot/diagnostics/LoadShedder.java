@@ -0,0 +1,154 @@
+package frc.robot.diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.TelemetryTable;
+
+/**
+ * Runs the robot's periodic work, and skips the less important parts when
+ * the loop is taking too long.
+ *
+ * <p>Each task is either critical, such as reading sensors and running
+ * commands, or deferrable, such as publishing to the dashboard. Critical
+ * tasks always run. When the loop time goes over a threshold, deferrable
+ * tasks are only run every few loops, and if it gets close to the loop
+ * period they are run even less often. This gives the controls the time
+ * they need, at the cost of the dashboard updating less smoothly.
+ *
+ * <p>Work that runs on the main thread between loops, such as the faster
+ * callbacks from the {@link frc.robot.scheduling.PeriodicScheduler}, is
+ * counted as part of the next loop's time, since it takes time away from
+ * the loop all the same.
+ */
+public class LoadShedder {
+  public enum Priority { CRITICAL, DEFERRABLE }
+
+  // Loop times, in milliseconds, where deferrable work starts being thinned
+  // out and then mostly skipped. The lower numbers are where each level is
+  // left again, so it doesn't flicker between levels.
+  private static final double THIN_THRESHOLD_MS = 14.0;
+  private static final double THIN_RECOVER_MS = 11.0;
+  private static final double SHED_THRESHOLD_MS = 18.0;
+  private static final double SHED_RECOVER_MS = 15.0;
+
+  // How often deferrable tasks still run at each level, in loops.
+  private static final int THIN_INTERVAL = 5;
+  private static final int SHED_INTERVAL = 25;
+
+  // How much each new loop time counts towards the average.
+  private static final double LOOP_TIME_SMOOTHING = 0.2;
+
+  private final List<Task> tasks = new ArrayList<>();
+
+  private double loopTimeMs;
+  private double outsideTimeMs;
+  private double averageLoopTimeMs;
+  private int level;
+  private int loopCount;
+
+  public LoadShedder() {
+    TelemetryTable telemetry = Telemetry.getTable("Diagnostics/LoadShedding");
+    telemetry.addDouble("LoopTimeMs", () -> loopTimeMs);
+    telemetry.addDouble("AverageLoopTimeMs", () -> averageLoopTimeMs);
+    telemetry.addDouble("Level", () -> level);
+  }
+
+  /**
+   * Adds a piece of periodic work. Tasks run in the order they're added.
+   *
+   * @param name the name shown on the dashboard
+   * @param priority whether the task can be skipped when the loop is slow
+   * @param work the work to run each loop
+   */
+  public void addTask(String name, Priority priority, Runnable work) {
+    Task task = new Task(work, priority);
+    tasks.add(task);
+
+    if (priority == Priority.DEFERRABLE) {
+      TelemetryTable telemetry = Telemetry.getTable("Diagnostics/LoadShedding");
+      telemetry.addDouble("Shed/" + name, () -> task.shedCount);
+      telemetry.addDouble("LastShedTime/" + name, () -> task.lastShedTime);
+    }
+  }
+
+  /**
+   * Counts time spent on the main thread outside of {@link #run()}. It is
+   * added to the next loop's time.
+   *
+   * @param milliseconds how long the work took
+   */
+  public void addOutsideTime(double milliseconds) {
+    outsideTimeMs += milliseconds;
+  }
+
+  /** Runs the tasks for this loop. Call once from {@code robotPeriodic()}. */
+  public void run() {
+    long startMicros = RobotController.getFPGATime();
+    double now = startMicros / 1e6;
+    loopCount++;
+
+    int interval = level == 2 ? SHED_INTERVAL : level == 1 ? THIN_INTERVAL : 1;
+    boolean deferrableDue = loopCount % interval == 0;
+
+    for (int i = 0; i < tasks.size(); i++) {
+      Task task = tasks.get(i);
+      if (task.priority == Priority.CRITICAL) {
+        task.work.run();
+        continue;
+      }
+
+      // Even when deferrable work is due, skip it if the critical work has
+      // already used up most of this loop.
+      double elapsedMs = (RobotController.getFPGATime() - startMicros) / 1000.0;
+      if (deferrableDue && elapsedMs < SHED_THRESHOLD_MS) {
+        task.work.run();
+      } else {
+        task.shedCount++;
+        task.lastShedTime = now;
+      }
+    }
+
+    loopTimeMs = (RobotController.getFPGATime() - startMicros) / 1000.0 + outsideTimeMs;
+    outsideTimeMs = 0.0;
+    updateLevel();
+  }
+
+  private void updateLevel() {
+    averageLoopTimeMs += (loopTimeMs - averageLoopTimeMs) * LOOP_TIME_SMOOTHING;
+
+    int newLevel = level;
+    if (averageLoopTimeMs > SHED_THRESHOLD_MS) {
+      newLevel = 2;
+    } else if (level == 2 && averageLoopTimeMs < SHED_RECOVER_MS) {
+      newLevel = 1;
+    } else if (level == 0 && averageLoopTimeMs > THIN_THRESHOLD_MS) {
+      newLevel = 1;
+    } else if (level == 1 && averageLoopTimeMs < THIN_RECOVER_MS) {
+      newLevel = 0;
+    }
+
+    if (newLevel != level) {
+      // Record when shedding starts and stops in the log.
+      DataLogManager.log(String.format(
+          "Load shedding level %d -> %d (average loop time %.1f ms)",
+          level, newLevel, averageLoopTimeMs));
+      level = newLevel;
+    }
+  }
+
+  private static final class Task {
+    final Runnable work;
+    final Priority priority;
+    long shedCount;
+    double lastShedTime;
+
+    Task(Runnable work, Priority priority) {
+      this.work = work;
+      this.priority = priority;
+    }
+  }
+}
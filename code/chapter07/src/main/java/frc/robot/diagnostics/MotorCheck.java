@@ -0,0 +1,68 @@
+package frc.robot.diagnostics;
+
+/**
+ * Watches one motor during a self-test, and checks that it stayed
+ * connected, moved the way it was told to and drew a sensible current.
+ */
+public class MotorCheck {
+  // Below this, the motor probably isn't wired to anything.
+  private static final double MIN_CURRENT_AMPS = 0.05;
+
+  private final String name;
+  private final double minSpeed;
+  private final double maxCurrentAmps;
+
+  private boolean alwaysConnected;
+  private int sampleCount;
+  private double velocityTotal;
+  private double peakCurrentAmps;
+
+  /**
+   * @param name the name used in the report
+   * @param minSpeed the average speed the motor must reach, in whatever
+   *     units its velocity is measured in
+   * @param maxCurrentAmps the most current the motor should draw while
+   *     being tested
+   */
+  public MotorCheck(String name, double minSpeed, double maxCurrentAmps) {
+    this.name = name;
+    this.minSpeed = minSpeed;
+    this.maxCurrentAmps = maxCurrentAmps;
+  }
+
+  public void reset() {
+    alwaysConnected = true;
+    sampleCount = 0;
+    velocityTotal = 0.0;
+    peakCurrentAmps = 0.0;
+  }
+
+  /** Records this loop's measurements. */
+  public void sample(boolean connected, double velocity, double currentAmps) {
+    alwaysConnected &= connected;
+    sampleCount++;
+    velocityTotal += velocity;
+    peakCurrentAmps = Math.max(peakCurrentAmps, Math.abs(currentAmps));
+  }
+
+  /**
+   * Adds the results to a report.
+   *
+   * @param direction 1 if the motor was told to go forward, -1 if it was
+   *     told to go backward, or 0 if there's no sensor to check it with
+   */
+  public void report(SelfTestReport report, double direction) {
+    report.check(name + "/Responds", sampleCount > 0 && alwaysConnected,
+        alwaysConnected ? "connected" : "lost connection");
+
+    if (direction != 0.0) {
+      double averageVelocity = sampleCount > 0 ? velocityTotal / sampleCount : 0.0;
+      report.check(name + "/Direction", averageVelocity * Math.signum(direction) >= minSpeed,
+          String.format("average speed %.2f", averageVelocity));
+    }
+
+    report.check(name + "/Current",
+        peakCurrentAmps >= MIN_CURRENT_AMPS && peakCurrentAmps <= maxCurrentAmps,
+        String.format("peak %.1f A", peakCurrentAmps));
+  }
+}
@@ -0,0 +1,66 @@
+package frc.robot.diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * The results of a self-test. Each check passes or fails with a short
+ * explanation. Results are saved in the log and shown on the dashboard
+ * under "SelfTest", and a failed self-test is also reported to the Driver
+ * Station.
+ */
+public class SelfTestReport {
+  private final NetworkTable table = NetworkTableInstance.getDefault().getTable("SelfTest");
+  private final List<String> failures = new ArrayList<>();
+  private int checkCount;
+
+  /** Forgets the results of the last self-test. */
+  public void clear() {
+    failures.clear();
+    checkCount = 0;
+    table.getEntry("Passed").setBoolean(false);
+    table.getEntry("Summary").setString("Running");
+  }
+
+  /**
+   * Records the result of one check.
+   *
+   * @param name what was checked, such as "Shooter/Current"
+   * @param passed whether the check passed
+   * @param detail what was measured
+   */
+  public void check(String name, boolean passed, String detail) {
+    checkCount++;
+    if (!passed) {
+      failures.add(name + " (" + detail + ")");
+    }
+    table.getEntry("Checks/" + name).setString((passed ? "PASS: " : "FAIL: ") + detail);
+    DataLogManager.log("Self-test " + (passed ? "PASS " : "FAIL ") + name + ": " + detail);
+  }
+
+  /** Shows the overall result once every check has run. */
+  public void finish(boolean interrupted) {
+    boolean passed = !interrupted && failures.isEmpty();
+    String summary;
+    if (interrupted) {
+      summary = "Stopped before it finished";
+    } else if (passed) {
+      summary = "All " + checkCount + " checks passed";
+    } else {
+      summary = failures.size() + " of " + checkCount + " checks failed: " + String.join(", ", failures);
+    }
+
+    table.getEntry("Passed").setBoolean(passed);
+    table.getEntry("Summary").setString(summary);
+    if (passed) {
+      DataLogManager.log("Self-test PASSED: " + summary);
+    } else {
+      DriverStation.reportWarning("Self-test FAILED: " + summary, false);
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package frc.robot.input;
+
+import java.nio.ByteBuffer;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.XboxController;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.robot.logging.LogTable;
+import frc.robot.logging.LoggableInputs;
+
+/**
+ * A snapshot of everything on one Xbox controller, captured once per loop.
+ * Every binding and command reads from the same snapshot, so they all see
+ * the controller exactly as it was at the start of the loop.
+ */
+public class ControllerInputs implements LoggableInputs {
+  // Number of bytes written by writeTo().
+  public static final int SERIALIZED_SIZE = 6 * Short.BYTES + Short.BYTES + Byte.BYTES;
+
+  private final int port;
+
+  public double leftX;
+  public double leftY;
+  public double rightX;
+  public double rightY;
+  public double leftTrigger;
+  public double rightTrigger;
+
+  // Bit (n - 1) is set when button n is pressed, the same as the Driver
+  // Station reports them.
+  public int buttons;
+
+  // The D-pad angle in degrees, or -1 if it isn't pressed.
+  public int pov = -1;
+
+  /**
+   * @param port the port of the controller in Driver Station
+   */
+  public ControllerInputs(int port) {
+    this.port = port;
+  }
+
+  /** Reads the controller from the Driver Station data. */
+  public void capture() {
+    leftX = DriverStation.getStickAxis(port, XboxController.Axis.kLeftX.value);
+    leftY = DriverStation.getStickAxis(port, XboxController.Axis.kLeftY.value);
+    rightX = DriverStation.getStickAxis(port, XboxController.Axis.kRightX.value);
+    rightY = DriverStation.getStickAxis(port, XboxController.Axis.kRightY.value);
+    leftTrigger = DriverStation.getStickAxis(port, XboxController.Axis.kLeftTrigger.value);
+    rightTrigger = DriverStation.getStickAxis(port, XboxController.Axis.kRightTrigger.value);
+    buttons = DriverStation.getStickButtons(port);
+    pov = DriverStation.getStickPOVCount(port) > 0 ? DriverStation.getStickPOV(port, 0) : -1;
+  }
+
+  @Override
+  public void toLog(LogTable table) {
+    table.put("LeftX", leftX);
+    table.put("LeftY", leftY);
+    table.put("RightX", rightX);
+    table.put("RightY", rightY);
+    table.put("LeftTrigger", leftTrigger);
+    table.put("RightTrigger", rightTrigger);
+    table.put("Buttons", (long) buttons);
+    table.put("POV", (long) pov);
+  }
+
+  @Override
+  public void fromLog(LogTable table) {
+    leftX = table.get("LeftX", leftX);
+    leftY = table.get("LeftY", leftY);
+    rightX = table.get("RightX", rightX);
+    rightY = table.get("RightY", rightY);
+    leftTrigger = table.get("LeftTrigger", leftTrigger);
+    rightTrigger = table.get("RightTrigger", rightTrigger);
+    buttons = (int) table.get("Buttons", (long) buttons);
+    pov = (int) table.get("POV", (long) pov);
+  }
+
+  public boolean isPressed(XboxController.Button button) {
+    return (buttons & (1 << (button.value - 1))) != 0;
+  }
+
+  /**
+   * Packs the snapshot into a few bytes so that it can be recorded. Axes are
+   * stored as 16-bit numbers, which is finer than the controller reports.
+   */
+  public void writeTo(ByteBuffer buffer) {
+    buffer.putShort(packAxis(leftX));
+    buffer.putShort(packAxis(leftY));
+    buffer.putShort(packAxis(rightX));
+    buffer.putShort(packAxis(rightY));
+    buffer.putShort(packAxis(leftTrigger));
+    buffer.putShort(packAxis(rightTrigger));
+    buffer.putShort((short) buttons);
+    buffer.put((byte) (pov < 0 ? -1 : pov / 45));
+  }
+
+  /** Unpacks a snapshot written by {@link #writeTo(ByteBuffer)}. */
+  public void readFrom(ByteBuffer buffer) {
+    leftX = unpackAxis(buffer.getShort());
+    leftY = unpackAxis(buffer.getShort());
+    rightX = unpackAxis(buffer.getShort());
+    rightY = unpackAxis(buffer.getShort());
+    leftTrigger = unpackAxis(buffer.getShort());
+    rightTrigger = unpackAxis(buffer.getShort());
+    buttons = buffer.getShort() & 0xFFFF;
+    byte packedPov = buffer.get();
+    pov = packedPov < 0 ? -1 : packedPov * 45;
+  }
+
+  public Trigger a() {
+    return button(XboxController.Button.kA);
+  }
+
+  public Trigger b() {
+    return button(XboxController.Button.kB);
+  }
+
+  public Trigger x() {
+    return button(XboxController.Button.kX);
+  }
+
+  public Trigger y() {
+    return button(XboxController.Button.kY);
+  }
+
+  public Trigger leftBumper() {
+    return button(XboxController.Button.kLeftBumper);
+  }
+
+  public Trigger rightBumper() {
+    return button(XboxController.Button.kRightBumper);
+  }
+
+  public Trigger back() {
+    return button(XboxController.Button.kBack);
+  }
+
+  public Trigger start() {
+    return button(XboxController.Button.kStart);
+  }
+
+  public Trigger button(XboxController.Button button) {
+    return new Trigger(() -> isPressed(button));
+  }
+
+  public Trigger povUp() {
+    return new Trigger(() -> pov == 0);
+  }
+
+  public Trigger povRight() {
+    return new Trigger(() -> pov == 90);
+  }
+
+  public Trigger povDown() {
+    return new Trigger(() -> pov == 180);
+  }
+
+  public Trigger povLeft() {
+    return new Trigger(() -> pov == 270);
+  }
+
+  /**
+   * Creates a trigger that is active while the left trigger is pressed past
+   * the given amount, between 0 and 1.
+   */
+  public Trigger leftTrigger(double threshold) {
+    return new Trigger(() -> leftTrigger > threshold);
+  }
+
+  public Trigger rightTrigger(double threshold) {
+    return new Trigger(() -> rightTrigger > threshold);
+  }
+
+  private static short packAxis(double value) {
+    return (short) Math.round(Math.max(-1.0, Math.min(1.0, value)) * Short.MAX_VALUE);
+  }
+
+  private static double unpackAxis(short value) {
+    return value / (double) Short.MAX_VALUE;
+  }
+}
@@ -0,0 +1,95 @@
+package frc.robot.input;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Plays back a recording made by a {@link MacroWriter}. Frames are read from
+ * the file one at a time as they're needed, so the whole recording never has
+ * to fit in memory.
+ */
+public class MacroReader implements Closeable {
+  private final DataInputStream in;
+  private final byte[] frame = new byte[MacroWriter.FRAME_SIZE];
+  private final ByteBuffer frameBuffer = ByteBuffer.wrap(frame);
+
+  private double leftOutput;
+  private double rightOutput;
+  private boolean finished;
+
+  public MacroReader(File file) throws IOException {
+    in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    if (in.readInt() != MacroWriter.MAGIC
+        || in.readByte() != MacroWriter.VERSION
+        || in.readByte() != MacroWriter.FRAME_SIZE) {
+      in.close();
+      throw new IOException(file + " is not a macro recording from this version of the code");
+    }
+  }
+
+  /**
+   * Reads the next frame into the controller inputs.
+   *
+   * @return false once the end of the recording is reached
+   */
+  public boolean readFrame(OperatorInputs inputs) {
+    if (finished) {
+      return false;
+    }
+
+    try {
+      long changedMask = readVarLong();
+      for (int i = 0; i < frame.length; i++) {
+        if ((changedMask & (1L << i)) != 0) {
+          frame[i] = in.readByte();
+        }
+      }
+    } catch (IOException e) {
+      // The end of the file, or a recording that was cut short.
+      finished = true;
+      return false;
+    }
+
+    frameBuffer.clear();
+    inputs.readFrom(frameBuffer);
+    leftOutput = MacroWriter.unpackOutput(frameBuffer.getShort());
+    rightOutput = MacroWriter.unpackOutput(frameBuffer.getShort());
+    return true;
+  }
+
+  /** Gets the recorded left drive output for the last frame that was read. */
+  public double getLeftOutput() {
+    return leftOutput;
+  }
+
+  /** Gets the recorded right drive output for the last frame that was read. */
+  public double getRightOutput() {
+    return rightOutput;
+  }
+
+  public boolean isFinished() {
+    return finished;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  private long readVarLong() throws IOException {
+    long value = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0 && shift < 64);
+    return value;
+  }
+}
@@ -0,0 +1,90 @@
+package frc.robot.input;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes a recording of the controllers and the drive outputs, one frame per
+ * loop, that can be played back later by a {@link MacroReader}.
+ *
+ * <p>Most things stay the same from one loop to the next, so each frame
+ * only stores the bytes that changed. A frame starts with a bit mask of
+ * which bytes of the snapshot changed, written in as few bytes as possible,
+ * followed by the new values of just those bytes. A loop where nothing
+ * changed takes a single byte.
+ */
+public class MacroWriter implements Closeable {
+  static final int MAGIC = 0x4D41_4352; // "MACR"
+  static final int VERSION = 1;
+
+  // The controllers, then the left and right drive outputs.
+  static final int FRAME_SIZE = OperatorInputs.SERIALIZED_SIZE + 2 * Short.BYTES;
+
+  private final DataOutputStream out;
+  private final byte[] previous = new byte[FRAME_SIZE];
+  private final byte[] current = new byte[FRAME_SIZE];
+  private final ByteBuffer currentBuffer = ByteBuffer.wrap(current);
+
+  public MacroWriter(File file) throws IOException {
+    file.getParentFile().mkdirs();
+    out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    out.writeInt(MAGIC);
+    out.writeByte(VERSION);
+    out.writeByte(FRAME_SIZE);
+  }
+
+  /**
+   * Adds this loop's frame to the recording.
+   *
+   * @param leftOutput the left side drive output, from -1 to 1
+   * @param rightOutput the right side drive output, from -1 to 1
+   */
+  public void writeFrame(OperatorInputs inputs, double leftOutput, double rightOutput) throws IOException {
+    currentBuffer.clear();
+    inputs.writeTo(currentBuffer);
+    currentBuffer.putShort(packOutput(leftOutput));
+    currentBuffer.putShort(packOutput(rightOutput));
+
+    long changedMask = 0;
+    for (int i = 0; i < FRAME_SIZE; i++) {
+      if (current[i] != previous[i]) {
+        changedMask |= 1L << i;
+      }
+    }
+
+    writeVarLong(changedMask);
+    for (int i = 0; i < FRAME_SIZE; i++) {
+      if ((changedMask & (1L << i)) != 0) {
+        out.writeByte(current[i]);
+        previous[i] = current[i];
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+
+  /** Writes a number 7 bits at a time, so small numbers take fewer bytes. */
+  private void writeVarLong(long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  static short packOutput(double output) {
+    return (short) Math.round(Math.max(-1.0, Math.min(1.0, output)) * Short.MAX_VALUE);
+  }
+
+  static double unpackOutput(short packed) {
+    return packed / (double) Short.MAX_VALUE;
+  }
+}
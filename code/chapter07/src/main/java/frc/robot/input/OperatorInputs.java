@@ -0,0 +1,61 @@
+package frc.robot.input;
+
+import java.nio.ByteBuffer;
+
+import frc.robot.logging.InputLogger;
+
+/**
+ * Both driver controllers, captured together at the start of each loop.
+ */
+public class OperatorInputs {
+  // Number of bytes written by writeTo().
+  public static final int SERIALIZED_SIZE = 2 * ControllerInputs.SERIALIZED_SIZE;
+
+  public final ControllerInputs driver;
+  public final ControllerInputs operator;
+
+  // While a macro is playing, the controllers are read from it instead of
+  // the Driver Station.
+  private MacroReader playback;
+
+  /**
+   * @param driverPort the Driver Station port of the driver's controller
+   * @param operatorPort the Driver Station port of the operator's controller
+   */
+  public OperatorInputs(int driverPort, int operatorPort) {
+    driver = new ControllerInputs(driverPort);
+    operator = new ControllerInputs(operatorPort);
+  }
+
+  /**
+   * Reads both controllers and saves them to the log. This should be called
+   * once at the start of each loop, before the command scheduler runs. In
+   * replay mode, the controllers are read from the log instead.
+   */
+  public void capture() {
+    if (!InputLogger.isReplay() && (playback == null || !playback.readFrame(this))) {
+      driver.capture();
+      operator.capture();
+    }
+    InputLogger.processInputs("DriverController", driver);
+    InputLogger.processInputs("OperatorController", operator);
+  }
+
+  /**
+   * Reads the controllers from a recording until it ends, instead of from
+   * the Driver Station. Pass null to go back to the real controllers.
+   */
+  public void setPlayback(MacroReader playback) {
+    this.playback = playback;
+  }
+
+  public void writeTo(ByteBuffer buffer) {
+    driver.writeTo(buffer);
+    operator.writeTo(buffer);
+  }
+
+  public void readFrom(ByteBuffer buffer) {
+    driver.readFrom(buffer);
+    operator.readFrom(buffer);
+  }
+}
@@ -0,0 +1,58 @@
+package frc.robot.logging;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * The state of the Driver Station and robot power, saved every loop so that
+ * a replay can enable and disable the robot at exactly the same times.
+ */
+public class DriverStationInputs implements LoggableInputs {
+  public boolean enabled;
+  public boolean autonomous;
+  public boolean test;
+  public boolean eStopped;
+  public boolean dsAttached;
+  public boolean fmsAttached;
+  public double matchTime;
+  public double batteryVoltage;
+  public boolean brownedOut;
+
+  public void capture() {
+    enabled = DriverStation.isEnabled();
+    autonomous = DriverStation.isAutonomous();
+    test = DriverStation.isTest();
+    eStopped = DriverStation.isEStopped();
+    dsAttached = DriverStation.isDSAttached();
+    fmsAttached = DriverStation.isFMSAttached();
+    matchTime = DriverStation.getMatchTime();
+    batteryVoltage = RobotController.getBatteryVoltage();
+    brownedOut = RobotController.isBrownedOut();
+  }
+
+  @Override
+  public void toLog(LogTable table) {
+    table.put("Enabled", enabled);
+    table.put("Autonomous", autonomous);
+    table.put("Test", test);
+    table.put("EStopped", eStopped);
+    table.put("DSAttached", dsAttached);
+    table.put("FMSAttached", fmsAttached);
+    table.put("MatchTime", matchTime);
+    table.put("BatteryVoltage", batteryVoltage);
+    table.put("BrownedOut", brownedOut);
+  }
+
+  @Override
+  public void fromLog(LogTable table) {
+    enabled = table.get("Enabled", enabled);
+    autonomous = table.get("Autonomous", autonomous);
+    test = table.get("Test", test);
+    eStopped = table.get("EStopped", eStopped);
+    dsAttached = table.get("DSAttached", dsAttached);
+    fmsAttached = table.get("FMSAttached", fmsAttached);
+    matchTime = table.get("MatchTime", matchTime);
+    batteryVoltage = table.get("BatteryVoltage", batteryVoltage);
+    brownedOut = table.get("BrownedOut", brownedOut);
+  }
+}
@@ -0,0 +1,213 @@
+package frc.robot.logging;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+
+/**
+ * Saves every subsystem's inputs to the log each loop, and plays them back
+ * from a log file in replay mode.
+ *
+ * <p>To replay a match, run the robot in simulation with the REPLAY_LOG
+ * environment variable set to the path of the log file. The subsystems use
+ * IO implementations that don't do anything, and get their inputs from the
+ * log instead. The simulated clock is stepped one loop at a time as fast as
+ * the code can run, so the replay finishes much faster than the match did.
+ */
+public final class InputLogger {
+  public enum Mode {
+    /** Running on a real robot. */
+    REAL,
+    /** Running in simulation with simulated mechanisms. */
+    SIM,
+    /** Replaying the inputs recorded in a log file. */
+    REPLAY
+  }
+
+  static final String ROOT = "/RealInputs/";
+  static final String TIMESTAMP_ENTRY = ROOT + "Timestamp";
+
+  private static final Map<String, LogTable> tables = new HashMap<>();
+  private static final Map<String, DoubleLogEntry> events = new HashMap<>();
+  private static final DriverStationInputs driverStationInputs = new DriverStationInputs();
+
+  private static Mode mode = Mode.SIM;
+  private static ReplayLog replayLog;
+  private static IntegerLogEntry timestampEntry;
+  // Written by the replay clock thread between loops.
+  private static volatile long timestamp;
+  // When the current loop started by the robot's clock. In replay mode the
+  // clock is simulated, so this is different from the loop's timestamp.
+  private static long loopStartTime;
+  private static int loopIndex = -1;
+
+  private InputLogger() {}
+
+  /**
+   * Chooses the mode the robot runs in. This must be called before any
+   * subsystems are created.
+   *
+   * @param periodSeconds how often the robot loop runs
+   */
+  public static void start(double periodSeconds) {
+    String replayPath = System.getenv("REPLAY_LOG");
+
+    if (RobotBase.isReal()) {
+      mode = Mode.REAL;
+    } else if (replayPath != null && !replayPath.isEmpty()) {
+      mode = Mode.REPLAY;
+    } else {
+      mode = Mode.SIM;
+    }
+
+    if (mode == Mode.REPLAY) {
+      try {
+        replayLog = ReplayLog.load(replayPath);
+      } catch (IOException e) {
+        throw new RuntimeException("Couldn't load the replay log", e);
+      }
+      DataLogManager.log("Replaying " + replayLog.getLoopCount() + " loops from " + replayPath);
+      startReplayClock(periodSeconds);
+    } else {
+      timestampEntry = new IntegerLogEntry(DataLogManager.getLog(), TIMESTAMP_ENTRY);
+    }
+  }
+
+  public static Mode getMode() {
+    return mode;
+  }
+
+  public static boolean isReplay() {
+    return mode == Mode.REPLAY;
+  }
+
+  /**
+   * Marks the start of a robot loop. Every input saved during this loop is
+   * given the same timestamp, which is how replay knows which values belong
+   * together.
+   */
+  public static void startLoop() {
+    loopIndex++;
+
+    if (mode == Mode.REPLAY) {
+      timestamp = replayLog.getLoopTimestamp(Math.min(loopIndex, replayLog.getLoopCount() - 1));
+      loopStartTime = RobotController.getFPGATime();
+    } else {
+      timestamp = RobotController.getFPGATime();
+      loopStartTime = timestamp;
+      timestampEntry.append(timestamp, timestamp);
+      driverStationInputs.capture();
+    }
+
+    processInputs("DriverStation", driverStationInputs);
+  }
+
+  /**
+   * Saves a group of inputs to the log. In replay mode, the inputs are
+   * overwritten with the values from the log instead.
+   *
+   * @param key the name the inputs are saved under, such as "Drive"
+   * @param inputs the inputs that were just read from the IO layer
+   */
+  public static void processInputs(String key, LoggableInputs inputs) {
+    LogTable table = tables.get(key);
+    if (table == null) {
+      table = new LogTable(ROOT + key + "/");
+      tables.put(key, table);
+    }
+
+    if (mode == Mode.REPLAY) {
+      inputs.fromLog(table);
+    } else {
+      inputs.toLog(table);
+    }
+  }
+
+  /**
+   * Saves a group of inputs that's read more often than once per loop. Each
+   * reading is saved with the time it was taken. In replay mode, the reading
+   * taken at the same point in the recorded loop is played back.
+   *
+   * @param key the name the inputs are saved under
+   * @param inputs the inputs that were just read from the IO layer
+   */
+  public static void processFastInputs(String key, LoggableInputs inputs) {
+    long loopTimestamp = timestamp;
+    timestamp = loopTimestamp + (RobotController.getFPGATime() - loopStartTime);
+    processInputs(key, inputs);
+    timestamp = loopTimestamp;
+  }
+
+  /**
+   * Saves something the robot noticed in this loop's inputs, such as a
+   * shot, with the loop's timestamp. These are for looking at matches
+   * afterwards, so nothing is saved or read back in replay mode.
+   *
+   * @param key the name the value is saved under, such as "Shooter/ShotCount"
+   * @param value the new value
+   */
+  public static void recordEvent(String key, double value) {
+    if (mode == Mode.REPLAY) {
+      return;
+    }
+    DoubleLogEntry entry = events.get(key);
+    if (entry == null) {
+      entry = new DoubleLogEntry(DataLogManager.getLog(), ROOT + key);
+      events.put(key, entry);
+    }
+    entry.append(value, timestamp);
+  }
+
+  static long getTimestamp() {
+    return timestamp;
+  }
+
+  static ReplayLog getReplayLog() {
+    return replayLog;
+  }
+
+  private static void startReplayClock(double periodSeconds) {
+    // Stop the simulated clock. From now on it only moves when we step it.
+    SimHooks.pauseTiming();
+
+    Thread thread = new Thread(() -> {
+      SimHooks.waitForProgramStart();
+
+      DriverStationInputs recorded = new DriverStationInputs();
+      LogTable table = new LogTable(ROOT + "DriverStation/");
+      for (int loop = 0; loop < replayLog.getLoopCount(); loop++) {
+        // Put the Driver Station into the state it was in during this loop,
+        // so the robot switches modes at the same times it did in the match.
+        timestamp = replayLog.getLoopTimestamp(loop);
+        recorded.fromLog(table);
+        DriverStationSim.setEnabled(recorded.enabled);
+        DriverStationSim.setAutonomous(recorded.autonomous);
+        DriverStationSim.setTest(recorded.test);
+        DriverStationSim.setEStop(recorded.eStopped);
+        DriverStationSim.setDsAttached(recorded.dsAttached);
+        DriverStationSim.setFmsAttached(recorded.fmsAttached);
+        DriverStationSim.setMatchTime(recorded.matchTime);
+        RoboRioSim.setVInVoltage(recorded.batteryVoltage);
+        DriverStationSim.notifyNewData();
+
+        // Run one loop of the robot code, and wait for it to finish.
+        SimHooks.stepTiming(periodSeconds);
+      }
+
+      DataLogManager.log("Replay finished");
+      DataLogManager.stop();
+      System.exit(0);
+    }, "Replay Clock");
+    thread.setDaemon(true);
+    thread.start();
+  }
+}
@@ -0,0 +1,102 @@
+package frc.robot.logging;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+
+/**
+ * The fields of one {@link LoggableInputs}. When the robot is running
+ * normally, values put into the table are written to the log. When
+ * replaying, values are read from the log that is being replayed instead.
+ *
+ * <p>Log entries are created the first time each field is written and then
+ * reused, so logging doesn't allocate anything once the robot is running.
+ */
+public class LogTable {
+  private final String prefix;
+  private final Map<String, Field> fields;
+
+  LogTable(String prefix) {
+    this.prefix = prefix;
+    fields = new HashMap<>();
+  }
+
+  public void put(String key, double value) {
+    Field field = getField(key);
+    if (field.doubleEntry == null) {
+      field.doubleEntry = new DoubleLogEntry(log(), field.name);
+    }
+    field.doubleEntry.append(value, InputLogger.getTimestamp());
+  }
+
+  public void put(String key, boolean value) {
+    Field field = getField(key);
+    if (field.booleanEntry == null) {
+      field.booleanEntry = new BooleanLogEntry(log(), field.name);
+    }
+    field.booleanEntry.append(value, InputLogger.getTimestamp());
+  }
+
+  public void put(String key, long value) {
+    Field field = getField(key);
+    if (field.integerEntry == null) {
+      field.integerEntry = new IntegerLogEntry(log(), field.name);
+    }
+    field.integerEntry.append(value, InputLogger.getTimestamp());
+  }
+
+  public double get(String key, double defaultValue) {
+    return replayValue(key, defaultValue);
+  }
+
+  public boolean get(String key, boolean defaultValue) {
+    return replayValue(key, defaultValue ? 1.0 : 0.0) != 0.0;
+  }
+
+  public long get(String key, long defaultValue) {
+    return (long) replayValue(key, defaultValue);
+  }
+
+  private double replayValue(String key, double defaultValue) {
+    Field field = getField(key);
+    if (field.series == null) {
+      field.series = InputLogger.getReplayLog().getSeries(field.name);
+      if (field.series == null) {
+        // The field wasn't in the log, for example because it was added
+        // after the log was recorded.
+        return defaultValue;
+      }
+    }
+    return field.series.valueAt(InputLogger.getTimestamp(), defaultValue);
+  }
+
+  private Field getField(String key) {
+    Field field = fields.get(key);
+    if (field == null) {
+      field = new Field(prefix + key);
+      fields.put(key, field);
+    }
+    return field;
+  }
+
+  private static DataLog log() {
+    return DataLogManager.getLog();
+  }
+
+  private static class Field {
+    final String name;
+    DoubleLogEntry doubleEntry;
+    BooleanLogEntry booleanEntry;
+    IntegerLogEntry integerEntry;
+    ReplayLog.Series series;
+
+    Field(String name) {
+      this.name = name;
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package frc.robot.logging;
+
+/**
+ * A group of sensor readings that are saved to the log every loop, and can
+ * be read back from a log when replaying a match.
+ */
+public interface LoggableInputs {
+  /** Writes every field to the table. */
+  void toLog(LogTable table);
+
+  /** Reads every field back from the table. */
+  void fromLog(LogTable table);
+}
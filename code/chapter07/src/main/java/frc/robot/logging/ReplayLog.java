@@ -0,0 +1,117 @@
+package frc.robot.logging;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+
+/**
+ * The inputs recorded in a log file, loaded into memory so that they can be
+ * played back through the robot code one loop at a time.
+ */
+class ReplayLog {
+  private final Map<String, Series> seriesByName;
+  private final Series loopTimestamps;
+
+  private ReplayLog(Map<String, Series> seriesByName) {
+    this.seriesByName = seriesByName;
+
+    Series loops = seriesByName.get(InputLogger.TIMESTAMP_ENTRY);
+    loopTimestamps = loops != null ? loops : new Series();
+  }
+
+  /** Reads every input entry from a log file. */
+  static ReplayLog load(String path) throws IOException {
+    DataLogReader reader = new DataLogReader(path);
+    if (!reader.isValid()) {
+      throw new IOException("Not a valid log file: " + path);
+    }
+
+    Map<Integer, Series> seriesById = new HashMap<>();
+    Map<Integer, String> typeById = new HashMap<>();
+    Map<String, Series> seriesByName = new HashMap<>();
+
+    for (DataLogRecord record : reader) {
+      if (record.isStart()) {
+        DataLogRecord.StartRecordData start = record.getStartData();
+        if (start.name.startsWith(InputLogger.ROOT)) {
+          Series series = seriesByName.computeIfAbsent(start.name, name -> new Series());
+          seriesById.put(start.entry, series);
+          typeById.put(start.entry, start.type);
+        }
+      } else if (record.isFinish()) {
+        int entry = record.getFinishEntry();
+        seriesById.remove(entry);
+        typeById.remove(entry);
+      } else if (!record.isControl()) {
+        Series series = seriesById.get(record.getEntry());
+        if (series == null) {
+          continue;
+        }
+
+        double value;
+        switch (typeById.get(record.getEntry())) {
+          case "double":
+            value = record.getDouble();
+            break;
+          case "boolean":
+            value = record.getBoolean() ? 1.0 : 0.0;
+            break;
+          case "int64":
+            value = record.getInteger();
+            break;
+          default:
+            continue;
+        }
+        series.add(record.getTimestamp(), value);
+      }
+    }
+
+    return new ReplayLog(seriesByName);
+  }
+
+  /** Gets the number of robot loops that were recorded. */
+  int getLoopCount() {
+    return loopTimestamps.size;
+  }
+
+  /** Gets the time, in microseconds, that a recorded loop started at. */
+  long getLoopTimestamp(int loop) {
+    return loopTimestamps.timestamps[loop];
+  }
+
+  /** Gets the recorded values of one input, or null if it wasn't recorded. */
+  Series getSeries(String name) {
+    return seriesByName.get(name);
+  }
+
+  /** The values of one input and when each of them was recorded. */
+  static class Series {
+    private long[] timestamps = new long[1024];
+    private double[] values = new double[1024];
+    private int size;
+
+    private void add(long timestamp, double value) {
+      if (size == timestamps.length) {
+        timestamps = Arrays.copyOf(timestamps, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+      }
+      timestamps[size] = timestamp;
+      values[size] = value;
+      size++;
+    }
+
+    /** Gets the most recent value recorded at or before the given time. */
+    double valueAt(long timestamp, double defaultValue) {
+      int index = Arrays.binarySearch(timestamps, 0, size, timestamp);
+      if (index < 0) {
+        // Not recorded at exactly this time, so use the value before it.
+        index = -index - 2;
+      }
+      return index >= 0 ? values[index] : defaultValue;
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package frc.robot.navigation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * The field split into square cells, each either open or blocked. It's
+ * read once when the robot starts from a text file in the deploy
+ * directory, which looks like the field from above:
+ *
+ * <pre>
+ * # Comments start with #
+ * cellSize 0.25
+ * XXXXXXXXXX
+ * X........X
+ * X...XX...X
+ * XXXXXXXXXX
+ * </pre>
+ *
+ * <p>An "X" is blocked and a "." is open. The first row of cells is the far
+ * side of the field (the largest y), and the first column is at x = 0.
+ * Obstacles in the file should already be made bigger by half the robot's
+ * width, so that the center of the robot can go anywhere that's open.
+ */
+public class NavigationGrid {
+  private final double cellSize;
+  private final int columns;
+  private final int rows;
+
+  // Indexed by row * columns + column, where row 0 is at y = 0.
+  private final boolean[] blocked;
+
+  private NavigationGrid(double cellSize, int columns, int rows, boolean[] blocked) {
+    this.cellSize = cellSize;
+    this.columns = columns;
+    this.rows = rows;
+    this.blocked = blocked;
+  }
+
+  public static NavigationGrid load(File file) throws IOException {
+    double cellSize = 0.0;
+    List<String> lines = new ArrayList<>();
+    for (String line : Files.readAllLines(file.toPath())) {
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      if (line.startsWith("cellSize")) {
+        cellSize = Double.parseDouble(line.substring("cellSize".length()).trim());
+      } else {
+        lines.add(line);
+      }
+    }
+
+    if (cellSize <= 0.0 || lines.isEmpty()) {
+      throw new IOException("Navigation grid needs a cellSize and at least one row");
+    }
+
+    int columns = lines.get(0).length();
+    int rows = lines.size();
+    boolean[] blocked = new boolean[columns * rows];
+    for (int i = 0; i < rows; i++) {
+      String line = lines.get(i);
+      if (line.length() != columns) {
+        throw new IOException("Row " + (i + 1) + " of the navigation grid has the wrong length");
+      }
+
+      // The file starts at the far side of the field.
+      int row = rows - 1 - i;
+      for (int column = 0; column < columns; column++) {
+        blocked[row * columns + column] = line.charAt(column) == 'X';
+      }
+    }
+
+    return new NavigationGrid(cellSize, columns, rows, blocked);
+  }
+
+  public int getCellCount() {
+    return blocked.length;
+  }
+
+  /** Gets the cell containing a point on the field, or -1 if it's off the grid. */
+  public int getCell(Translation2d position) {
+    int column = (int) Math.floor(position.getX() / cellSize);
+    int row = (int) Math.floor(position.getY() / cellSize);
+    if (column < 0 || column >= columns || row < 0 || row >= rows) {
+      return -1;
+    }
+    return row * columns + column;
+  }
+
+  /** Gets the center of a cell on the field. */
+  public Translation2d getCenter(int cell) {
+    return new Translation2d(
+        (getColumn(cell) + 0.5) * cellSize,
+        (getRow(cell) + 0.5) * cellSize);
+  }
+
+  public int getColumn(int cell) {
+    return cell % columns;
+  }
+
+  public int getRow(int cell) {
+    return cell / columns;
+  }
+
+  /** Gets the cell at a column and row, or -1 if it's off the grid. */
+  public int getCell(int column, int row) {
+    if (column < 0 || column >= columns || row < 0 || row >= rows) {
+      return -1;
+    }
+    return row * columns + column;
+  }
+
+  public boolean isBlocked(int cell) {
+    return cell < 0 || blocked[cell];
+  }
+
+  /**
+   * Gets whether the robot can drive in a straight line between the
+   * centers of two cells without crossing a blocked cell.
+   */
+  public boolean hasLineOfSight(int from, int to) {
+    double x0 = getColumn(from) + 0.5;
+    double y0 = getRow(from) + 0.5;
+    double x1 = getColumn(to) + 0.5;
+    double y1 = getRow(to) + 0.5;
+
+    // Check points a quarter of a cell apart along the line.
+    int steps = (int) Math.ceil(Math.hypot(x1 - x0, y1 - y0) * 4.0);
+    for (int i = 1; i < steps; i++) {
+      double t = (double) i / steps;
+      int cell = getCell((int) Math.floor(x0 + (x1 - x0) * t), (int) Math.floor(y0 + (y1 - y0) * t));
+      if (isBlocked(cell)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Finds the open cell nearest to a cell, or -1 if every cell is blocked
+   * or the cell is off the grid.
+   */
+  public int nearestOpenCell(int cell) {
+    if (cell < 0 || !isBlocked(cell)) {
+      return cell;
+    }
+
+    int column = getColumn(cell);
+    int row = getRow(cell);
+    for (int radius = 1; radius < Math.max(columns, rows); radius++) {
+      for (int dx = -radius; dx <= radius; dx++) {
+        for (int dy = -radius; dy <= radius; dy++) {
+          if (Math.max(Math.abs(dx), Math.abs(dy)) != radius) {
+            continue;
+          }
+          int candidate = getCell(column + dx, row + dy);
+          if (!isBlocked(candidate)) {
+            return candidate;
+          }
+        }
+      }
+    }
+    return -1;
+  }
+}
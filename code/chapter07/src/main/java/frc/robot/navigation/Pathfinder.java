@@ -0,0 +1,204 @@
+package frc.robot.navigation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.DifferentialDriveKinematics;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+import edu.wpi.first.math.trajectory.constraint.CentripetalAccelerationConstraint;
+import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.TelemetryTable;
+
+/**
+ * Finds a way around the obstacles on the field to a goal position, and
+ * makes a trajectory the drive base can follow.
+ *
+ * <p>Searching the grid can take longer than one loop, so it's done on a
+ * background thread. The main loop asks for a path with
+ * {@link #request(Pose2d, Pose2d)}, then checks for it each loop with
+ * {@link #poll(long)}, which never waits. The finished path is handed over
+ * through a single slot that both threads can use without locking.
+ *
+ * <p>The robot usually drives to the same few places, so the paths found
+ * are remembered by the cells they start and end in.
+ */
+public class Pathfinder {
+  // How many paths to remember. The oldest one is forgotten first.
+  private static final int CACHE_SIZE = 256;
+
+  // Limits for the trajectories. These should be measured on the real
+  // robot, and kept a bit lower than the most it can do.
+  private static final double MAX_VELOCITY = 3.0; // meters per second
+  private static final double MAX_ACCELERATION = 2.0; // meters per second squared
+  private static final double MAX_CENTRIPETAL_ACCELERATION = 2.0; // meters per second squared
+
+  // A goal closer than this doesn't need any driving.
+  private static final double MIN_DISTANCE = 0.05; // meters
+
+  /** The answer to a request. */
+  public static final class Result {
+    public final long requestId;
+
+    // Whether a way to the goal was found.
+    public final boolean found;
+
+    // Null if the robot is already at the goal, or no path was found.
+    public final Trajectory trajectory;
+
+    Result(long requestId, boolean found, Trajectory trajectory) {
+      this.requestId = requestId;
+      this.found = found;
+      this.trajectory = trajectory;
+    }
+  }
+
+  private final NavigationGrid grid;
+  private final TrajectoryConfig forwardConfig;
+  private final TrajectoryConfig reversedConfig;
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "Pathfinder");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    return thread;
+  });
+
+  // The newest request. Older requests that haven't started yet are
+  // skipped, since nobody is waiting for them anymore.
+  private final AtomicLong latestRequest = new AtomicLong();
+
+  // The finished path, waiting for the main loop to pick it up.
+  private final AtomicReference<Result> mailbox = new AtomicReference<>();
+
+  // Paths already found, as the cells where they turn. Only used on the
+  // background thread.
+  private final Map<Long, List<Integer>> cache = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, List<Integer>> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+
+  // Written on the background thread and read by telemetry.
+  private volatile double lastSearchMillis;
+  private volatile int cacheHits;
+  private volatile int cacheMisses;
+
+  public Pathfinder(NavigationGrid grid) {
+    this.grid = grid;
+
+    forwardConfig = makeConfig().setReversed(false);
+    reversedConfig = makeConfig().setReversed(true);
+
+    TelemetryTable telemetry = Telemetry.getTable("Pathfinder");
+    telemetry.addDouble("LastSearchMillis", () -> lastSearchMillis);
+    telemetry.addDouble("CacheHits", () -> cacheHits);
+    telemetry.addDouble("CacheMisses", () -> cacheMisses);
+  }
+
+  /**
+   * Starts looking for a path on the background thread. This returns
+   * straight away.
+   *
+   * @param start where the robot is now
+   * @param goal where the robot should end up, and which way it should face
+   * @return the number to give to {@link #poll(long)}
+   */
+  public long request(Pose2d start, Pose2d goal) {
+    long requestId = latestRequest.incrementAndGet();
+    executor.execute(() -> findPath(requestId, start, goal));
+    return requestId;
+  }
+
+  /**
+   * Gets the answer to a request if it's ready, or null if it isn't yet.
+   * This never waits, so it can be called every loop.
+   */
+  public Result poll(long requestId) {
+    Result result = mailbox.get();
+    if (result == null || result.requestId != requestId) {
+      return null;
+    }
+    return mailbox.compareAndSet(result, null) ? result : null;
+  }
+
+  // Runs on the background thread.
+  private void findPath(long requestId, Pose2d start, Pose2d goal) {
+    if (requestId != latestRequest.get()) {
+      return;
+    }
+    long startNanos = System.nanoTime();
+
+    Result result;
+    if (start.getTranslation().getDistance(goal.getTranslation()) < MIN_DISTANCE) {
+      result = new Result(requestId, true, null);
+    } else {
+      // The robot might be touching an obstacle, which is fine as long as
+      // it leaves through the nearest open cell.
+      int startCell = grid.nearestOpenCell(grid.getCell(start.getTranslation()));
+      int goalCell = grid.getCell(goal.getTranslation());
+
+      List<Integer> cells = null;
+      if (startCell >= 0 && !grid.isBlocked(goalCell)) {
+        long key = ((long) startCell << 32) | goalCell;
+        cells = cache.get(key);
+        if (cells != null) {
+          cacheHits++;
+        } else {
+          cacheMisses++;
+          cells = ThetaStar.findPath(grid, startCell, goalCell);
+          if (cells != null) {
+            cache.put(key, cells);
+          }
+        }
+      }
+
+      Trajectory trajectory = cells != null ? makeTrajectory(start, cells, goal) : null;
+      result = new Result(requestId, trajectory != null, trajectory);
+    }
+
+    lastSearchMillis = (System.nanoTime() - startNanos) / 1e6;
+    mailbox.set(result);
+  }
+
+  private static TrajectoryConfig makeConfig() {
+    return new TrajectoryConfig(MAX_VELOCITY, MAX_ACCELERATION)
+        .setKinematics(new DifferentialDriveKinematics(DriveSubsystem.TRACK_WIDTH))
+        .addConstraint(new CentripetalAccelerationConstraint(MAX_CENTRIPETAL_ACCELERATION));
+  }
+
+  private Trajectory makeTrajectory(Pose2d start, List<Integer> cells, Pose2d goal) {
+    // The first and last cells are replaced by the exact start and goal.
+    List<Translation2d> waypoints = new ArrayList<>();
+    for (int i = 1; i < cells.size() - 1; i++) {
+      waypoints.add(grid.getCenter(cells.get(i)));
+    }
+
+    // Back into the goal if the robot has to face away from the way it's
+    // coming from, instead of turning around at the end.
+    Translation2d lastPoint = waypoints.isEmpty()
+        ? start.getTranslation()
+        : waypoints.get(waypoints.size() - 1);
+    Translation2d lastLeg = goal.getTranslation().minus(lastPoint);
+    boolean reversed = lastLeg.getNorm() > 0.0
+        && Math.cos(goal.getRotation().getRadians() - lastLeg.getAngle().getRadians()) < 0.0;
+
+    Trajectory trajectory = TrajectoryGenerator.generateTrajectory(
+        start, waypoints, goal, reversed ? reversedConfig : forwardConfig);
+
+    // If the trajectory can't be made, the generator reports it to the
+    // Driver Station and gives back one that doesn't move.
+    return trajectory.getStates().size() > 1 ? trajectory : null;
+  }
+}
@@ -0,0 +1,106 @@
+package frc.robot.navigation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the shortest path between two cells of a navigation grid. This is
+ * A* with one change (called Theta*): a cell can point back to any earlier
+ * cell it can see in a straight line, not just its neighbor. This gives
+ * paths with a few long straight lines instead of a staircase of cell
+ * steps, which are much easier to drive.
+ */
+final class ThetaStar {
+  private static final double DIAGONAL = Math.sqrt(2.0);
+
+  private ThetaStar() {}
+
+  /**
+   * Finds a path between two open cells.
+   *
+   * @return the cells where the path turns, from the start to the goal, or
+   *     null if there is no path
+   */
+  static List<Integer> findPath(NavigationGrid grid, int start, int goal) {
+    int cellCount = grid.getCellCount();
+    double[] cost = new double[cellCount];
+    int[] parent = new int[cellCount];
+    boolean[] done = new boolean[cellCount];
+    Arrays.fill(cost, Double.POSITIVE_INFINITY);
+
+    // Cells to look at next, closest to the goal first. A cell can be in
+    // here more than once if a shorter way to it is found, and the extra
+    // copies are skipped.
+    PriorityQueue<double[]> open = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+
+    cost[start] = 0.0;
+    parent[start] = start;
+    open.add(new double[] {distance(grid, start, goal), start});
+
+    while (!open.isEmpty()) {
+      int cell = (int) open.poll()[1];
+      if (done[cell]) {
+        continue;
+      }
+      if (cell == goal) {
+        return turningPoints(parent, start, goal);
+      }
+      done[cell] = true;
+
+      int column = grid.getColumn(cell);
+      int row = grid.getRow(cell);
+      for (int dx = -1; dx <= 1; dx++) {
+        for (int dy = -1; dy <= 1; dy++) {
+          int neighbor = grid.getCell(column + dx, row + dy);
+          if ((dx == 0 && dy == 0) || grid.isBlocked(neighbor) || done[neighbor]) {
+            continue;
+          }
+
+          // Don't cut across the corner of a blocked cell.
+          if (dx != 0 && dy != 0
+              && (grid.isBlocked(grid.getCell(column + dx, row))
+                  || grid.isBlocked(grid.getCell(column, row + dy)))) {
+            continue;
+          }
+
+          // Go straight from this cell's parent if nothing is in the way.
+          int from = parent[cell];
+          double newCost;
+          if (grid.hasLineOfSight(from, neighbor)) {
+            newCost = cost[from] + distance(grid, from, neighbor);
+          } else {
+            from = cell;
+            newCost = cost[cell] + (dx != 0 && dy != 0 ? DIAGONAL : 1.0);
+          }
+
+          if (newCost < cost[neighbor]) {
+            cost[neighbor] = newCost;
+            parent[neighbor] = from;
+            open.add(new double[] {newCost + distance(grid, neighbor, goal), neighbor});
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  // Distance between cell centers, in cells.
+  private static double distance(NavigationGrid grid, int a, int b) {
+    return Math.hypot(
+        grid.getColumn(a) - grid.getColumn(b),
+        grid.getRow(a) - grid.getRow(b));
+  }
+
+  private static List<Integer> turningPoints(int[] parent, int start, int goal) {
+    List<Integer> path = new ArrayList<>();
+    for (int cell = goal; cell != start; cell = parent[cell]) {
+      path.add(cell);
+    }
+    path.add(start);
+    Collections.reverse(path);
+    return path;
+  }
+}
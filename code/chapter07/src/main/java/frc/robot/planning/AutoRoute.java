@@ -0,0 +1,112 @@
+package frc.robot.planning;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryUtil;
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * An autonomous route made ahead of time by {@link RoutePlanner}. The
+ * trajectories are all in files, so nothing needs to be worked out on the
+ * robot except reading them, which is done once when the robot starts.
+ */
+public class AutoRoute {
+  static final String MANIFEST = "route.properties";
+  static final String INTAKE = "intake";
+  static final String SHOOT = "shoot";
+
+  /** One leg of the route: drive somewhere, then pick up or shoot a piece. */
+  public static final class Leg {
+    // Null if the robot is already where it needs to be.
+    public final Trajectory trajectory;
+    public final boolean shoot;
+
+    Leg(Trajectory trajectory, boolean shoot) {
+      this.trajectory = trajectory;
+      this.shoot = shoot;
+    }
+  }
+
+  private final String name;
+  private final Pose2d start;
+  private final List<Leg> legs;
+
+  private AutoRoute(String name, Pose2d start, List<Leg> legs) {
+    this.name = name;
+    this.start = start;
+    this.legs = legs;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /** Gets where the robot must be placed at the start of the match. */
+  public Pose2d getStart() {
+    return start;
+  }
+
+  public List<Leg> getLegs() {
+    return legs;
+  }
+
+  /**
+   * Reads every route in a folder, such as "autos" in the deploy directory.
+   * Routes that can't be read are reported to the Driver Station and
+   * skipped.
+   */
+  public static List<AutoRoute> loadAll(File directory) {
+    File[] routeDirectories = directory.listFiles(file -> new File(file, MANIFEST).isFile());
+    if (routeDirectories == null) {
+      return Collections.emptyList();
+    }
+    Arrays.sort(routeDirectories);
+
+    List<AutoRoute> routes = new ArrayList<>();
+    for (File routeDirectory : routeDirectories) {
+      try {
+        routes.add(load(routeDirectory));
+      } catch (IOException | RuntimeException e) {
+        DriverStation.reportError("Couldn't load auto route " + routeDirectory.getName() + ": " + e, false);
+      }
+    }
+    return routes;
+  }
+
+  public static AutoRoute load(File directory) throws IOException {
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(new File(directory, MANIFEST).toPath())) {
+      properties.load(reader);
+    }
+
+    String[] start = properties.getProperty("start").split(",");
+    Pose2d startPose = new Pose2d(
+        Double.parseDouble(start[0].trim()),
+        Double.parseDouble(start[1].trim()),
+        Rotation2d.fromDegrees(Double.parseDouble(start[2].trim())));
+
+    int legCount = Integer.parseInt(properties.getProperty("legs").trim());
+    List<Leg> legs = new ArrayList<>();
+    for (int i = 0; i < legCount; i++) {
+      String file = properties.getProperty("leg." + i + ".trajectory");
+      Trajectory trajectory = file != null
+          ? TrajectoryUtil.fromPathweaverJson(new File(directory, file.trim()).toPath())
+          : null;
+      boolean shoot = SHOOT.equals(properties.getProperty("leg." + i + ".action").trim());
+      legs.add(new Leg(trajectory, shoot));
+    }
+
+    return new AutoRoute(directory.getName(), startPose, legs);
+  }
+}
@@ -0,0 +1,103 @@
+package frc.robot.planning;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Everything the route planner needs to know about the field and the robot,
+ * read from a properties file. Positions are in meters from the corner of
+ * the field, and headings are in degrees in the file and radians here.
+ * Timings should be measured on the real robot.
+ */
+final class FieldSetup {
+  /** A place on the field. The heading is NaN where it doesn't matter. */
+  static final class Spot {
+    final double x;
+    final double y;
+    final double heading;
+
+    Spot(double x, double y, double heading) {
+      this.x = x;
+      this.y = y;
+      this.heading = heading;
+    }
+  }
+
+  Spot start;
+  boolean preloaded;
+  final List<Spot> pieces = new ArrayList<>();
+  final List<Spot> scoring = new ArrayList<>();
+
+  double maxVelocity;
+  double maxAcceleration;
+  double maxCentripetalAcceleration;
+  double trackWidth;
+  double turnSecondsPer180;
+  double intakeSeconds;
+  double shootSeconds;
+  double autoSeconds;
+  int routeCount;
+
+  static FieldSetup load(Path file) throws IOException {
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(file)) {
+      properties.load(reader);
+    }
+
+    FieldSetup setup = new FieldSetup();
+    setup.start = parseSpot(require(properties, "start"), true);
+    setup.preloaded = Boolean.parseBoolean(properties.getProperty("preloaded", "true"));
+    for (String spot : require(properties, "pieces").split(";")) {
+      setup.pieces.add(parseSpot(spot, false));
+    }
+    for (String spot : require(properties, "scoring").split(";")) {
+      setup.scoring.add(parseSpot(spot, true));
+    }
+
+    setup.maxVelocity = getDouble(properties, "drive.maxVelocity", 3.0);
+    setup.maxAcceleration = getDouble(properties, "drive.maxAcceleration", 2.0);
+    setup.maxCentripetalAcceleration = getDouble(properties, "drive.maxCentripetalAcceleration", 2.0);
+    setup.trackWidth = getDouble(properties, "drive.trackWidth", 0.66);
+    setup.turnSecondsPer180 = getDouble(properties, "drive.turnSecondsPer180", 0.5);
+    setup.intakeSeconds = getDouble(properties, "intake.seconds", 0.3);
+    setup.shootSeconds = getDouble(properties, "shoot.seconds", 0.4);
+    setup.autoSeconds = getDouble(properties, "auto.seconds", 15.0);
+    setup.routeCount = (int) getDouble(properties, "routes", 3);
+
+    // Pieces are remembered in the bits of an int while searching.
+    if (setup.pieces.size() > 30) {
+      throw new IllegalArgumentException("At most 30 pieces are supported");
+    }
+    return setup;
+  }
+
+  private static String require(Properties properties, String key) {
+    String value = properties.getProperty(key);
+    if (value == null) {
+      throw new IllegalArgumentException("Missing \"" + key + "\"");
+    }
+    return value;
+  }
+
+  private static double getDouble(Properties properties, String key, double defaultValue) {
+    String value = properties.getProperty(key);
+    return value != null ? Double.parseDouble(value.trim()) : defaultValue;
+  }
+
+  private static Spot parseSpot(String text, boolean needsHeading) {
+    String[] parts = text.split(",");
+    if (parts.length != (needsHeading ? 3 : 2)) {
+      throw new IllegalArgumentException("Expected " + (needsHeading ? "x, y, heading" : "x, y")
+          + " but got \"" + text.trim() + "\"");
+    }
+    double x = Double.parseDouble(parts[0].trim());
+    double y = Double.parseDouble(parts[1].trim());
+    double heading = needsHeading ? Math.toRadians(Double.parseDouble(parts[2].trim())) : Double.NaN;
+    return new Spot(x, y, heading);
+  }
+}
@@ -0,0 +1,215 @@
+package frc.robot.planning;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.DifferentialDriveKinematics;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+import edu.wpi.first.math.trajectory.TrajectoryUtil;
+import edu.wpi.first.math.trajectory.constraint.CentripetalAccelerationConstraint;
+import frc.robot.planning.FieldSetup.Spot;
+import frc.robot.planning.RouteSearch.Route;
+
+/**
+ * Plans multi-piece autonomous routes. This runs on a computer, not the
+ * robot:
+ *
+ * <pre>
+ * ./gradlew planAutos
+ * </pre>
+ *
+ * <p>The field and the robot's measured timings are read from
+ * {@code autoplanning/field.properties}. Every order of collecting and
+ * scoring the pieces is searched on all cores, then the most promising
+ * routes have real trajectories made for them, which gives their true
+ * driving time. The best routes that fit in autonomous are saved to the
+ * deploy folder as {@link AutoRoute}s, one folder per route, so the robot
+ * only has to read them.
+ */
+public final class RoutePlanner {
+  private static final String DEFAULT_INPUT = "autoplanning/field.properties";
+  private static final String DEFAULT_OUTPUT = "src/main/deploy/autos";
+
+  // How many routes from the quick search get real trajectories, for each
+  // route that is saved. The estimate isn't perfect, so the best route by
+  // estimate isn't always the best once it's driven.
+  private static final int CANDIDATES_PER_ROUTE = 10;
+
+  private RoutePlanner() {}
+
+  public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+    Path input = Paths.get(args.length > 0 ? args[0] : DEFAULT_INPUT);
+    Path output = Paths.get(args.length > 1 ? args[1] : DEFAULT_OUTPUT);
+    FieldSetup setup = FieldSetup.load(input);
+
+    // Report problems with a trajectory here, instead of to the Driver
+    // Station, which isn't running.
+    TrajectoryGenerator.setErrorHandler((message, stackTrace) -> {
+      throw new IllegalStateException(message);
+    });
+
+    long startNanos = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    List<PlannedRoute> planned = new ArrayList<>();
+    try {
+      List<Route> candidates = RouteSearch.search(
+          setup, setup.routeCount * CANDIDATES_PER_ROUTE, executor);
+      long searchNanos = System.nanoTime();
+      System.out.printf("Searched %d pieces and %d scoring spots in %.2f s%n",
+          setup.pieces.size(), setup.scoring.size(), (searchNanos - startNanos) / 1e9);
+
+      List<Future<PlannedRoute>> futures = new ArrayList<>();
+      for (Route route : candidates) {
+        futures.add(executor.submit(() -> plan(setup, route)));
+      }
+      for (Future<PlannedRoute> future : futures) {
+        PlannedRoute route = future.get();
+        if (route != null && route.totalSeconds <= setup.autoSeconds) {
+          planned.add(route);
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    planned.sort(Comparator
+        .comparingInt((PlannedRoute route) -> -route.route.score)
+        .thenComparingDouble(route -> route.totalSeconds));
+    if (planned.isEmpty()) {
+      System.out.println("No route scores a piece within " + setup.autoSeconds + " seconds");
+      return;
+    }
+
+    // Replace the routes saved last time.
+    Files.createDirectories(output);
+    deleteOldRoutes(output);
+
+    int count = Math.min(setup.routeCount, planned.size());
+    for (int i = 0; i < count; i++) {
+      PlannedRoute route = planned.get(i);
+      String name = "route" + (i + 1);
+      write(setup, route, output.resolve(name), input);
+      System.out.printf("%s: scores %d in %.2f s (estimated %.2f s): %s%n",
+          name, route.route.score, route.totalSeconds, route.route.estimatedSeconds,
+          describe(route.route));
+    }
+    System.out.printf("Done in %.2f s%n", (System.nanoTime() - startNanos) / 1e9);
+  }
+
+  /** Makes a trajectory for each leg of a route, or returns null if one can't be made. */
+  private static PlannedRoute plan(FieldSetup setup, Route route) {
+    DifferentialDriveKinematics kinematics = new DifferentialDriveKinematics(setup.trackWidth);
+    PlannedRoute planned = new PlannedRoute(route);
+
+    Pose2d pose = new Pose2d(setup.start.x, setup.start.y, new Rotation2d(setup.start.heading));
+    planned.totalSeconds = 0.0;
+    for (int stop : route.stops) {
+      boolean scoring = stop < 0;
+      Spot spot = scoring ? setup.scoring.get(-1 - stop) : setup.pieces.get(stop);
+      double distance = Math.hypot(spot.x - pose.getX(), spot.y - pose.getY());
+
+      Trajectory trajectory = null;
+      if (distance >= RouteSearch.MIN_LEG_METERS) {
+        // Pieces are driven into head on. Scoring spots say which way the
+        // robot must face, so it may have to back in.
+        boolean reversed = scoring && RouteSearch.drivesBackwards(pose.getX(), pose.getY(), spot);
+        double heading = scoring ? spot.heading : Math.atan2(spot.y - pose.getY(), spot.x - pose.getX());
+        Pose2d end = new Pose2d(spot.x, spot.y, new Rotation2d(heading));
+
+        TrajectoryConfig config = new TrajectoryConfig(setup.maxVelocity, setup.maxAcceleration)
+            .setKinematics(kinematics)
+            .addConstraint(new CentripetalAccelerationConstraint(setup.maxCentripetalAcceleration))
+            .setReversed(reversed);
+        try {
+          trajectory = TrajectoryGenerator.generateTrajectory(pose, List.of(), end, config);
+        } catch (IllegalStateException e) {
+          return null;
+        }
+        planned.totalSeconds += trajectory.getTotalTimeSeconds();
+        pose = end;
+      }
+
+      planned.trajectories.add(trajectory);
+      planned.totalSeconds += scoring ? setup.shootSeconds : setup.intakeSeconds;
+    }
+    return planned;
+  }
+
+  private static void deleteOldRoutes(Path output) throws IOException {
+    try (Stream<Path> directories = Files.list(output)) {
+      for (Path directory : (Iterable<Path>) directories::iterator) {
+        if (Files.isDirectory(directory) && directory.getFileName().toString().matches("route\\d+")) {
+          try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+              Files.delete(file);
+            }
+          }
+          Files.delete(directory);
+        }
+      }
+    }
+  }
+
+  private static void write(FieldSetup setup, PlannedRoute planned, Path directory, Path input)
+      throws IOException {
+    Files.createDirectories(directory);
+
+    try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(directory.resolve(AutoRoute.MANIFEST)))) {
+      writer.println("# Made by ./gradlew planAutos from " + input + ". Don't edit by hand.");
+      writer.printf("# Scores %d pieces in about %.2f seconds: %s%n",
+          planned.route.score, planned.totalSeconds, describe(planned.route));
+      writer.printf("start = %.3f, %.3f, %.1f%n",
+          setup.start.x, setup.start.y, Math.toDegrees(setup.start.heading));
+      writer.println("legs = " + planned.route.stops.length);
+
+      for (int i = 0; i < planned.route.stops.length; i++) {
+        boolean scoring = planned.route.stops[i] < 0;
+        writer.println("leg." + i + ".action = " + (scoring ? AutoRoute.SHOOT : AutoRoute.INTAKE));
+
+        Trajectory trajectory = planned.trajectories.get(i);
+        if (trajectory != null) {
+          String file = "leg" + i + ".wpilib.json";
+          TrajectoryUtil.toPathweaverJson(trajectory, directory.resolve(file));
+          writer.println("leg." + i + ".trajectory = " + file);
+        }
+      }
+    }
+  }
+
+  private static String describe(Route route) {
+    StringBuilder builder = new StringBuilder();
+    for (int stop : route.stops) {
+      if (builder.length() > 0) {
+        builder.append(" -> ");
+      }
+      builder.append(stop < 0 ? "score " + (-1 - stop) : "piece " + stop);
+    }
+    return builder.toString();
+  }
+
+  /** A route with its trajectories. A leg with no driving has no trajectory. */
+  private static final class PlannedRoute {
+    final Route route;
+    final List<Trajectory> trajectories = new ArrayList<>();
+    double totalSeconds;
+
+    PlannedRoute(Route route) {
+      this.route = route;
+    }
+  }
+}
@@ -0,0 +1,253 @@
+package frc.robot.planning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import frc.robot.planning.FieldSetup.Spot;
+
+/**
+ * Tries every order of picking up pieces and scoring them, to find the
+ * routes that score the most pieces in the least time. The robot carries
+ * one piece at a time, so a route goes back and forth between pieces and
+ * scoring spots.
+ *
+ * <p>The time of each leg is estimated from the distance and how far the
+ * robot has to turn, which is quick enough to check millions of routes.
+ * The search is split up by the first two stops, and each part runs on
+ * its own thread.
+ */
+final class RouteSearch {
+  // A leg shorter than this doesn't need any driving.
+  static final double MIN_LEG_METERS = 0.05;
+
+  /** A route found by the search. */
+  static final class Route {
+    // Each stop is the index of a piece, or -1 - index for a scoring spot.
+    final int[] stops;
+    final int score;
+    final double estimatedSeconds;
+
+    Route(int[] stops, int score, double estimatedSeconds) {
+      this.stops = stops;
+      this.score = score;
+      this.estimatedSeconds = estimatedSeconds;
+    }
+
+    boolean isBetterThan(int otherScore, double otherSeconds) {
+      return isBetter(score, estimatedSeconds, otherScore, otherSeconds);
+    }
+  }
+
+  private RouteSearch() {}
+
+  private static boolean isBetter(int score, double seconds, int otherScore, double otherSeconds) {
+    return score > otherScore || (score == otherScore && seconds < otherSeconds);
+  }
+
+  /**
+   * Finds the best routes.
+   *
+   * @param keep how many routes to return
+   * @return the best routes, best first
+   */
+  static List<Route> search(FieldSetup setup, int keep, ExecutorService executor)
+      throws InterruptedException, ExecutionException {
+    List<Future<BestRoutes>> futures = new ArrayList<>();
+    for (int[] prefix : prefixes(setup)) {
+      futures.add(executor.submit(new Worker(setup, keep, prefix)));
+    }
+
+    BestRoutes best = new BestRoutes(keep);
+    for (Future<BestRoutes> future : futures) {
+      for (Route route : future.get().routes) {
+        best.offer(route.stops, route.stops.length, route.score, route.estimatedSeconds);
+      }
+    }
+    return best.routes;
+  }
+
+  /** Gets whether the robot should back into a scoring spot, instead of driving forwards. */
+  static boolean drivesBackwards(double x, double y, Spot scoringSpot) {
+    double travel = Math.atan2(scoringSpot.y - y, scoringSpot.x - x);
+    return Math.cos(scoringSpot.heading - travel) < 0.0;
+  }
+
+  // Every way the route can start, two stops long.
+  private static List<int[]> prefixes(FieldSetup setup) {
+    List<int[]> prefixes = new ArrayList<>();
+    for (int first : nextStops(setup, setup.preloaded)) {
+      // After picking up a piece the robot goes to score it, and after
+      // scoring it goes to pick up another piece.
+      int[] seconds = nextStops(setup, first >= 0);
+      if (seconds.length == 0) {
+        prefixes.add(new int[] {first});
+      }
+      for (int second : seconds) {
+        prefixes.add(new int[] {first, second});
+      }
+    }
+    return prefixes;
+  }
+
+  private static int[] nextStops(FieldSetup setup, boolean holding) {
+    int count = holding ? setup.scoring.size() : setup.pieces.size();
+    int[] stops = new int[count];
+    for (int i = 0; i < count; i++) {
+      stops[i] = holding ? -1 - i : i;
+    }
+    return stops;
+  }
+
+  private static double angleBetween(double a, double b) {
+    return Math.abs(Math.IEEEremainder(a - b, 2.0 * Math.PI));
+  }
+
+  /** Searches every route that starts with the given stops. */
+  private static final class Worker implements Callable<BestRoutes> {
+    private final FieldSetup setup;
+    private final int[] prefix;
+    private final BestRoutes best;
+    private final int[] path;
+
+    // Set by legSeconds(), so that it doesn't have to return two numbers.
+    private double arrivalHeading;
+
+    Worker(FieldSetup setup, int keep, int[] prefix) {
+      this.setup = setup;
+      this.prefix = prefix;
+      best = new BestRoutes(keep);
+      path = new int[2 * setup.pieces.size() + 1];
+    }
+
+    @Override
+    public BestRoutes call() {
+      Spot start = setup.start;
+      visit(0, start.x, start.y, start.heading, setup.preloaded, 0, 0, 0.0);
+      return best;
+    }
+
+    private void visit(
+        int depth, double x, double y, double heading,
+        boolean holding, int collected, int score, double time) {
+      // A route ends after a piece is scored.
+      if (depth > 0 && path[depth - 1] < 0) {
+        best.offer(path, depth, score, time);
+      }
+
+      // Give up if this route can't beat the ones already found, even if
+      // every piece left is scored.
+      int piecesLeft = setup.pieces.size() - Integer.bitCount(collected) + (holding ? 1 : 0);
+      if (best.isFull() && score + piecesLeft < best.getWorst().score) {
+        return;
+      }
+
+      if (holding) {
+        for (int i = 0; i < setup.scoring.size(); i++) {
+          int stop = -1 - i;
+          if (depth < prefix.length && prefix[depth] != stop) {
+            continue;
+          }
+          Spot spot = setup.scoring.get(i);
+          double arrival = time + legSeconds(x, y, heading, spot, true) + setup.shootSeconds;
+          if (arrival <= setup.autoSeconds) {
+            path[depth] = stop;
+            visit(depth + 1, spot.x, spot.y, arrivalHeading, false, collected, score + 1, arrival);
+          }
+        }
+      } else {
+        for (int i = 0; i < setup.pieces.size(); i++) {
+          if ((collected & (1 << i)) != 0 || (depth < prefix.length && prefix[depth] != i)) {
+            continue;
+          }
+          Spot spot = setup.pieces.get(i);
+          double arrival = time + legSeconds(x, y, heading, spot, false) + setup.intakeSeconds;
+          if (arrival <= setup.autoSeconds) {
+            path[depth] = i;
+            visit(depth + 1, spot.x, spot.y, arrivalHeading, true, collected | (1 << i), score, arrival);
+          }
+        }
+      }
+    }
+
+    private double legSeconds(double x, double y, double heading, Spot to, boolean scoring) {
+      double distance = Math.hypot(to.x - x, to.y - y);
+      if (distance < MIN_LEG_METERS) {
+        arrivalHeading = heading;
+        return 0.0;
+      }
+
+      double travel = Math.atan2(to.y - y, to.x - x);
+      double turning;
+      if (scoring) {
+        // The robot faces the other way when it backs into a spot.
+        double robotTravel = drivesBackwards(x, y, to) ? travel + Math.PI : travel;
+        turning = angleBetween(heading, robotTravel) + angleBetween(robotTravel, to.heading);
+        arrivalHeading = to.heading;
+      } else {
+        // Pieces are always driven into with the intake in front.
+        turning = angleBetween(heading, travel);
+        arrivalHeading = travel;
+      }
+
+      return driveSeconds(distance) + turning / Math.PI * setup.turnSecondsPer180;
+    }
+
+    // How long it takes to drive in a straight line, speeding up and
+    // slowing down as fast as allowed.
+    private double driveSeconds(double distance) {
+      double v = setup.maxVelocity;
+      double a = setup.maxAcceleration;
+      if (distance >= v * v / a) {
+        return distance / v + v / a;
+      }
+      return 2.0 * Math.sqrt(distance / a);
+    }
+  }
+
+  /** The best few routes seen so far, best first. */
+  private static final class BestRoutes {
+    private final int keep;
+    private final List<Route> routes;
+
+    BestRoutes(int keep) {
+      this.keep = keep;
+      routes = new ArrayList<>(keep + 1);
+    }
+
+    boolean isFull() {
+      return routes.size() >= keep;
+    }
+
+    Route getWorst() {
+      return routes.get(routes.size() - 1);
+    }
+
+    void offer(int[] path, int length, int score, double seconds) {
+      if (isFull() && !isBetter(score, seconds, getWorst().score, getWorst().estimatedSeconds)) {
+        return;
+      }
+
+      int[] stops = Arrays.copyOf(path, length);
+      int index = routes.size();
+      for (int i = 0; i < routes.size(); i++) {
+        Route other = routes.get(i);
+        if (Arrays.equals(other.stops, stops)) {
+          return;
+        }
+        if (index == routes.size() && !other.isBetterThan(score, seconds)) {
+          index = i;
+        }
+      }
+
+      routes.add(index, new Route(stops, score, seconds));
+      if (routes.size() > keep) {
+        routes.remove(routes.size() - 1);
+      }
+    }
+  }
+}
@@ -0,0 +1,204 @@
+package frc.robot.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.robot.diagnostics.LoadShedder;
+import frc.robot.diagnostics.LoadShedder.Priority;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.TelemetryTable;
+
+/**
+ * Runs work at rates other than the main 20 ms loop.
+ *
+ * <p>Critical work, such as control loops that need to run faster than the
+ * main loop, gets its own callback from {@link TimedRobot#addPeriodic}.
+ * Each callback is given a phase offset, which delays it by a few
+ * milliseconds from the start of the main loop. The offset is picked so
+ * that as few callbacks as possible run at the same moment, and the rest
+ * are as far as they can be from the others, which keeps any one tick from
+ * getting too long. The time these callbacks take is counted by the
+ * {@link LoadShedder} as part of the loop.
+ *
+ * <p>Deferrable work, such as monitoring, runs as one of the load shedder's
+ * tasks instead, so it is thinned out along with the rest of the
+ * deferrable work when the loop is running long. It can't run more often
+ * than the main loop.
+ *
+ * <p>The time each piece of work takes, and how late or early it runs (its
+ * jitter), is shown on the dashboard under "Diagnostics/Periodic".
+ */
+public class PeriodicScheduler {
+  private final TimedRobot robot;
+  private final LoadShedder loadShedder;
+  private final List<Callback> callbacks = new ArrayList<>();
+
+  public PeriodicScheduler(TimedRobot robot, LoadShedder loadShedder) {
+    this.robot = robot;
+    this.loadShedder = loadShedder;
+
+    // The main loop always runs at the start of its period.
+    callbacks.add(new Callback(toMillis(robot.getPeriod()), 0));
+  }
+
+  /**
+   * Adds work that runs at its own rate. This must be called from the
+   * robot's constructor.
+   *
+   * @param name the name shown on the dashboard
+   * @param periodSeconds how often the work runs
+   * @param priority whether the work can be skipped when the loop is slow
+   * @param work the work to run
+   */
+  public void add(String name, double periodSeconds, Priority priority, Runnable work) {
+    int periodMs = toMillis(periodSeconds);
+    TelemetryTable telemetry = Telemetry.getTable("Diagnostics/Periodic");
+
+    if (priority == Priority.DEFERRABLE) {
+      int loopPeriodMs = callbacks.get(0).periodMs;
+      if (periodMs < loopPeriodMs) {
+        throw new IllegalArgumentException(
+            name + " runs faster than the main loop, so it can't be deferred");
+      }
+
+      // The load shedder runs its tasks at the start of the main loop, and
+      // this one is skipped until its period is up. Half a loop of slack
+      // keeps it from slipping a whole loop because of jitter.
+      Callback callback = new Callback(periodMs, 0);
+      long dueMicros = (periodMs * 1000L) - (loopPeriodMs * 500L);
+      loadShedder.addTask(name, priority, () -> {
+        if (RobotController.getFPGATime() - callback.lastStartMicros >= dueMicros) {
+          callback.run(work);
+        }
+      });
+      addTelemetry(telemetry, name, callback);
+      return;
+    }
+
+    int offsetMs = pickOffset(periodMs);
+    Callback callback = new Callback(periodMs, offsetMs);
+    callbacks.add(callback);
+    addTelemetry(telemetry, name, callback);
+    telemetry.addDouble(name + "/OffsetMs", () -> callback.offsetMs);
+
+    robot.addPeriodic(() -> {
+      callback.run(work);
+      loadShedder.addOutsideTime(callback.durationMs);
+    }, periodSeconds, offsetMs / 1000.0);
+  }
+
+  private static void addTelemetry(TelemetryTable telemetry, String name, Callback callback) {
+    telemetry.addDouble(name + "/DurationMs", () -> callback.durationMs);
+    telemetry.addDouble(name + "/MaxDurationMs", () -> callback.maxDurationMs);
+    telemetry.addDouble(name + "/JitterMs", () -> callback.jitterMs);
+    telemetry.addDouble(name + "/MaxJitterMs", () -> callback.maxJitterMs);
+  }
+
+  /**
+   * Finds the offset where the fewest other callbacks run. Every callback
+   * is laid out over the time it takes for all of them to line up again,
+   * and each possible offset is scored by how many it would share a tick
+   * with. Of the offsets that share the fewest, the one furthest from any
+   * other callback is used, so each one has time to finish before the next.
+   */
+  private int pickOffset(int periodMs) {
+    int cycleMs = periodMs;
+    for (Callback callback : callbacks) {
+      cycleMs = lcm(cycleMs, callback.periodMs);
+    }
+
+    int[] busy = new int[cycleMs];
+    for (Callback callback : callbacks) {
+      for (int t = callback.offsetMs; t < cycleMs; t += callback.periodMs) {
+        busy[t]++;
+      }
+    }
+    int[] distance = distanceToBusy(busy);
+
+    int bestOffset = 0;
+    int bestCollisions = Integer.MAX_VALUE;
+    int bestDistance = -1;
+    for (int offset = 0; offset < periodMs; offset++) {
+      int collisions = 0;
+      int nearest = Integer.MAX_VALUE;
+      for (int t = offset; t < cycleMs; t += periodMs) {
+        collisions += busy[t];
+        nearest = Math.min(nearest, distance[t]);
+      }
+      if (collisions < bestCollisions
+          || (collisions == bestCollisions && nearest > bestDistance)) {
+        bestCollisions = collisions;
+        bestDistance = nearest;
+        bestOffset = offset;
+      }
+    }
+    return bestOffset;
+  }
+
+  /**
+   * Finds how many milliseconds each tick is from the nearest tick that a
+   * callback runs in. The ticks wrap around at the end of the cycle.
+   */
+  private static int[] distanceToBusy(int[] busy) {
+    int cycleMs = busy.length;
+    int[] distance = new int[cycleMs];
+    for (int t = 0; t < cycleMs; t++) {
+      int d = 0;
+      while (d < cycleMs
+          && busy[(t + d) % cycleMs] == 0
+          && busy[(t - d + cycleMs) % cycleMs] == 0) {
+        d++;
+      }
+      distance[t] = d;
+    }
+    return distance;
+  }
+
+  private static int toMillis(double seconds) {
+    return (int) Math.round(seconds * 1000.0);
+  }
+
+  private static int lcm(int a, int b) {
+    int x = a;
+    int y = b;
+    while (y != 0) {
+      int remainder = x % y;
+      x = y;
+      y = remainder;
+    }
+    return a / x * b;
+  }
+
+  private static final class Callback {
+    final int periodMs;
+    final int offsetMs;
+
+    long lastStartMicros;
+    double durationMs;
+    double maxDurationMs;
+    double jitterMs;
+    double maxJitterMs;
+
+    Callback(int periodMs, int offsetMs) {
+      this.periodMs = periodMs;
+      this.offsetMs = offsetMs;
+    }
+
+    void run(Runnable work) {
+      long startMicros = RobotController.getFPGATime();
+      if (lastStartMicros != 0) {
+        // How far the time since the last run was from the period.
+        jitterMs = (startMicros - lastStartMicros) / 1000.0 - periodMs;
+        maxJitterMs = Math.max(maxJitterMs, Math.abs(jitterMs));
+      }
+      lastStartMicros = startMicros;
+
+      work.run();
+
+      durationMs = (RobotController.getFPGATime() - startMicros) / 1000.0;
+      maxDurationMs = Math.max(maxDurationMs, durationMs);
+    }
+  }
+}
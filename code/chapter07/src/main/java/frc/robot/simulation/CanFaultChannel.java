@@ -0,0 +1,205 @@
+package frc.robot.simulation;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.TelemetryTable;
+import frc.robot.tuning.Tunables;
+
+/**
+ * Pretends that the CAN bus between the RoboRIO and one mechanism's motor
+ * controllers is busy. Control requests can arrive late or not at all, and
+ * the robot code can be handed old sensor readings, or no new readings.
+ * This is only used in simulation, to check how the code copes before a
+ * crowded field does it to us.
+ *
+ * <p>The delay and the fraction of lost messages can be changed from the
+ * dashboard under "Tuning/CanFaults", and start at zero, which leaves the
+ * simulation unchanged.
+ *
+ * <p>Some requests, such as new PID gains, are sent from a background
+ * thread while the main loop is using the channel, so every method that
+ * touches the queue or the random numbers is synchronized.
+ *
+ * @param <T> the IO inputs class for the mechanism
+ */
+public class CanFaultChannel<T> {
+  // How many old readings are kept. This limits the longest delay to about
+  // one second.
+  private static final int HISTORY_LENGTH = 50;
+
+  private final Random random;
+
+  // Control requests waiting to arrive, oldest first.
+  private final Queue<Request> requests;
+  private double lastArrivalTime;
+
+  // A ring of copies of the most recent readings, and when they were taken.
+  private final List<T> history;
+  private final double[] historyTimes;
+  private int historyNext;
+  private int historyCount;
+  private double lastReceivedTime = Double.NEGATIVE_INFINITY;
+
+  // The public fields of the inputs class, which are copied between
+  // readings.
+  private final List<Field> fields;
+
+  private double latencySeconds;
+  private double jitterSeconds;
+  private double dropRate;
+
+  private int droppedRequests;
+  private int droppedReadings;
+
+  /**
+   * @param name the mechanism's name, such as "Climber"
+   * @param newInputs creates an empty inputs object
+   */
+  public CanFaultChannel(String name, Supplier<T> newInputs) {
+    // The same name always drops the same messages, so runs with the same
+    // settings can be compared.
+    random = new Random(name.hashCode());
+    requests = new ArrayDeque<>();
+
+    history = new ArrayList<>(HISTORY_LENGTH);
+    for (int i = 0; i < HISTORY_LENGTH; i++) {
+      history.add(newInputs.get());
+    }
+    historyTimes = new double[HISTORY_LENGTH];
+
+    fields = new ArrayList<>();
+    for (Field field : history.get(0).getClass().getFields()) {
+      if (!Modifier.isStatic(field.getModifiers())) {
+        fields.add(field);
+      }
+    }
+
+    Tunables.addDouble("CanFaults/" + name + "/LatencyMs", 0.0, value -> latencySeconds = value / 1000.0);
+    Tunables.addDouble("CanFaults/" + name + "/JitterMs", 0.0, value -> jitterSeconds = value / 1000.0);
+    Tunables.addDouble("CanFaults/" + name + "/DropRate", 0.0, value -> dropRate = value);
+
+    TelemetryTable telemetry = Telemetry.getTable("CanFaults/" + name);
+    telemetry.addDouble("DroppedRequests", () -> droppedRequests);
+    telemetry.addDouble("DroppedReadings", () -> droppedReadings);
+  }
+
+  /**
+   * Changes the faults, replacing whatever was set from the dashboard.
+   *
+   * @param latencyMs how long every message takes to arrive
+   * @param jitterMs the most extra time a message may take, picked at random
+   * @param dropRate the fraction of messages that are lost, from 0 to 1
+   */
+  public synchronized void setFaults(double latencyMs, double jitterMs, double dropRate) {
+    latencySeconds = latencyMs / 1000.0;
+    jitterSeconds = jitterMs / 1000.0;
+    this.dropRate = dropRate;
+  }
+
+  /** Sends a control request, which runs once it arrives at the motor controller. */
+  public synchronized void send(Runnable request) {
+    deliverRequests();
+
+    if (isHealthy() && requests.isEmpty()) {
+      request.run();
+      return;
+    }
+    if (random.nextDouble() < dropRate) {
+      droppedRequests++;
+      return;
+    }
+
+    // Messages on the bus arrive in the order they were sent, so a slow
+    // message holds up the ones behind it.
+    double arrivalTime = Math.max(Timer.getFPGATimestamp() + pickDelay(), lastArrivalTime);
+    lastArrivalTime = arrivalTime;
+    requests.add(new Request(arrivalTime, request));
+  }
+
+  /**
+   * Runs the control requests that have arrived by now. Call this before
+   * the simulated motors are updated.
+   */
+  public synchronized void deliverRequests() {
+    double now = Timer.getFPGATimestamp();
+    while (!requests.isEmpty() && requests.peek().arrivalTime <= now) {
+      requests.poll().action.run();
+    }
+  }
+
+  /**
+   * Passes the latest readings on to the robot code, as late as the faults
+   * say. If the readings are lost, the robot code keeps its old readings.
+   *
+   * @param actual the readings the motor controllers have right now
+   * @param received the readings the robot code sees
+   */
+  public synchronized void receiveReadings(T actual, T received) {
+    double now = Timer.getFPGATimestamp();
+    copy(actual, history.get(historyNext));
+    historyTimes[historyNext] = now;
+    historyNext = (historyNext + 1) % HISTORY_LENGTH;
+    historyCount = Math.min(historyCount + 1, HISTORY_LENGTH);
+
+    if (isHealthy()) {
+      copy(actual, received);
+      lastReceivedTime = now;
+      return;
+    }
+    if (random.nextDouble() < dropRate) {
+      droppedReadings++;
+      return;
+    }
+
+    // Find the newest reading that has had time to arrive. Readings never
+    // go backwards, even if an older one happened to arrive sooner.
+    double sentBefore = now - pickDelay();
+    for (int i = 1; i <= historyCount; i++) {
+      int index = (historyNext - i + HISTORY_LENGTH) % HISTORY_LENGTH;
+      if (historyTimes[index] <= sentBefore) {
+        if (historyTimes[index] > lastReceivedTime) {
+          copy(history.get(index), received);
+          lastReceivedTime = historyTimes[index];
+        }
+        return;
+      }
+    }
+  }
+
+  private boolean isHealthy() {
+    return latencySeconds <= 0.0 && jitterSeconds <= 0.0 && dropRate <= 0.0;
+  }
+
+  private double pickDelay() {
+    return latencySeconds + random.nextDouble() * jitterSeconds;
+  }
+
+  private void copy(T from, T to) {
+    try {
+      for (Field field : fields) {
+        field.set(to, field.get(from));
+      }
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Can't copy IO inputs", e);
+    }
+  }
+
+  private static final class Request {
+    final double arrivalTime;
+    final Runnable action;
+
+    Request(double arrivalTime, Runnable action) {
+      this.arrivalTime = arrivalTime;
+      this.action = action;
+    }
+  }
+}
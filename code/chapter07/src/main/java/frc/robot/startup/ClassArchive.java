@@ -0,0 +1,132 @@
+package frc.robot.startup;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.RobotBase;
+
+/**
+ * Keeps the robot's class data sharing archive up to date. The archive
+ * holds the robot program's classes already loaded and checked, so the
+ * JVM can start much faster by mapping it straight into memory.
+ *
+ * <p>The archive only works with the JVM that made it, so it's made on
+ * the roboRIO from the list of classes recorded by a simulated training
+ * run ({@code ./gradlew simulateJava -PcdsTraining}). After a deploy, the
+ * archive is older than the robot jar, so a new one is made in the
+ * background and is used from the next boot. Only {@code -PslimJar} builds
+ * tell the JVM to use the archive.
+ *
+ * <p>Making the archive starts a second JVM, which takes several seconds of
+ * the roboRIO's processor, so it only runs while the robot is disabled and
+ * not connected to a field. If the robot is enabled or connected to the
+ * field before it finishes, it is stopped and started again later.
+ */
+public final class ClassArchive {
+  /** Where the archive is saved on the roboRIO. */
+  public static final File ARCHIVE = new File("/home/lvuser/robot.jsa");
+
+  /** The classes recorded by the training run, which is deployed with the robot. */
+  public static final File CLASS_LIST =
+      new File(Filesystem.getDeployDirectory(), "cds/robot.classlist");
+
+  // How often to check whether the robot can spare the time.
+  private static final long IDLE_CHECK_MS = 1000;
+
+  private ClassArchive() {}
+
+  /**
+   * Makes a new archive if the robot jar has changed since the last one was
+   * made, once the robot is disabled and not on a field. This returns
+   * straight away, and does nothing unless the JVM was started with the
+   * archive.
+   */
+  public static void updateInBackground() {
+    List<String> jvmArguments = ManagementFactory.getRuntimeMXBean().getInputArguments();
+    File jar = new File(System.getProperty("java.class.path"));
+    if (!RobotBase.isReal()
+        || !jvmArguments.contains("-XX:SharedArchiveFile=" + ARCHIVE.getPath())
+        || !jar.isFile()
+        || !CLASS_LIST.isFile()) {
+      return;
+    }
+    if (ARCHIVE.lastModified() > jar.lastModified()
+        && ARCHIVE.lastModified() > CLASS_LIST.lastModified()) {
+      return;
+    }
+
+    // The archive must be made with the same garbage collector the robot
+    // runs with.
+    List<String> command = new ArrayList<>();
+    command.add("nice");
+    command.add("-n");
+    command.add("19");
+    command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+    for (String argument : jvmArguments) {
+      if (argument.startsWith("-XX:+Use") && argument.endsWith("GC")) {
+        command.add(argument);
+      }
+    }
+    File partial = new File(ARCHIVE.getPath() + ".tmp");
+    command.add("-Xshare:dump");
+    command.add("-XX:SharedClassListFile=" + CLASS_LIST.getPath());
+    command.add("-XX:SharedArchiveFile=" + partial.getPath());
+    command.add("-cp");
+    command.add(jar.getPath());
+
+    // Wait for the archive on a separate thread, so robot code starts
+    // right away.
+    Thread thread = new Thread(() -> {
+      try {
+        Process process;
+        do {
+          while (!isIdle()) {
+            Thread.sleep(IDLE_CHECK_MS);
+          }
+          process = new ProcessBuilder(command)
+              .redirectErrorStream(true)
+              .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+              .start();
+          while (!process.waitFor(IDLE_CHECK_MS, TimeUnit.MILLISECONDS) && isIdle()) {
+            // Still making the archive.
+          }
+          if (process.isAlive()) {
+            process.destroyForcibly().waitFor();
+            process = null;
+            DataLogManager.log("Stopped making the class data sharing archive, "
+                + "it will be made the next time the robot is disabled");
+          }
+        } while (process == null);
+
+        if (process.exitValue() == 0) {
+          // Only replace the old archive once the new one is complete.
+          Files.move(partial.toPath(), ARCHIVE.toPath(), StandardCopyOption.REPLACE_EXISTING);
+          DataLogManager.log("Class data sharing archive updated, it will be used from the next boot");
+        } else {
+          DataLogManager.log("Couldn't make the class data sharing archive (exit code "
+              + process.exitValue() + ")");
+        }
+      } catch (IOException e) {
+        DataLogManager.log("Couldn't make the class data sharing archive: " + e.getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, "Class archive");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    thread.start();
+  }
+
+  private static boolean isIdle() {
+    return DriverStation.isDisabled() && !DriverStation.isFMSAttached();
+  }
+}
@@ -0,0 +1,56 @@
+package frc.robot.startup;
+
+import java.lang.management.ManagementFactory;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.TelemetryTable;
+
+/**
+ * Measures how long the robot program takes to start, from when the JVM
+ * was launched. The times are printed, saved to the log and shown on the
+ * dashboard under "Diagnostics/Startup", so the normal and
+ * {@code -PslimJar} builds can be compared.
+ */
+public final class StartupTime {
+  private static double mainSeconds;
+  private static double readySeconds;
+
+  private StartupTime() {}
+
+  /** Records when {@code Main.main()} started. */
+  public static void markMain() {
+    mainSeconds = secondsSinceJvmStart();
+  }
+
+  /**
+   * Records when the robot code is ready to run, once the robot has been
+   * constructed, and reports both times.
+   */
+  public static void markReady() {
+    readySeconds = secondsSinceJvmStart();
+
+    // The JVM says "sharing" here when the classes came from a class data
+    // sharing archive, which is also true of the JDK's own archive of its
+    // classes. When the JVM is given an archive file it doesn't fall back to
+    // its own, so sharing is only on for the robot's classes if it was
+    // started with the robot's archive and that archive exists.
+    boolean sharing = System.getProperty("java.vm.info", "").contains("sharing")
+        && ManagementFactory.getRuntimeMXBean().getInputArguments()
+            .contains("-XX:SharedArchiveFile=" + ClassArchive.ARCHIVE.getPath())
+        && ClassArchive.ARCHIVE.isFile();
+
+    DataLogManager.log(String.format(
+        "Startup: main() after %.3f s, robot ready after %.3f s (class data sharing %s)",
+        mainSeconds, readySeconds, sharing ? "on" : "off"));
+
+    TelemetryTable telemetry = Telemetry.getTable("Diagnostics/Startup");
+    telemetry.addDouble("MainSeconds", () -> mainSeconds);
+    telemetry.addDouble("ReadySeconds", () -> readySeconds);
+    telemetry.addBoolean("ClassDataSharing", () -> sharing);
+  }
+
+  private static double secondsSinceJvmStart() {
+    return ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0;
+  }
+}
@@ -0,0 +1,61 @@
+package frc.robot.startup;
+
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+
+/**
+ * Drives a short simulated match so that the classes the robot uses in
+ * every mode get loaded, then exits. The JVM records the loaded classes
+ * in the list used to make the {@link ClassArchive}. This only runs in
+ * simulation with {@code ./gradlew simulateJava -PcdsTraining}.
+ */
+public final class TrainingRun {
+  // Set by the Gradle task.
+  private static final String PROPERTY = "robot.cdsTraining";
+
+  // How long to spend in each mode, in seconds.
+  private static final double DISABLED_SECONDS = 2.0;
+  private static final double AUTONOMOUS_SECONDS = 5.0;
+  private static final double TELEOP_SECONDS = 5.0;
+  private static final double TEST_SECONDS = 2.0;
+
+  private TrainingRun() {}
+
+  /** Starts the training run if it was asked for. This returns straight away. */
+  public static void startIfRequested() {
+    if (!Boolean.getBoolean(PROPERTY) || !RobotBase.isSimulation()) {
+      return;
+    }
+
+    Thread thread = new Thread(() -> {
+      try {
+        pause(DISABLED_SECONDS);
+        enable(true, false);
+        pause(AUTONOMOUS_SECONDS);
+        enable(false, false);
+        pause(TELEOP_SECONDS);
+        enable(false, true);
+        pause(TEST_SECONDS);
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+        pause(DISABLED_SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      System.exit(0);
+    }, "Training run");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private static void enable(boolean autonomous, boolean test) {
+    DriverStationSim.setAutonomous(autonomous);
+    DriverStationSim.setTest(test);
+    DriverStationSim.setEnabled(true);
+    DriverStationSim.notifyNewData();
+  }
+
+  private static void pause(double seconds) throws InterruptedException {
+    Thread.sleep((long) (seconds * 1000.0));
+  }
+}
@@ -0,0 +1,111 @@
+package frc.robot.subsystems;
+
+import frc.robot.logging.LogTable;
+import frc.robot.logging.LoggableInputs;
+
+/**
+ * The hardware used by the climber. Positions are in rotor rotations of the
+ * motors. The methods here do nothing by default, which is what is used
+ * when replaying a log.
+ */
+public interface ClimberIO {
+  public static class ClimberIOInputs implements LoggableInputs {
+    public boolean leftConnected;
+    public double leftPositionRotations;
+    public double leftVelocityRPS;
+    public double leftAppliedVolts;
+    public double leftSupplyCurrentAmps;
+    public double leftStatorCurrentAmps;
+
+    public boolean rightConnected;
+    public double rightPositionRotations;
+    public double rightVelocityRPS;
+    public double rightAppliedVolts;
+    public double rightSupplyCurrentAmps;
+    public double rightStatorCurrentAmps;
+
+    @Override
+    public void toLog(LogTable table) {
+      table.put("LeftConnected", leftConnected);
+      table.put("LeftPositionRotations", leftPositionRotations);
+      table.put("LeftVelocityRPS", leftVelocityRPS);
+      table.put("LeftAppliedVolts", leftAppliedVolts);
+      table.put("LeftSupplyCurrentAmps", leftSupplyCurrentAmps);
+      table.put("LeftStatorCurrentAmps", leftStatorCurrentAmps);
+      table.put("RightConnected", rightConnected);
+      table.put("RightPositionRotations", rightPositionRotations);
+      table.put("RightVelocityRPS", rightVelocityRPS);
+      table.put("RightAppliedVolts", rightAppliedVolts);
+      table.put("RightSupplyCurrentAmps", rightSupplyCurrentAmps);
+      table.put("RightStatorCurrentAmps", rightStatorCurrentAmps);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+      leftConnected = table.get("LeftConnected", leftConnected);
+      leftPositionRotations = table.get("LeftPositionRotations", leftPositionRotations);
+      leftVelocityRPS = table.get("LeftVelocityRPS", leftVelocityRPS);
+      leftAppliedVolts = table.get("LeftAppliedVolts", leftAppliedVolts);
+      leftSupplyCurrentAmps = table.get("LeftSupplyCurrentAmps", leftSupplyCurrentAmps);
+      leftStatorCurrentAmps = table.get("LeftStatorCurrentAmps", leftStatorCurrentAmps);
+      rightConnected = table.get("RightConnected", rightConnected);
+      rightPositionRotations = table.get("RightPositionRotations", rightPositionRotations);
+      rightVelocityRPS = table.get("RightVelocityRPS", rightVelocityRPS);
+      rightAppliedVolts = table.get("RightAppliedVolts", rightAppliedVolts);
+      rightSupplyCurrentAmps = table.get("RightSupplyCurrentAmps", rightSupplyCurrentAmps);
+      rightStatorCurrentAmps = table.get("RightStatorCurrentAmps", rightStatorCurrentAmps);
+    }
+  }
+
+  /**
+   * The arm positions and speeds on their own, which are sent faster than
+   * the main loop runs.
+   */
+  public static class ClimberPositionInputs implements LoggableInputs {
+    public double leftPositionRotations;
+    public double leftVelocityRPS;
+    public double rightPositionRotations;
+    public double rightVelocityRPS;
+
+    @Override
+    public void toLog(LogTable table) {
+      table.put("LeftPositionRotations", leftPositionRotations);
+      table.put("LeftVelocityRPS", leftVelocityRPS);
+      table.put("RightPositionRotations", rightPositionRotations);
+      table.put("RightVelocityRPS", rightVelocityRPS);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+      leftPositionRotations = table.get("LeftPositionRotations", leftPositionRotations);
+      leftVelocityRPS = table.get("LeftVelocityRPS", leftVelocityRPS);
+      rightPositionRotations = table.get("RightPositionRotations", rightPositionRotations);
+      rightVelocityRPS = table.get("RightVelocityRPS", rightVelocityRPS);
+    }
+  }
+
+  /** Reads the latest sensor values. */
+  default void updateInputs(ClimberIOInputs inputs) {}
+
+  /**
+   * Reads only the arm positions and speeds. This is used between calls to
+   * updateInputs.
+   */
+  default void updatePositions(ClimberPositionInputs inputs) {}
+
+  /**
+   * Moves both arms to a position using the motor controllers' PID.
+   *
+   * @param slot the PID slot to use
+   */
+  default void setPosition(double positionRotations, int slot) {}
+
+  /** Drives each arm with its own voltage. */
+  default void setVoltages(double leftVolts, double rightVolts) {}
+
+  /** Tells both motors where the arms are now, such as after homing. */
+  default void resetPosition(double positionRotations) {}
+
+  /** Changes the gains in one of the motor controllers' PID slots. */
+  default void configureGains(int slot, double kP, double kD, double kG) {}
+}
@@ -0,0 +1,87 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix6.sim.TalonFXSimState;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+
+/**
+ * The climber in simulation. Each arm is modeled as a geared spool, and the
+ * reported positions are in rotor rotations like on the real robot.
+ */
+public class ClimberIOSim extends ClimberIOTalonFX {
+  static final double SPOOL_GEAR_RATIO = 25.0;
+  static final double SPOOL_MOI = 0.01; // kg*m^2
+
+  // Longer gaps than this, such as while the program starts, are treated
+  // as this long so the arms don't jump.
+  private static final double MAX_STEP_SECONDS = 0.05;
+
+  private final TalonFXSimState leftSimState;
+  private final TalonFXSimState rightSimState;
+  private final DCMotorSim leftArmSim;
+  private final DCMotorSim rightArmSim;
+  private double lastStepTime;
+
+  public ClimberIOSim() {
+    leftSimState = leftArmMotor.getSimState();
+    rightSimState = rightArmMotor.getSimState();
+
+    DCMotor gearbox = DCMotor.getKrakenX60(1);
+    leftArmSim = new DCMotorSim(
+        LinearSystemId.createDCMotorSystem(gearbox, SPOOL_MOI, SPOOL_GEAR_RATIO),
+        gearbox);
+    rightArmSim = new DCMotorSim(
+        LinearSystemId.createDCMotorSystem(gearbox, SPOOL_MOI, SPOOL_GEAR_RATIO),
+        gearbox);
+    lastStepTime = Timer.getFPGATimestamp();
+  }
+
+  @Override
+  public void updateInputs(ClimberIOInputs inputs) {
+    step();
+    super.updateInputs(inputs);
+  }
+
+  @Override
+  public void updatePositions(ClimberPositionInputs inputs) {
+    step();
+    super.updatePositions(inputs);
+  }
+
+  /**
+   * Moves the arms forward to now. The positions are read both every loop
+   * and more often during a synchronized climb, so the time since the last
+   * step changes.
+   */
+  private void step() {
+    double now = Timer.getFPGATimestamp();
+    double seconds = Math.min(now - lastStepTime, MAX_STEP_SECONDS);
+    lastStepTime = now;
+    if (seconds <= 0.0) {
+      return;
+    }
+    updateArm(leftSimState, leftArmSim, seconds);
+    updateArm(rightSimState, rightArmSim, seconds);
+  }
+
+  private static void updateArm(TalonFXSimState simState, DCMotorSim armSim, double seconds) {
+    simState.setSupplyVoltage(RobotController.getBatteryVoltage());
+    armSim.setInputVoltage(simState.getMotorVoltage());
+    armSim.update(seconds);
+
+    // The arms start fully retracted, against the bottom of their travel,
+    // and can't go any lower.
+    if (armSim.getAngularPositionRad() < 0.0) {
+      armSim.setState(0.0, 0.0);
+    }
+
+    // The simulation tracks the spool, but the sensor is on the rotor.
+    simState.setRawRotorPosition(armSim.getAngularPositionRotations() * SPOOL_GEAR_RATIO);
+    simState.setRotorVelocity(
+        armSim.getAngularVelocityRadPerSec() / (2.0 * Math.PI) * SPOOL_GEAR_RATIO);
+  }
+}
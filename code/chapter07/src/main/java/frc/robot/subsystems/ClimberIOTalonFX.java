@@ -0,0 +1,166 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.SlotConfigs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.PositionVoltage;
+import com.ctre.phoenix6.controls.VoltageOut;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.GravityTypeValue;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.units.measure.Voltage;
+import frc.robot.tuning.TunedGains;
+
+/** The climber on a real robot, with one TalonFX on each arm. */
+public class ClimberIOTalonFX implements ClimberIO {
+  // The arm positions are sent faster than the main loop runs so that the
+  // synchronized climb always has fresh measurements of both sides.
+  private static final double POSITION_UPDATE_FREQUENCY = 200.0;
+
+  protected final TalonFX leftArmMotor;
+  protected final TalonFX rightArmMotor;
+
+  private final StatusSignal<Angle> leftPosition;
+  private final StatusSignal<AngularVelocity> leftVelocity;
+  private final StatusSignal<Voltage> leftAppliedVolts;
+  private final StatusSignal<Current> leftSupplyCurrent;
+  private final StatusSignal<Current> leftStatorCurrent;
+  private final StatusSignal<Angle> rightPosition;
+  private final StatusSignal<AngularVelocity> rightVelocity;
+  private final StatusSignal<Voltage> rightAppliedVolts;
+  private final StatusSignal<Current> rightSupplyCurrent;
+  private final StatusSignal<Current> rightStatorCurrent;
+
+  private final PositionVoltage positionRequest = new PositionVoltage(0.0);
+  private final VoltageOut leftVoltageRequest = new VoltageOut(0.0);
+  private final VoltageOut rightVoltageRequest = new VoltageOut(0.0);
+
+  public ClimberIOTalonFX() {
+    leftArmMotor = new TalonFX(9);
+    rightArmMotor = new TalonFX(10);
+
+    // Set the motors to brake mode so that they hold the arms in place.
+    TalonFXConfiguration armConfig = new TalonFXConfiguration();
+    armConfig.MotorOutput.NeutralMode = NeutralModeValue.Brake;
+
+    // We'll just be working with rotor rotations directly.
+    armConfig.Feedback.SensorToMechanismRatio = 1.0;
+
+    // We will use PID slot 0 when the robot is on the ground. These gains
+    // can be found with the auto-tuner in test mode.
+    armConfig.Slot0.kP = TunedGains.get("Climber.Slot0.kP", 0.0);
+    armConfig.Slot0.kD = TunedGains.get("Climber.Slot0.kD", 0.0);
+    armConfig.Slot0.kG = TunedGains.get("Climber.Slot0.kG", 0.0);
+    armConfig.Slot0.GravityType = GravityTypeValue.Elevator_Static;
+
+    // We will use PID slot 1 when the robot is hanging. These gains can be
+    // found with the hanging auto-tuner in test mode, or changed from the
+    // dashboard under "Tuning/Climber".
+    armConfig.Slot1.kP = TunedGains.get("Climber.Slot1.kP", 0.0);
+    armConfig.Slot1.kD = TunedGains.get("Climber.Slot1.kD", 0.0);
+    armConfig.Slot1.kG = TunedGains.get("Climber.Slot1.kG", 0.0);
+    armConfig.Slot1.GravityType = GravityTypeValue.Elevator_Static;
+
+    // Send the configuration to the motor controllers. We will use the
+    // same configuration for both motors since the arms are identical.
+    leftArmMotor.getConfigurator().apply(armConfig);
+    rightArmMotor.getConfigurator().apply(armConfig);
+
+    // Tell the motors their initial position. Here we assume that the
+    // arms start in their lowest, fully retracted position.
+    leftArmMotor.setPosition(0.0);
+    rightArmMotor.setPosition(0.0);
+
+    leftPosition = leftArmMotor.getPosition();
+    leftVelocity = leftArmMotor.getVelocity();
+    leftAppliedVolts = leftArmMotor.getMotorVoltage();
+    leftSupplyCurrent = leftArmMotor.getSupplyCurrent();
+    leftStatorCurrent = leftArmMotor.getStatorCurrent();
+    rightPosition = rightArmMotor.getPosition();
+    rightVelocity = rightArmMotor.getVelocity();
+    rightAppliedVolts = rightArmMotor.getMotorVoltage();
+    rightSupplyCurrent = rightArmMotor.getSupplyCurrent();
+    rightStatorCurrent = rightArmMotor.getStatorCurrent();
+
+    BaseStatusSignal.setUpdateFrequencyForAll(50.0,
+        leftPosition, leftVelocity, leftAppliedVolts, leftSupplyCurrent, leftStatorCurrent,
+        rightPosition, rightVelocity, rightAppliedVolts, rightSupplyCurrent, rightStatorCurrent);
+    BaseStatusSignal.setUpdateFrequencyForAll(POSITION_UPDATE_FREQUENCY,
+        leftPosition, leftVelocity, rightPosition, rightVelocity);
+    leftArmMotor.optimizeBusUtilization();
+    rightArmMotor.optimizeBusUtilization();
+  }
+
+  @Override
+  public void updateInputs(ClimberIOInputs inputs) {
+    inputs.leftConnected = BaseStatusSignal.refreshAll(
+        leftPosition, leftVelocity, leftAppliedVolts, leftSupplyCurrent, leftStatorCurrent).isOK();
+    // Account for how old each position is by using the velocity, so both
+    // sides are compared at the same moment.
+    inputs.leftPositionRotations =
+        BaseStatusSignal.getLatencyCompensatedValueAsDouble(leftPosition, leftVelocity);
+    inputs.leftVelocityRPS = leftVelocity.getValueAsDouble();
+    inputs.leftAppliedVolts = leftAppliedVolts.getValueAsDouble();
+    inputs.leftSupplyCurrentAmps = leftSupplyCurrent.getValueAsDouble();
+    inputs.leftStatorCurrentAmps = leftStatorCurrent.getValueAsDouble();
+
+    inputs.rightConnected = BaseStatusSignal.refreshAll(
+        rightPosition, rightVelocity, rightAppliedVolts, rightSupplyCurrent, rightStatorCurrent).isOK();
+    inputs.rightPositionRotations =
+        BaseStatusSignal.getLatencyCompensatedValueAsDouble(rightPosition, rightVelocity);
+    inputs.rightVelocityRPS = rightVelocity.getValueAsDouble();
+    inputs.rightAppliedVolts = rightAppliedVolts.getValueAsDouble();
+    inputs.rightSupplyCurrentAmps = rightSupplyCurrent.getValueAsDouble();
+    inputs.rightStatorCurrentAmps = rightStatorCurrent.getValueAsDouble();
+  }
+
+  @Override
+  public void updatePositions(ClimberPositionInputs inputs) {
+    BaseStatusSignal.refreshAll(leftPosition, leftVelocity, rightPosition, rightVelocity);
+    inputs.leftPositionRotations =
+        BaseStatusSignal.getLatencyCompensatedValueAsDouble(leftPosition, leftVelocity);
+    inputs.leftVelocityRPS = leftVelocity.getValueAsDouble();
+    inputs.rightPositionRotations =
+        BaseStatusSignal.getLatencyCompensatedValueAsDouble(rightPosition, rightVelocity);
+    inputs.rightVelocityRPS = rightVelocity.getValueAsDouble();
+  }
+
+  @Override
+  public void setPosition(double positionRotations, int slot) {
+    positionRequest.withPosition(positionRotations).withSlot(slot);
+    leftArmMotor.setControl(positionRequest);
+    rightArmMotor.setControl(positionRequest);
+  }
+
+  @Override
+  public void setVoltages(double leftVolts, double rightVolts) {
+    leftArmMotor.setControl(leftVoltageRequest.withOutput(leftVolts));
+    rightArmMotor.setControl(rightVoltageRequest.withOutput(rightVolts));
+  }
+
+  @Override
+  public void resetPosition(double positionRotations) {
+    // Don't wait for the motor controllers to answer, so the main loop
+    // isn't held up.
+    leftArmMotor.setPosition(positionRotations, 0.0);
+    rightArmMotor.setPosition(positionRotations, 0.0);
+  }
+
+  @Override
+  public void configureGains(int slot, double kP, double kD, double kG) {
+    SlotConfigs slotConfig = new SlotConfigs();
+    slotConfig.SlotNumber = slot;
+    slotConfig.kP = kP;
+    slotConfig.kD = kD;
+    slotConfig.kG = kG;
+    slotConfig.GravityType = GravityTypeValue.Elevator_Static;
+
+    leftArmMotor.getConfigurator().apply(slotConfig);
+    rightArmMotor.getConfigurator().apply(slotConfig);
+  }
+}
@@ -0,0 +1,71 @@
+package frc.robot.subsystems;
+
+import frc.robot.simulation.CanFaultChannel;
+
+/**
+ * Sends everything between the climber code and the arm motor controllers
+ * (TalonFX IDs 9 and 10) through a simulated busy CAN bus.
+ */
+public class ClimberIOWithFaults implements ClimberIO {
+  private final ClimberIO io;
+  private final CanFaultChannel<ClimberIOInputs> channel;
+  private final ClimberIOInputs actualInputs;
+  private ClimberIOInputs receivedInputs;
+
+  public ClimberIOWithFaults(ClimberIO io) {
+    this.io = io;
+    channel = new CanFaultChannel<>("Climber", ClimberIOInputs::new);
+    actualInputs = new ClimberIOInputs();
+  }
+
+  public CanFaultChannel<ClimberIOInputs> getChannel() {
+    return channel;
+  }
+
+  /** Gets what the arms are really doing, without any delay. */
+  public ClimberIOInputs getActualInputs() {
+    return actualInputs;
+  }
+
+  @Override
+  public void updateInputs(ClimberIOInputs inputs) {
+    channel.deliverRequests();
+    io.updateInputs(actualInputs);
+    channel.receiveReadings(actualInputs, inputs);
+    receivedInputs = inputs;
+  }
+
+  @Override
+  public void updatePositions(ClimberPositionInputs inputs) {
+    // Readings only come through the pretend bus once per main loop, so
+    // the positions are the last ones that got through. Requests that have
+    // waited long enough are delivered straight away.
+    channel.deliverRequests();
+    if (receivedInputs != null) {
+      inputs.leftPositionRotations = receivedInputs.leftPositionRotations;
+      inputs.leftVelocityRPS = receivedInputs.leftVelocityRPS;
+      inputs.rightPositionRotations = receivedInputs.rightPositionRotations;
+      inputs.rightVelocityRPS = receivedInputs.rightVelocityRPS;
+    }
+  }
+
+  @Override
+  public void setPosition(double positionRotations, int slot) {
+    channel.send(() -> io.setPosition(positionRotations, slot));
+  }
+
+  @Override
+  public void setVoltages(double leftVolts, double rightVolts) {
+    channel.send(() -> io.setVoltages(leftVolts, rightVolts));
+  }
+
+  @Override
+  public void resetPosition(double positionRotations) {
+    channel.send(() -> io.resetPosition(positionRotations));
+  }
+
+  @Override
+  public void configureGains(int slot, double kP, double kD, double kG) {
+    channel.send(() -> io.configureGains(slot, kP, kD, kG));
+  }
+}
@@ -1,13 +1,25 @@
 package frc.robot.subsystems;
 
-import com.ctre.phoenix6.configs.TalonFXConfiguration;
-import com.ctre.phoenix6.controls.PositionVoltage;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.signals.GravityTypeValue;
-import com.ctre.phoenix6.signals.NeutralModeValue;
+import java.util.function.DoubleSupplier;
 
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.math.filter.Debouncer.DebounceType;
+import edu.wpi.first.math.filter.SlewRateLimiter;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.diagnostics.AllocationProfiler;
+import frc.robot.diagnostics.MotorCheck;
+import frc.robot.diagnostics.SelfTestReport;
+import frc.robot.logging.InputLogger;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.TelemetryTable;
+import frc.robot.tuning.AutoTuneCommand;
+import frc.robot.tuning.TunedGains;
+import frc.robot.tuning.Tunables;
 
 public class ClimberSubsystem extends SubsystemBase {
     // Positions are in rotor rotations of the motors.
@@ -15,67 +27,495 @@ public class ClimberSubsystem extends SubsystemBase {
     private static final double EXTEND_POSITION = 50.0;
     private static final double PULL_POSITION = 20.0;
 
-    private final TalonFX leftArmMotor;
-    private final TalonFX rightArmMotor;
+    // Limits for how fast the arms move during a synchronized climb, in
+    // rotor rotations per second (and per second squared).
+    private static final double SYNC_MAX_VELOCITY = 80.0;
+    private static final double SYNC_MAX_ACCELERATION = 400.0;
 
-    public ClimberSubsystem() {
-        leftArmMotor = new TalonFX(9);
-        rightArmMotor = new TalonFX(10);
-    
-        // Set the motors to brake mode so that they hold the arms in place.
-        TalonFXConfiguration armConfig = new TalonFXConfiguration();
-        armConfig.MotorOutput.NeutralMode = NeutralModeValue.Brake;
+    /**
+     * How often {@link #fastPeriodic()} runs the synchronized climb, in
+     * seconds. This is faster than the main loop so that one arm can't get
+     * far ahead of the other before it's corrected.
+     */
+    public static final double SYNC_PERIOD = 0.005;
 
-        // We'll just be working with rotor rotations directly.
-        armConfig.Feedback.SensorToMechanismRatio = 1.0;
+    // The arms are considered loaded once the average motor current goes
+    // above the first number, and unloaded once it drops below the second.
+    // Using two numbers keeps it from flickering back and forth.
+    private static final double LOADED_CURRENT_AMPS = 30.0;
+    private static final double UNLOADED_CURRENT_AMPS = 15.0;
 
-        // We will use PID slot 0 when the robot is on the ground.
-        armConfig.Slot0.kP = 0.0; // Should be tuned to the physical robot
-        armConfig.Slot0.kD = 0.0; // Should be tuned to the physical robot
-        armConfig.Slot0.kG = 0.0; // Should be tuned to the physical robot
-        armConfig.Slot0.GravityType = GravityTypeValue.Elevator_Static;
+    // The robot's weight also shows up as the arms being dragged above
+    // where we're trying to hold them.
+    private static final double LOADED_POSITION_ERROR = 3.0;
 
-        // We will use PID slot 1 when the robot is hanging.
-        armConfig.Slot1.kP = 0.0; // Should be tuned to the physical robot
-        armConfig.Slot1.kD = 0.0; // Should be tuned to the physical robot
-        armConfig.Slot1.kG = 0.0; // Should be tuned to the physical robot
-        armConfig.Slot1.GravityType = GravityTypeValue.Elevator_Static;
+    // Retract and extend send the final position straight to the motor
+    // controllers, so the arms are far from it for most of a move. The
+    // position error only counts for those once the arms have stopped
+    // moving down towards it.
+    private static final double SETTLED_VELOCITY_RPS = 2.0;
 
-        // Send the configuration to the motor controllers. We will use the
-        // same configuration for both motors since the arms are identical.
-        leftArmMotor.getConfigurator().apply(armConfig);
-        rightArmMotor.getConfigurator().apply(armConfig);
+    private static final double LOAD_DEBOUNCE_SECONDS = 0.06;
 
-        // Tell the motors their initial position. Here we assume that the
-        // arms start in their lowest, fully retracted position.
-        leftArmMotor.setPosition(0.0);
-        rightArmMotor.setPosition(0.0);
+    // How long it takes to fade from one set of gains to the other.
+    private static final double GAIN_BLEND_SECONDS = 0.2;
+
+    private static final double MAX_VOLTAGE = 12.0;
+
+    // The self-test raises the arms a short way and then lets the default
+    // command bring them back down.
+    private static final double SELF_TEST_VOLTAGE = 2.0;
+    private static final double SELF_TEST_MAX_POSITION = 5.0;
+    private static final double SELF_TEST_SECONDS = 1.0;
+    private static final double SELF_TEST_MIN_SPEED_RPS = 0.5;
+    private static final double SELF_TEST_MAX_CURRENT_AMPS = 20.0;
+
+    // Homing lowers the arms gently into the bottom of their travel. An arm
+    // is there once its motor pulls a lot of current without turning.
+    private static final double HOMING_VOLTAGE = -1.0;
+    private static final double HOMING_STALL_CURRENT_AMPS = 20.0;
+    private static final double HOMING_STALL_VELOCITY_RPS = 1.0;
+    private static final double HOMING_DEBOUNCE_SECONDS = 0.1;
+    private static final double HOMING_TIMEOUT_SECONDS = 0.8;
+
+    // Settings for the auto-tuner, which only moves the arms on their own.
+    // The hanging tune pulls the robot up a little way and lets it back
+    // down, which takes more voltage.
+    private static final double TUNE_STEP_VOLTAGE = 2.0;
+    private static final double TUNE_SETTLE_SECONDS = 0.5;
+    private static final double TUNE_HANGING_STEP_VOLTAGE = -4.0;
+
+    private final ClimberIO io;
+    private final ClimberIO.ClimberIOInputs inputs;
+
+    // During a synchronized climb, one controller moves the average height
+    // of the two arms, and the other keeps the arms level with each other.
+    private final TrapezoidProfile syncProfile;
+    private final PIDController averageController;
+    private final PIDController differenceController;
+    private TrapezoidProfile.State syncSetpoint;
+    private final TrapezoidProfile.State syncGoal;
+    private boolean syncRunning;
+    private double syncGroundKP;
+    private double syncGroundKD;
+    private double syncGroundKG;
+    private final ClimberIO.ClimberPositionInputs positionInputs;
+
+    // The gains that keep the arms level with each other during a
+    // synchronized climb. They can be changed from the dashboard under
+    // "Tuning/Climber", and are saved for the next time the robot starts.
+    private double levelKP;
+    private double levelKD;
+
+    // The gains for when the arms are carrying the robot, the same as PID
+    // slot 1. They can be changed from the dashboard under "Tuning/Climber",
+    // which happens on a background thread, and are saved for the next time
+    // the robot starts. Until they're tuned, the ground
+    // gains are kept even when the arms are loaded.
+    private volatile double hangingKP;
+    private volatile double hangingKD;
+    private volatile double hangingKG;
+
+    // Can be changed from the dashboard under "Tuning/Climber".
+    private double retractPosition = RETRACT_POSITION;
+    private double extendPosition = EXTEND_POSITION;
+    private double pullPosition = PULL_POSITION;
+
+    private final Debouncer loadDebouncer;
+    private final SlewRateLimiter loadBlendLimiter;
+    private boolean loaded;
+    private double loadBlend;
+
+    // Where the current command is trying to put the arms, or NaN if no
+    // command is moving them. A profiled target moves along with the arms,
+    // instead of jumping straight to the end of the move.
+    private double positionTarget = Double.NaN;
+    private boolean positionTargetProfiled;
+
+    private final HardStopDetector leftStop;
+    private final HardStopDetector rightStop;
+    private boolean homed;
+
+    public ClimberSubsystem(ClimberIO io) {
+        this.io = io;
+        inputs = new ClimberIO.ClimberIOInputs();
+
+        syncProfile = new TrapezoidProfile(
+                new TrapezoidProfile.Constraints(SYNC_MAX_VELOCITY, SYNC_MAX_ACCELERATION));
+        syncSetpoint = new TrapezoidProfile.State();
+        syncGoal = new TrapezoidProfile.State();
+        syncGroundKP = TunedGains.get("Climber.Slot0.kP", 0.0);
+        syncGroundKD = TunedGains.get("Climber.Slot0.kD", 0.0);
+        syncGroundKG = TunedGains.get("Climber.Slot0.kG", 0.0);
+        hangingKP = TunedGains.get("Climber.Slot1.kP", 0.0);
+        hangingKD = TunedGains.get("Climber.Slot1.kD", 0.0);
+        hangingKG = TunedGains.get("Climber.Slot1.kG", 0.0);
+
+        // Until the levelling gains are tuned, the arms are kept level with
+        // the same gains that move them.
+        levelKP = TunedGains.get("Climber.Level.kP", syncGroundKP);
+        levelKD = TunedGains.get("Climber.Level.kD", syncGroundKD);
+
+        // The average controller's gains are blended between the ground and
+        // hanging gains on every step of the climb.
+        averageController = new PIDController(syncGroundKP, 0.0, syncGroundKD, SYNC_PERIOD);
+        differenceController = new PIDController(levelKP, 0.0, levelKD, SYNC_PERIOD);
+        positionInputs = new ClimberIO.ClimberPositionInputs();
+
+        loadDebouncer = new Debouncer(LOAD_DEBOUNCE_SECONDS, DebounceType.kBoth);
+        loadBlendLimiter = new SlewRateLimiter(1.0 / GAIN_BLEND_SECONDS);
+
+        leftStop = new HardStopDetector(
+                HOMING_STALL_CURRENT_AMPS, HOMING_STALL_VELOCITY_RPS, HOMING_DEBOUNCE_SECONDS);
+        rightStop = new HardStopDetector(
+                HOMING_STALL_CURRENT_AMPS, HOMING_STALL_VELOCITY_RPS, HOMING_DEBOUNCE_SECONDS);
+
+        // Show the arm positions on the dashboard so we can see if one
+        // side is falling behind the other.
+        TelemetryTable telemetry = Telemetry.getTable("Climber");
+        telemetry.addDouble("LeftPosition", 0.05, () -> inputs.leftPositionRotations);
+        telemetry.addDouble("RightPosition", 0.05, () -> inputs.rightPositionRotations);
+        telemetry.addDouble("LeftSupplyCurrent", () -> inputs.leftSupplyCurrentAmps);
+        telemetry.addDouble("RightSupplyCurrent", () -> inputs.rightSupplyCurrentAmps);
+        telemetry.addDouble("LevelError", 0.02, this::getLevelError);
+        telemetry.addDouble("SyncSetpoint", 0.02, () -> syncSetpoint.position);
+        telemetry.addBoolean("Loaded", 0.02, () -> loaded);
+        telemetry.addDouble("LoadBlend", 0.02, () -> loadBlend);
+        telemetry.addBoolean("Homed", () -> homed);
+
+        Tunables.addDouble("Climber/RetractPosition", RETRACT_POSITION, value -> retractPosition = value);
+        Tunables.addDouble("Climber/ExtendPosition", EXTEND_POSITION, value -> extendPosition = value);
+        Tunables.addDouble("Climber/PullPosition", PULL_POSITION, value -> pullPosition = value);
+        Tunables.addDouble("Climber/LevelKP", levelKP, value -> {
+            levelKP = value;
+            differenceController.setP(value);
+            TunedGains.set("Climber.Level.kP", value);
+        });
+        Tunables.addDouble("Climber/LevelKD", levelKD, value -> {
+            levelKD = value;
+            differenceController.setD(value);
+            TunedGains.set("Climber.Level.kD", value);
+        });
+        Tunables.addConfig("Climber/HangingKP", hangingKP, value -> {
+            hangingKP = value;
+            io.configureGains(1, hangingKP, hangingKD, hangingKG);
+            TunedGains.set("Climber.Slot1.kP", value);
+        });
+        Tunables.addConfig("Climber/HangingKD", hangingKD, value -> {
+            hangingKD = value;
+            io.configureGains(1, hangingKP, hangingKD, hangingKG);
+            TunedGains.set("Climber.Slot1.kD", value);
+        });
+        Tunables.addConfig("Climber/HangingKG", hangingKG, value -> {
+            hangingKG = value;
+            io.configureGains(1, hangingKP, hangingKD, hangingKG);
+            TunedGains.set("Climber.Slot1.kG", value);
+        });
+    }
+
+    @Override
+    public void periodic() {
+        AllocationProfiler.mark("Climber");
+
+        // Read the sensors once per loop, and save them to the log.
+        io.updateInputs(inputs);
+        InputLogger.processInputs("Climber", inputs);
+
+        updateLoadState();
+    }
+
+    /** Gets whether the arms are carrying the weight of the robot. */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /** Gets the total current drawn from the battery by both arm motors. */
+    public double getSupplyCurrentAmps() {
+        return inputs.leftSupplyCurrentAmps + inputs.rightSupplyCurrentAmps;
     }
 
     public Command retract() {
         return this.run(() -> {
-            // Tell both motors to go to the retracted position.
-            // Using PID slot 0 since the robot is not actively climbing.
-            leftArmMotor.setControl(new PositionVoltage(RETRACT_POSITION).withSlot(0));
-            rightArmMotor.setControl(new PositionVoltage(RETRACT_POSITION).withSlot(0));
-        });
+            // Tell both motors to go to the retracted position. The PID
+            // slot is picked based on whether the arms are loaded.
+            positionTarget = retractPosition;
+            positionTargetProfiled = false;
+            io.setPosition(retractPosition, getSlot());
+        }).withName("Retract");
     }
 
     public Command extend() {
         return this.run(() -> {
-            // Tell both motors to go to the extended position.
-            // Using PID slot 0 since the arms are not actively lifting the robot.
-            leftArmMotor.setControl(new PositionVoltage(EXTEND_POSITION).withSlot(0));
-            rightArmMotor.setControl(new PositionVoltage(EXTEND_POSITION).withSlot(0));
-        });
+            // Tell both motors to go to the extended position. The PID
+            // slot is picked based on whether the arms are loaded.
+            positionTarget = extendPosition;
+            positionTargetProfiled = false;
+            io.setPosition(extendPosition, getSlot());
+        }).withName("Extend");
+    }
+
+    /** Gets whether the arm positions have been found by {@link #home()}. */
+    public boolean isHomed() {
+        return homed;
+    }
+
+    /**
+     * Lowers both arms gently until they stop at the bottom of their
+     * travel, then tells the motors that this is position zero. Until this
+     * has run, the arms are assumed to have started fully retracted. This
+     * does nothing once the arms have been homed.
+     */
+    public Command home() {
+        return this.startRun(
+                () -> {
+                    leftStop.reset();
+                    rightStop.reset();
+                },
+                () -> {
+                    // Each arm stops pushing once it's found the bottom.
+                    boolean leftDone = leftStop.update(
+                            inputs.leftStatorCurrentAmps, inputs.leftVelocityRPS);
+                    boolean rightDone = rightStop.update(
+                            inputs.rightStatorCurrentAmps, inputs.rightVelocityRPS);
+                    io.setVoltages(leftDone ? 0.0 : HOMING_VOLTAGE, rightDone ? 0.0 : HOMING_VOLTAGE);
+                })
+                .until(() -> leftStop.isStopped() && rightStop.isStopped())
+                .withTimeout(HOMING_TIMEOUT_SECONDS)
+                .finallyDo(interrupted -> {
+                    io.setVoltages(0.0, 0.0);
+                    if (leftStop.isStopped() && rightStop.isStopped()) {
+                        io.resetPosition(0.0);
+                        homed = true;
+                    } else if (!interrupted) {
+                        DriverStation.reportWarning(
+                                "Climber didn't find the bottom, so its starting position is used", false);
+                    }
+                })
+                .unless(() -> homed)
+                .withName("Home");
     }
 
     public Command pull() {
-        return this.run(() -> {
-            // Tell both motors to go to the pull position.
-            // Using PID slot 1 since the robot is actively lifting itself up.
-            leftArmMotor.setControl(new PositionVoltage(PULL_POSITION).withSlot(1));
-            rightArmMotor.setControl(new PositionVoltage(PULL_POSITION).withSlot(1));
-        });
+        // Pull the robot up with both arms moving together, so that the
+        // robot stays level even if one side is carrying more weight.
+        return climbSynchronized(() -> pullPosition).withName("Pull");
+    }
+
+    /**
+     * Finds the PID gains for moving the arms on their own by driving them
+     * up and back down, then saves them for the next time the robot starts.
+     * This should only be run in test mode, with the robot on the ground.
+     */
+    public Command autoTune() {
+        return new AutoTuneCommand(
+                "Climber",
+                tunedArms(0),
+                TUNE_STEP_VOLTAGE,
+                RETRACT_POSITION,
+                EXTEND_POSITION,
+                TUNE_SETTLE_SECONDS,
+                this);
+    }
+
+    /**
+     * Finds the PID gains for lifting the robot (PID slot 1) by pulling it
+     * up a little way and letting it back down, then saves them for the
+     * next time the robot starts. Until this has been run, the climber
+     * keeps using the ground gains when it's loaded. This should only be
+     * run in test mode, with the hooks on the bar and the robot just off
+     * the ground.
+     */
+    public Command autoTuneHanging() {
+        return new AutoTuneCommand(
+                "Climber hanging",
+                tunedArms(1),
+                TUNE_HANGING_STEP_VOLTAGE,
+                RETRACT_POSITION,
+                EXTEND_POSITION,
+                TUNE_SETTLE_SECONDS,
+                this);
+    }
+
+    // Drives both arms together for the auto-tuner, and saves the gains
+    // it finds to a PID slot.
+    private AutoTuneCommand.Mechanism tunedArms(int slot) {
+        return new AutoTuneCommand.Mechanism() {
+            @Override
+            public void setVoltage(double volts) {
+                io.setVoltages(volts, volts);
+            }
+
+            @Override
+            public double getPosition() {
+                return getAveragePosition();
+            }
+
+            @Override
+            public double getVelocity() {
+                return (inputs.leftVelocityRPS + inputs.rightVelocityRPS) / 2.0;
+            }
+
+            @Override
+            public void applyGains(double kP, double kD, double kV, double kG) {
+                io.configureGains(slot, kP, kD, kG);
+                if (slot == 0) {
+                    syncGroundKP = kP;
+                    syncGroundKD = kD;
+                    syncGroundKG = kG;
+                } else {
+                    hangingKP = kP;
+                    hangingKD = kD;
+                    hangingKG = kG;
+                    Tunables.set("Climber/HangingKP", kP);
+                    Tunables.set("Climber/HangingKD", kD);
+                    Tunables.set("Climber/HangingKG", kG);
+                }
+
+                TunedGains.set("Climber.Slot" + slot + ".kP", kP);
+                TunedGains.set("Climber.Slot" + slot + ".kD", kD);
+                TunedGains.set("Climber.Slot" + slot + ".kG", kG);
+            }
+        };
+    }
+
+    /** Gets how far the left arm is ahead of the right arm. */
+    public double getLevelError() {
+        return inputs.leftPositionRotations - inputs.rightPositionRotations;
+    }
+
+    private Command climbSynchronized(DoubleSupplier position) {
+        return this.runEnd(
+                () -> {
+                    // The arms are driven by fastPeriodic(). Here we only
+                    // tell the load detection where they should be.
+                    positionTarget = syncSetpoint.position;
+                    positionTargetProfiled = true;
+                },
+                () -> syncRunning = false)
+                .beforeStarting(() -> {
+                    // The goal is read when the command starts so that it
+                    // doesn't move partway through a climb.
+                    syncGoal.position = position.getAsDouble();
+
+                    // Start the motion from wherever the arms are now.
+                    syncSetpoint = new TrapezoidProfile.State(
+                            getAveragePosition(),
+                            (inputs.leftVelocityRPS + inputs.rightVelocityRPS) / 2.0);
+                    averageController.reset();
+                    differenceController.reset();
+                    syncRunning = true;
+                });
+    }
+
+    /**
+     * Runs the synchronized climb with fresh arm positions. This runs every
+     * {@link #SYNC_PERIOD} seconds, four times as often as
+     * {@link #periodic()}, so that both arms are corrected quickly. Each
+     * reading is saved to the log so the climb can be replayed.
+     */
+    public void fastPeriodic() {
+        if (!syncRunning) {
+            return;
+        }
+        io.updatePositions(positionInputs);
+        InputLogger.processFastInputs("ClimberPositions", positionInputs);
+        double averagePosition =
+                (positionInputs.leftPositionRotations + positionInputs.rightPositionRotations) / 2.0;
+        double levelError = positionInputs.leftPositionRotations - positionInputs.rightPositionRotations;
+
+        // Move the setpoint along a smooth path towards the goal.
+        syncSetpoint = syncProfile.calculate(SYNC_PERIOD, syncSetpoint, syncGoal);
+
+        // Fade between the ground and hanging gains as the hooks take up
+        // the robot's weight.
+        averageController.setPID(
+                MathUtil.interpolate(syncGroundKP, hangingKP, loadBlend),
+                0.0,
+                MathUtil.interpolate(syncGroundKD, hangingKD, loadBlend));
+        double gravityVolts = MathUtil.interpolate(syncGroundKG, hangingKG, loadBlend);
+
+        double averageVolts = averageController.calculate(
+                averagePosition, syncSetpoint.position) + gravityVolts;
+        double differenceVolts = differenceController.calculate(levelError, 0.0);
+
+        // Keeping the arms level matters more than climbing quickly, so
+        // leave enough voltage for the correction.
+        differenceVolts = MathUtil.clamp(differenceVolts, -MAX_VOLTAGE, MAX_VOLTAGE);
+        double averageLimit = MAX_VOLTAGE - Math.abs(differenceVolts);
+        averageVolts = MathUtil.clamp(averageVolts, -averageLimit, averageLimit);
+
+        io.setVoltages(averageVolts + differenceVolts, averageVolts - differenceVolts);
+    }
+
+    private int getSlot() {
+        // PID slot 0 has the gains for moving the arms on their own, and
+        // slot 1 has the gains for lifting the robot.
+        return loaded && hasHangingGains() ? 1 : 0;
+    }
+
+    // All zero means the hanging gains haven't been tuned yet, and
+    // switching to them would leave the arms with no control at all.
+    private boolean hasHangingGains() {
+        return hangingKP != 0.0 || hangingKD != 0.0 || hangingKG != 0.0;
+    }
+
+    private void updateLoadState() {
+        double current = (Math.abs(inputs.leftStatorCurrentAmps)
+                + Math.abs(inputs.rightStatorCurrentAmps)) / 2.0;
+        boolean heavy = loaded
+                ? current > UNLOADED_CURRENT_AMPS
+                : current > LOADED_CURRENT_AMPS;
+
+        double averageVelocity = (inputs.leftVelocityRPS + inputs.rightVelocityRPS) / 2.0;
+        boolean heldBack = positionTargetProfiled || averageVelocity > -SETTLED_VELOCITY_RPS;
+        if (!Double.isNaN(positionTarget)
+                && heldBack
+                && getAveragePosition() - positionTarget > LOADED_POSITION_ERROR) {
+            heavy = true;
+        }
+
+        loaded = loadDebouncer.calculate(heavy);
+        loadBlend = loadBlendLimiter.calculate(loaded && hasHangingGains() ? 1.0 : 0.0);
+
+        // Commands set a new target every loop while they run.
+        positionTarget = Double.NaN;
+    }
+
+    /** Gets the average position of the two arms. */
+    public double getAveragePosition() {
+        return (inputs.leftPositionRotations + inputs.rightPositionRotations) / 2.0;
+    }
+
+    /**
+     * Raises both arms a short way and checks that both motors respond, move
+     * upwards and draw a sensible current.
+     */
+    public Command selfTest(SelfTestReport report) {
+        MotorCheck leftCheck = new MotorCheck(
+                "Climber/Left", SELF_TEST_MIN_SPEED_RPS, SELF_TEST_MAX_CURRENT_AMPS);
+        MotorCheck rightCheck = new MotorCheck(
+                "Climber/Right", SELF_TEST_MIN_SPEED_RPS, SELF_TEST_MAX_CURRENT_AMPS);
+
+        return this.startRun(
+                () -> {
+                    leftCheck.reset();
+                    rightCheck.reset();
+                },
+                () -> {
+                    // Stop each arm once it's gone far enough.
+                    io.setVoltages(
+                            inputs.leftPositionRotations < SELF_TEST_MAX_POSITION ? SELF_TEST_VOLTAGE : 0.0,
+                            inputs.rightPositionRotations < SELF_TEST_MAX_POSITION ? SELF_TEST_VOLTAGE : 0.0);
+                    leftCheck.sample(inputs.leftConnected, inputs.leftVelocityRPS,
+                            inputs.leftSupplyCurrentAmps);
+                    rightCheck.sample(inputs.rightConnected, inputs.rightVelocityRPS,
+                            inputs.rightSupplyCurrentAmps);
+                })
+                .withTimeout(SELF_TEST_SECONDS)
+                .finallyDo(() -> {
+                    io.setVoltages(0.0, 0.0);
+                    leftCheck.report(report, 1.0);
+                    rightCheck.report(report, 1.0);
+                });
     }
 }
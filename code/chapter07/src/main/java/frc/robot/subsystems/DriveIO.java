@@ -0,0 +1,71 @@
+package frc.robot.subsystems;
+
+import frc.robot.logging.LogTable;
+import frc.robot.logging.LoggableInputs;
+
+/**
+ * The hardware used by the drive base. Outputs are percentages between -1
+ * and 1, the same as the motor controllers use. Wheel positions and speeds
+ * are positive when driving forwards on both sides. The methods here do
+ * nothing by default, which is what is used when replaying a log.
+ */
+public interface DriveIO {
+  public static class DriveIOInputs implements LoggableInputs {
+    public boolean connected;
+    public double leftOutput;
+    public double rightOutput;
+    public double leftSupplyCurrentAmps;
+    public double rightSupplyCurrentAmps;
+    public double busVoltage;
+
+    public boolean hasEncoders;
+    public double leftPositionMeters;
+    public double rightPositionMeters;
+    public double leftVelocityMetersPerSec;
+    public double rightVelocityMetersPerSec;
+
+    // Measured by the accelerometer inside the RoboRIO.
+    public double forwardAccelMetersPerSecSq;
+
+    @Override
+    public void toLog(LogTable table) {
+      table.put("Connected", connected);
+      table.put("LeftOutput", leftOutput);
+      table.put("RightOutput", rightOutput);
+      table.put("LeftSupplyCurrentAmps", leftSupplyCurrentAmps);
+      table.put("RightSupplyCurrentAmps", rightSupplyCurrentAmps);
+      table.put("BusVoltage", busVoltage);
+      table.put("HasEncoders", hasEncoders);
+      table.put("LeftPositionMeters", leftPositionMeters);
+      table.put("RightPositionMeters", rightPositionMeters);
+      table.put("LeftVelocityMetersPerSec", leftVelocityMetersPerSec);
+      table.put("RightVelocityMetersPerSec", rightVelocityMetersPerSec);
+      table.put("ForwardAccelMetersPerSecSq", forwardAccelMetersPerSecSq);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+      connected = table.get("Connected", connected);
+      leftOutput = table.get("LeftOutput", leftOutput);
+      rightOutput = table.get("RightOutput", rightOutput);
+      leftSupplyCurrentAmps = table.get("LeftSupplyCurrentAmps", leftSupplyCurrentAmps);
+      rightSupplyCurrentAmps = table.get("RightSupplyCurrentAmps", rightSupplyCurrentAmps);
+      busVoltage = table.get("BusVoltage", busVoltage);
+      hasEncoders = table.get("HasEncoders", hasEncoders);
+      leftPositionMeters = table.get("LeftPositionMeters", leftPositionMeters);
+      rightPositionMeters = table.get("RightPositionMeters", rightPositionMeters);
+      leftVelocityMetersPerSec = table.get("LeftVelocityMetersPerSec", leftVelocityMetersPerSec);
+      rightVelocityMetersPerSec = table.get("RightVelocityMetersPerSec", rightVelocityMetersPerSec);
+      forwardAccelMetersPerSecSq = table.get("ForwardAccelMetersPerSecSq", forwardAccelMetersPerSecSq);
+    }
+  }
+
+  /** Reads the latest sensor values. */
+  default void updateInputs(DriveIOInputs inputs) {}
+
+  /**
+   * Sets the output of each side of the drive base. Like the motor
+   * controllers, a positive right output drives the right wheels backwards.
+   */
+  default void setOutput(double leftOutput, double rightOutput) {}
+}
@@ -0,0 +1,113 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.DifferentialDrivetrainSim;
+import edu.wpi.first.wpilibj.simulation.DifferentialDrivetrainSim.KitbotGearing;
+import edu.wpi.first.wpilibj.simulation.DifferentialDrivetrainSim.KitbotWheelSize;
+
+/**
+ * The drive base in simulation, modeled as the kit of parts drive base with
+ * two CIM motors on each side. The wheels slip if they're pushed harder than
+ * the carpet can grip them.
+ */
+public class DriveIOSim implements DriveIO {
+  private static final double LOOP_PERIOD = 0.02;
+
+  // A finished robot with its battery and bumpers, which is much heavier
+  // than the bare kit of parts chassis.
+  private static final double ROBOT_MASS_KG = 45.0;
+  private static final double MOMENT_OF_INERTIA = 2.0; // kg m^2, a rough guess
+  private static final double TRACK_WIDTH = 0.66; // meters
+
+  // The carpet can accelerate the robot this hard before the wheels break
+  // loose. Once they're spinning, it pushes less hard until the robot
+  // catches up with the wheels.
+  private static final double GRIP_ACCEL = 0.9 * 9.81;
+  private static final double SLIDING_ACCEL = 0.7 * 9.81;
+
+  private final DifferentialDrivetrainSim driveSim;
+
+  private double leftOutput;
+  private double rightOutput;
+  private double lastWheelVelocity;
+  private double chassisVelocity;
+  private boolean slipping;
+
+  public DriveIOSim() {
+    driveSim = new DifferentialDrivetrainSim(
+        DCMotor.getCIM(2),
+        KitbotGearing.k10p71.value,
+        MOMENT_OF_INERTIA,
+        ROBOT_MASS_KG,
+        KitbotWheelSize.kSixInch.value / 2.0,
+        TRACK_WIDTH,
+        null);
+  }
+
+  @Override
+  public void updateInputs(DriveIOInputs inputs) {
+    double batteryVoltage = RobotController.getBatteryVoltage();
+
+    // The simulation expects positive voltages on both sides to drive
+    // forwards, but the right motors are wired the other way around.
+    driveSim.setInputs(leftOutput * batteryVoltage, -rightOutput * batteryVoltage);
+    driveSim.update(LOOP_PERIOD);
+
+    inputs.connected = true;
+    inputs.leftOutput = leftOutput;
+    inputs.rightOutput = rightOutput;
+    inputs.leftSupplyCurrentAmps = driveSim.getLeftCurrentDrawAmps();
+    inputs.rightSupplyCurrentAmps = driveSim.getRightCurrentDrawAmps();
+    inputs.busVoltage = batteryVoltage;
+
+    inputs.hasEncoders = true;
+    inputs.leftPositionMeters = driveSim.getLeftPositionMeters();
+    inputs.rightPositionMeters = driveSim.getRightPositionMeters();
+    inputs.leftVelocityMetersPerSec = driveSim.getLeftVelocityMetersPerSecond();
+    inputs.rightVelocityMetersPerSec = driveSim.getRightVelocityMetersPerSecond();
+
+    // The drivetrain simulation always moves the robot with its wheels, so
+    // work out separately how fast the robot is really moving. This treats
+    // the wheels as if they were still carrying the robot while they slip,
+    // which is close enough to tell when the drive pushes too hard.
+    double wheelVelocity = (inputs.leftVelocityMetersPerSec + inputs.rightVelocityMetersPerSec) / 2.0;
+    double wheelAccel = (wheelVelocity - lastWheelVelocity) / LOOP_PERIOD;
+    lastWheelVelocity = wheelVelocity;
+    if (Math.abs(wheelAccel) > GRIP_ACCEL) {
+      slipping = true;
+    }
+
+    double lastChassisVelocity = chassisVelocity;
+    double maxChange = SLIDING_ACCEL * LOOP_PERIOD;
+    if (slipping && Math.abs(wheelVelocity - chassisVelocity) > maxChange) {
+      chassisVelocity += Math.copySign(maxChange, wheelVelocity - chassisVelocity);
+    } else {
+      // The robot has caught up with the wheels, so they grip again.
+      slipping = false;
+      chassisVelocity = wheelVelocity;
+    }
+    inputs.forwardAccelMetersPerSecSq = (chassisVelocity - lastChassisVelocity) / LOOP_PERIOD;
+  }
+
+  /** Gets how fast the robot is really moving forwards, even if the wheels slip. */
+  double getChassisVelocity() {
+    return chassisVelocity;
+  }
+
+  /** Gets how fast the wheels are turning, as a ground speed. */
+  double getWheelVelocity() {
+    return lastWheelVelocity;
+  }
+
+  /** Gets whether the wheels are spinning faster or slower than the robot is moving. */
+  boolean isSlipping() {
+    return slipping;
+  }
+
+  @Override
+  public void setOutput(double leftOutput, double rightOutput) {
+    this.leftOutput = leftOutput;
+    this.rightOutput = rightOutput;
+  }
+}
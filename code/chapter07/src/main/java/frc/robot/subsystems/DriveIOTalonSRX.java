@@ -0,0 +1,98 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.FeedbackDevice;
+import com.ctre.phoenix.motorcontrol.NeutralMode;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.BuiltInAccelerometer;
+
+/** The drive base on a real robot, with two TalonSRX on each side. */
+public class DriveIOTalonSRX implements DriveIO {
+  // The kit of parts drive base doesn't come with encoders. Set this to
+  // true once a CTRE Mag Encoder is plugged into each side's first motor
+  // controller.
+  private static final boolean HAS_ENCODERS = false;
+
+  private static final double ENCODER_TICKS_PER_ROTATION = 4096.0;
+  private static final double WHEEL_CIRCUMFERENCE = Math.PI * Units.inchesToMeters(6.0);
+
+  // Which way the RoboRIO is mounted. Use -1 if its X axis points towards
+  // the back of the robot.
+  private static final double ACCELEROMETER_FORWARD_SIGN = 1.0;
+
+  private final TalonSRX leftMotor1;
+  private final TalonSRX leftMotor2;
+  private final TalonSRX rightMotor1;
+  private final TalonSRX rightMotor2;
+  private final BuiltInAccelerometer accelerometer;
+
+  public DriveIOTalonSRX() {
+    // Initialize our motor objects.
+    // The number parameters are the CAN IDs assigned to each
+    // motor controller using Phoenix Tuner.
+    leftMotor1 = new TalonSRX(1);
+    leftMotor2 = new TalonSRX(2);
+    rightMotor1 = new TalonSRX(3);
+    rightMotor2 = new TalonSRX(4);
+
+    // Put all the motors into brake mode so that the robot stops
+    // moving faster when stopping.
+    leftMotor1.setNeutralMode(NeutralMode.Brake);
+    leftMotor2.setNeutralMode(NeutralMode.Brake);
+    rightMotor1.setNeutralMode(NeutralMode.Brake);
+    rightMotor2.setNeutralMode(NeutralMode.Brake);
+
+    if (HAS_ENCODERS) {
+      leftMotor1.configSelectedFeedbackSensor(FeedbackDevice.CTRE_MagEncoder_Relative);
+      rightMotor1.configSelectedFeedbackSensor(FeedbackDevice.CTRE_MagEncoder_Relative);
+    }
+
+    accelerometer = new BuiltInAccelerometer();
+  }
+
+  @Override
+  public void updateInputs(DriveIOInputs inputs) {
+    inputs.leftOutput = leftMotor1.getMotorOutputPercent();
+    inputs.rightOutput = rightMotor1.getMotorOutputPercent();
+    inputs.leftSupplyCurrentAmps = leftMotor1.getSupplyCurrent() + leftMotor2.getSupplyCurrent();
+    inputs.rightSupplyCurrentAmps = rightMotor1.getSupplyCurrent() + rightMotor2.getSupplyCurrent();
+    inputs.busVoltage = leftMotor1.getBusVoltage();
+
+    inputs.hasEncoders = HAS_ENCODERS;
+    if (HAS_ENCODERS) {
+      // The right side is backwards, so flip it to make forwards positive.
+      inputs.leftPositionMeters = ticksToMeters(leftMotor1.getSelectedSensorPosition());
+      inputs.rightPositionMeters = -ticksToMeters(rightMotor1.getSelectedSensorPosition());
+
+      // Velocities are measured in ticks per 100 ms.
+      inputs.leftVelocityMetersPerSec = ticksToMeters(leftMotor1.getSelectedSensorVelocity()) * 10.0;
+      inputs.rightVelocityMetersPerSec = -ticksToMeters(rightMotor1.getSelectedSensorVelocity()) * 10.0;
+    }
+
+    // The accelerometer measures in multiples of gravity.
+    inputs.forwardAccelMetersPerSecSq = accelerometer.getX() * 9.81 * ACCELEROMETER_FORWARD_SIGN;
+
+    // Phoenix 5 remembers whether the last call to each motor controller
+    // worked, which tells us if it's still on the CAN bus.
+    inputs.connected = leftMotor1.getLastError() == ErrorCode.OK
+        && leftMotor2.getLastError() == ErrorCode.OK
+        && rightMotor1.getLastError() == ErrorCode.OK
+        && rightMotor2.getLastError() == ErrorCode.OK;
+  }
+
+  private static double ticksToMeters(double ticks) {
+    return ticks / ENCODER_TICKS_PER_ROTATION * WHEEL_CIRCUMFERENCE;
+  }
+
+  @Override
+  public void setOutput(double leftOutput, double rightOutput) {
+    // Tell the motor controllers to spin the motors!
+    leftMotor1.set(ControlMode.PercentOutput, leftOutput);
+    leftMotor2.set(ControlMode.PercentOutput, leftOutput);
+    rightMotor1.set(ControlMode.PercentOutput, rightOutput);
+    rightMotor2.set(ControlMode.PercentOutput, rightOutput);
+  }
+}
@@ -0,0 +1,42 @@
+package frc.robot.subsystems;
+
+import frc.robot.simulation.CanFaultChannel;
+
+/**
+ * Sends everything between the drive code and the drive motor controllers
+ * (TalonSRX IDs 1-4) through a simulated busy CAN bus. The accelerometer
+ * is inside the RoboRIO, so its readings are never delayed.
+ */
+public class DriveIOWithFaults implements DriveIO {
+  private final DriveIO io;
+  private final CanFaultChannel<DriveIOInputs> channel;
+  private final DriveIOInputs actualInputs;
+
+  public DriveIOWithFaults(DriveIO io) {
+    this.io = io;
+    channel = new CanFaultChannel<>("Drive", DriveIOInputs::new);
+    actualInputs = new DriveIOInputs();
+  }
+
+  public CanFaultChannel<DriveIOInputs> getChannel() {
+    return channel;
+  }
+
+  /** Gets what the drive base is really doing, without any delay. */
+  public DriveIOInputs getActualInputs() {
+    return actualInputs;
+  }
+
+  @Override
+  public void updateInputs(DriveIOInputs inputs) {
+    channel.deliverRequests();
+    io.updateInputs(actualInputs);
+    channel.receiveReadings(actualInputs, inputs);
+    inputs.forwardAccelMetersPerSecSq = actualInputs.forwardAccelMetersPerSecSq;
+  }
+
+  @Override
+  public void setOutput(double leftOutput, double rightOutput) {
+    channel.send(() -> io.setOutput(leftOutput, rightOutput));
+  }
+}
@@ -2,34 +2,205 @@ package frc.robot.subsystems;
 
 import java.util.function.Supplier;
 
-import com.ctre.phoenix.motorcontrol.ControlMode;
-import com.ctre.phoenix.motorcontrol.NeutralMode;
-import com.ctre.phoenix.motorcontrol.can.TalonSRX;
-
+import edu.wpi.first.math.controller.LTVUnicycleController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.DifferentialDriveKinematics;
+import edu.wpi.first.math.kinematics.DifferentialDriveOdometry;
+import edu.wpi.first.math.kinematics.DifferentialDriveWheelSpeeds;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.diagnostics.AllocationProfiler;
+import frc.robot.diagnostics.MotorCheck;
+import frc.robot.diagnostics.SelfTestReport;
+import frc.robot.logging.InputLogger;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.TelemetryTable;
 
 public class DriveSubsystem extends SubsystemBase {
-  private final TalonSRX leftMotor1;
-  private final TalonSRX leftMotor2;
-  private final TalonSRX rightMotor1;
-  private final TalonSRX rightMotor2;
-
-  public DriveSubsystem() {
-    // Initialize our motor objects.
-    // The number parameters are the CAN IDs assigned to each
-    // motor controller using Phoenix Tuner.
-    leftMotor1 = new TalonSRX(1);
-    leftMotor2 = new TalonSRX(2);
-    rightMotor1 = new TalonSRX(3);
-    rightMotor2 = new TalonSRX(4);
-
-    // Put all the motors into brake mode so that the robot stops
-    // moving faster when stopping.
-    leftMotor1.setNeutralMode(NeutralMode.Brake);
-    leftMotor2.setNeutralMode(NeutralMode.Brake);
-    rightMotor1.setNeutralMode(NeutralMode.Brake);
-    rightMotor2.setNeutralMode(NeutralMode.Brake);
+  // Motor model for one side of the kit of parts drive base. These should
+  // be measured on the real robot using SysId.
+  static final double KV = 2.9; // volts per (meter per second)
+  static final double KA = 0.4; // volts per (meter per second squared)
+
+  // The most the robot can accelerate before the wheels slip. This is the
+  // coefficient of friction of the wheels on carpet times gravity.
+  static final double TRACTION_ACCEL = 0.9 * 9.81;
+
+  // While slipping, we back off to this until the wheels grip again.
+  private static final double SLIPPING_ACCEL = 0.5 * 9.81;
+
+  // How fast the output may change when there are no encoders to tell us
+  // how fast the robot is moving, in full outputs per second.
+  static final double FALLBACK_OUTPUT_RATE = 3.0;
+
+  // If the wheels are turning this much faster or slower than the robot is
+  // moving, they're slipping.
+  private static final double SLIP_SPEED = 0.3; // meters per second
+
+  // How strongly the speed estimate is pulled towards the wheel speed each
+  // loop when the wheels are gripping.
+  private static final double WHEEL_SPEED_TRUST = 0.1;
+
+  private static final double LOOP_PERIOD = 0.02;
+
+  // The distance between the left and right wheels. This should be
+  // measured on the real robot.
+  public static final double TRACK_WIDTH = 0.66; // meters
+
+  // Used when the motor controllers aren't reporting the battery voltage.
+  private static final double NOMINAL_VOLTAGE = 12.0;
+
+  // The self-test drives both sides forward slowly. The robot should be up
+  // on blocks while it runs.
+  private static final double SELF_TEST_OUTPUT = 0.15;
+  private static final double SELF_TEST_SECONDS = 1.0;
+  private static final double SELF_TEST_MIN_SPEED = 0.1; // meters per second
+  private static final double SELF_TEST_MAX_CURRENT_AMPS = 30.0;
+
+  private final DriveIO io;
+  private final DriveIO.DriveIOInputs inputs;
+
+  private final TractionLimiter leftLimiter;
+  private final TractionLimiter rightLimiter;
+
+  // Our best guess of how fast the robot is really moving forwards, which
+  // can be different from the wheel speed if the wheels are slipping.
+  private double chassisSpeed;
+  private boolean slipping;
+
+  // Where the robot is on the field. There's no gyro, so the heading comes
+  // from the difference between the left and right encoders.
+  private final DifferentialDriveKinematics kinematics;
+  private final DifferentialDriveOdometry odometry;
+  private final LTVUnicycleController trajectoryController;
+
+  public DriveSubsystem(DriveIO io) {
+    this.io = io;
+    inputs = new DriveIO.DriveIOInputs();
+
+    leftLimiter = new TractionLimiter(KV, KA, FALLBACK_OUTPUT_RATE);
+    rightLimiter = new TractionLimiter(KV, KA, FALLBACK_OUTPUT_RATE);
+
+    kinematics = new DifferentialDriveKinematics(TRACK_WIDTH);
+    odometry = new DifferentialDriveOdometry(new Rotation2d(), 0.0, 0.0);
+    trajectoryController = new LTVUnicycleController(LOOP_PERIOD);
+
+    // Show what the motors are doing on the dashboard.
+    TelemetryTable telemetry = Telemetry.getTable("Drive");
+    telemetry.addDouble("LeftOutput", 0.05, () -> inputs.leftOutput);
+    telemetry.addDouble("RightOutput", 0.05, () -> inputs.rightOutput);
+    telemetry.addDouble("LeftSupplyCurrent", () -> inputs.leftSupplyCurrentAmps);
+    telemetry.addDouble("RightSupplyCurrent", () -> inputs.rightSupplyCurrentAmps);
+    telemetry.addDouble("ChassisSpeed", 0.05, () -> chassisSpeed);
+    telemetry.addBoolean("Slipping", 0.02, () -> slipping);
+  }
+
+  @Override
+  public void periodic() {
+    AllocationProfiler.mark("Drive");
+
+    // Read the sensors once per loop, and save them to the log.
+    io.updateInputs(inputs);
+    InputLogger.processInputs("Drive", inputs);
+
+    updateChassisSpeed();
+    if (inputs.hasEncoders) {
+      odometry.update(getEncoderHeading(), inputs.leftPositionMeters, inputs.rightPositionMeters);
+    }
+  }
+
+  private Rotation2d getEncoderHeading() {
+    // When the robot turns left, the right wheels travel further than the
+    // left wheels.
+    return new Rotation2d(
+        (inputs.rightPositionMeters - inputs.leftPositionMeters) / TRACK_WIDTH);
+  }
+
+  private void updateChassisSpeed() {
+    double wheelSpeed = (inputs.leftVelocityMetersPerSec + inputs.rightVelocityMetersPerSec) / 2.0;
+
+    // The accelerometer keeps measuring the real motion even if the
+    // wheels lose grip, so use it to move the estimate forwards.
+    chassisSpeed += inputs.forwardAccelMetersPerSecSq * LOOP_PERIOD;
+
+    slipping = inputs.hasEncoders && Math.abs(wheelSpeed - chassisSpeed) > SLIP_SPEED;
+    if (!slipping) {
+      // While the wheels grip, they're the better measurement, and this
+      // keeps the accelerometer from drifting.
+      chassisSpeed += (wheelSpeed - chassisSpeed) * WHEEL_SPEED_TRUST;
+    }
+  }
+
+  /**
+   * Limits how hard each side is pushed so the wheels keep their grip, then
+   * sends the outputs to the motors.
+   */
+  void setTractionLimitedOutput(double leftOutput, double rightOutput) {
+    double maxAccel = slipping ? SLIPPING_ACCEL : TRACTION_ACCEL;
+
+    // Work out how fast each side is moving over the ground. The difference
+    // between the sides (from turning) comes from the wheels, and the
+    // forward speed from our estimate.
+    double turnSpeed = (inputs.rightVelocityMetersPerSec - inputs.leftVelocityMetersPerSec) / 2.0;
+    double leftGroundSpeed = chassisSpeed - turnSpeed;
+    double rightGroundSpeed = chassisSpeed + turnSpeed;
+
+    double left = leftLimiter.calculate(
+        leftOutput, leftGroundSpeed, maxAccel, inputs.busVoltage, inputs.hasEncoders);
+
+    // The right motors are backwards, so flip the output while limiting it.
+    double right = -rightLimiter.calculate(
+        -rightOutput, rightGroundSpeed, maxAccel, inputs.busVoltage, inputs.hasEncoders);
+
+    io.setOutput(left, right);
+  }
+
+  /** Gets the output of the left side motors, from -1 to 1. */
+  public double getLeftOutput() {
+    return inputs.leftOutput;
+  }
+
+  /**
+   * Gets the output of the right side motors, from -1 to 1. Positive drives
+   * the right side backward.
+   */
+  public double getRightOutput() {
+    return inputs.rightOutput;
+  }
+
+  /** Gets how far the robot has driven forwards, measured by the encoders. */
+  public double getDistanceMeters() {
+    return (inputs.leftPositionMeters + inputs.rightPositionMeters) / 2.0;
+  }
+
+  /**
+   * Gets whether the drive has encoders. Without them the robot doesn't
+   * know where it is, so it can't follow a trajectory.
+   */
+  public boolean hasEncoders() {
+    return inputs.hasEncoders;
+  }
+
+  /** Gets where the robot is on the field, measured by the encoders. */
+  public Pose2d getPose() {
+    return odometry.getPoseMeters();
+  }
+
+  /** Tells the drive base where the robot is, such as at the start of autonomous. */
+  public void resetPose(Pose2d pose) {
+    odometry.resetPosition(
+        getEncoderHeading(), inputs.leftPositionMeters, inputs.rightPositionMeters, pose);
+  }
+
+  /** Gets the total current drawn from the battery by all four drive motors. */
+  public double getSupplyCurrentAmps() {
+    return inputs.leftSupplyCurrentAmps + inputs.rightSupplyCurrentAmps;
   }
 
   public Command arcadeDrive(
@@ -53,11 +224,89 @@ public class DriveSubsystem extends SubsystemBase {
         rightWheels = rightWheels / maxOutput;
       }
 
-      // Tell the motor controllers to spin the motors!
-      leftMotor1.set(ControlMode.PercentOutput, leftWheels);
-      leftMotor2.set(ControlMode.PercentOutput, leftWheels);
-      rightMotor1.set(ControlMode.PercentOutput, rightWheels);
-      rightMotor2.set(ControlMode.PercentOutput, rightWheels);
-    });
+      // Tell the motor controllers to spin the motors, as hard as the
+      // wheels can handle without slipping.
+      setTractionLimitedOutput(leftWheels, rightWheels);
+    }).withName("ArcadeDrive");
+  }
+
+  /**
+   * Drives along a trajectory that was made ahead of time. The trajectory
+   * says how fast each side should be moving, which is turned into a motor
+   * voltage using the motor model, and the robot's position is used to
+   * steer it back onto the path if it drifts off. This needs encoders, so
+   * without them a warning is sent to the Driver Station and the robot
+   * doesn't move.
+   */
+  public Command followTrajectory(Trajectory trajectory) {
+    Timer timer = new Timer();
+
+    // Without encoders the position never changes, so the controller
+    // would push harder and harder to catch up with the trajectory.
+    Command noEncoders = Commands.runOnce(() -> DriverStation.reportWarning(
+        "Can't follow a trajectory without drive encoders", false));
+
+    Command follow = this.startRun(
+        timer::restart,
+        () -> {
+          Trajectory.State goal = trajectory.sample(timer.get());
+          ChassisSpeeds speeds = trajectoryController.calculate(getPose(), goal);
+          DifferentialDriveWheelSpeeds wheelSpeeds = kinematics.toWheelSpeeds(speeds);
+
+          // On a curve, the outside wheels speed up faster than the inside
+          // wheels.
+          double turnAccel = goal.accelerationMetersPerSecondSq
+              * goal.curvatureRadPerMeter * TRACK_WIDTH / 2.0;
+          double leftVolts = KV * wheelSpeeds.leftMetersPerSecond
+              + KA * (goal.accelerationMetersPerSecondSq - turnAccel);
+          double rightVolts = KV * wheelSpeeds.rightMetersPerSecond
+              + KA * (goal.accelerationMetersPerSecondSq + turnAccel);
+
+          double busVoltage = inputs.busVoltage > 0.0 ? inputs.busVoltage : NOMINAL_VOLTAGE;
+
+          // The right motors are backwards.
+          io.setOutput(leftVolts / busVoltage, -rightVolts / busVoltage);
+        })
+        .until(() -> timer.hasElapsed(trajectory.getTotalTimeSeconds()))
+        .finallyDo(() -> io.setOutput(0.0, 0.0));
+
+    return Commands.either(follow, noEncoders, () -> inputs.hasEncoders)
+        .withName("FollowTrajectory");
+  }
+
+  /**
+   * Drives both sides forward slowly and checks that the motor controllers
+   * respond and draw a sensible current. If the drive has encoders, also
+   * checks that both sides spin forward. The robot should be on blocks.
+   */
+  public Command selfTest(SelfTestReport report) {
+    MotorCheck leftCheck = new MotorCheck(
+        "Drive/Left", SELF_TEST_MIN_SPEED, SELF_TEST_MAX_CURRENT_AMPS);
+    MotorCheck rightCheck = new MotorCheck(
+        "Drive/Right", SELF_TEST_MIN_SPEED, SELF_TEST_MAX_CURRENT_AMPS);
+
+    return this.startRun(
+        () -> {
+          leftCheck.reset();
+          rightCheck.reset();
+        },
+        () -> {
+          // The right side motors are reversed.
+          io.setOutput(SELF_TEST_OUTPUT, -SELF_TEST_OUTPUT);
+          leftCheck.sample(inputs.connected, inputs.leftVelocityMetersPerSec,
+              inputs.leftSupplyCurrentAmps);
+          rightCheck.sample(inputs.connected, inputs.rightVelocityMetersPerSec,
+              inputs.rightSupplyCurrentAmps);
+        })
+        .withTimeout(SELF_TEST_SECONDS)
+        .finallyDo(() -> {
+          io.setOutput(0.0, 0.0);
+
+          // Without encoders there's nothing to tell which way the wheels
+          // turned.
+          double direction = inputs.hasEncoders ? 1.0 : 0.0;
+          leftCheck.report(report, direction);
+          rightCheck.report(report, direction);
+        });
   }
 }
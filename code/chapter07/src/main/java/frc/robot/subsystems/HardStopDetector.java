@@ -0,0 +1,54 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.math.filter.Debouncer.DebounceType;
+
+/**
+ * Detects when a mechanism has been driven into its hard stop, by watching
+ * for the motor drawing a lot of current while hardly moving. This is used
+ * to find the mechanism's position without a limit switch.
+ */
+class HardStopDetector {
+  private final double minCurrentAmps;
+  private final double maxVelocity;
+  private final Debouncer debouncer;
+  private boolean stopped;
+
+  /**
+   * @param minCurrentAmps the stator current that means the motor is
+   *     pushing against something
+   * @param maxVelocity the speed below which the mechanism counts as
+   *     stopped, in the same units as the samples
+   * @param debounceSeconds how long both must last, so the moment when the
+   *     motor is just starting to move doesn't count
+   */
+  HardStopDetector(double minCurrentAmps, double maxVelocity, double debounceSeconds) {
+    this.minCurrentAmps = minCurrentAmps;
+    this.maxVelocity = maxVelocity;
+    debouncer = new Debouncer(debounceSeconds, DebounceType.kRising);
+  }
+
+  /** Starts over, for the next time the mechanism is driven into the stop. */
+  void reset() {
+    debouncer.calculate(false);
+    stopped = false;
+  }
+
+  /**
+   * Adds a new sample. Once the stop is found, this keeps returning true
+   * until {@link #reset()} is called.
+   *
+   * @return whether the mechanism is against its hard stop
+   */
+  boolean update(double statorCurrentAmps, double velocity) {
+    if (!stopped) {
+      stopped = debouncer.calculate(
+          Math.abs(statorCurrentAmps) >= minCurrentAmps && Math.abs(velocity) <= maxVelocity);
+    }
+    return stopped;
+  }
+
+  boolean isStopped() {
+    return stopped;
+  }
+}
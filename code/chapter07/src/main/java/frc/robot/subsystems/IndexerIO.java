@@ -0,0 +1,54 @@
+package frc.robot.subsystems;
+
+import frc.robot.logging.LogTable;
+import frc.robot.logging.LoggableInputs;
+
+/**
+ * The hardware used by the indexer. The methods here do nothing by default,
+ * which is what is used when replaying a log.
+ */
+public interface IndexerIO {
+  public static class IndexerIOInputs implements LoggableInputs {
+    public boolean connected;
+    public double velocityRPS;
+    public double appliedVolts;
+    public double supplyCurrentAmps;
+    public boolean beamBroken;
+
+    @Override
+    public void toLog(LogTable table) {
+      table.put("Connected", connected);
+      table.put("VelocityRPS", velocityRPS);
+      table.put("AppliedVolts", appliedVolts);
+      table.put("SupplyCurrentAmps", supplyCurrentAmps);
+      table.put("BeamBroken", beamBroken);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+      connected = table.get("Connected", connected);
+      velocityRPS = table.get("VelocityRPS", velocityRPS);
+      appliedVolts = table.get("AppliedVolts", appliedVolts);
+      supplyCurrentAmps = table.get("SupplyCurrentAmps", supplyCurrentAmps);
+      beamBroken = table.get("BeamBroken", beamBroken);
+    }
+  }
+
+  /** Reads the latest sensor values. */
+  default void updateInputs(IndexerIOInputs inputs) {}
+
+  /** Runs the roller at a voltage. */
+  default void setVoltage(double volts) {}
+
+  /** Stops the roller and holds it in place. */
+  default void stop() {}
+
+  /**
+   * Reads the beam break right now, without the rest of the inputs. This is
+   * used by the indexer's fast safety check. It isn't logged, so when
+   * replaying it always reads false and the logged inputs are used instead.
+   */
+  default boolean isBeamBroken() {
+    return false;
+  }
+}
@@ -0,0 +1,78 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix6.sim.TalonFXSimState;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import edu.wpi.first.wpilibj.simulation.DIOSim;
+
+/**
+ * The indexer in simulation. Along with the roller, this pretends that a
+ * game piece is handed over by the intake whenever the roller pulls inwards
+ * for long enough, and trips the beam break while the piece passes it.
+ */
+public class IndexerIOSim extends IndexerIOTalonFX {
+  private static final double ROLLER_MOI = 0.001; // kg*m^2
+  private static final double LOOP_PERIOD = 0.02;
+
+  // Distances are in roller rotations.
+  private static final double PICKUP_DISTANCE = 5.0;
+  private static final double BEAM_START = 2.0;
+  private static final double BEAM_END = 6.0;
+  private static final double EXIT_DISTANCE = 8.0;
+
+  private final TalonFXSimState simState;
+  private final DCMotorSim rollerSim;
+  private final DIOSim beamBreakSim;
+
+  private double pickupProgress;
+  private boolean hasPiece;
+  private double piecePosition;
+
+  public IndexerIOSim() {
+    simState = motor.getSimState();
+    beamBreakSim = new DIOSim(beamBreakInput);
+
+    DCMotor gearbox = DCMotor.getKrakenX60(1);
+    rollerSim = new DCMotorSim(
+        LinearSystemId.createDCMotorSystem(gearbox, ROLLER_MOI, 1.0),
+        gearbox);
+  }
+
+  @Override
+  public void updateInputs(IndexerIOInputs inputs) {
+    simState.setSupplyVoltage(RobotController.getBatteryVoltage());
+    rollerSim.setInputVoltage(simState.getMotorVoltage());
+
+    double startRotations = rollerSim.getAngularPositionRotations();
+    rollerSim.update(LOOP_PERIOD);
+    double travel = rollerSim.getAngularPositionRotations() - startRotations;
+
+    simState.setRawRotorPosition(rollerSim.getAngularPositionRotations());
+    simState.setRotorVelocity(rollerSim.getAngularVelocityRadPerSec() / (2.0 * Math.PI));
+
+    if (hasPiece) {
+      // Move the piece along with the roller until it leaves the indexer.
+      piecePosition += travel;
+      if (piecePosition > EXIT_DISTANCE || piecePosition < 0.0) {
+        hasPiece = false;
+        pickupProgress = 0.0;
+      }
+    } else if (travel > 0.0) {
+      // Pretend the intake hands over a piece after a little while.
+      pickupProgress += travel;
+      if (pickupProgress > PICKUP_DISTANCE) {
+        hasPiece = true;
+        piecePosition = 0.0;
+      }
+    }
+
+    // The real sensor reads false while the beam is blocked.
+    boolean beamBroken = hasPiece && piecePosition >= BEAM_START && piecePosition <= BEAM_END;
+    beamBreakSim.setValue(!beamBroken);
+
+    super.updateInputs(inputs);
+  }
+}
@@ -0,0 +1,77 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.NeutralOut;
+import com.ctre.phoenix6.controls.VoltageOut;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.DigitalInput;
+
+/** The indexer on a real robot, with a TalonFX roller and a beam break. */
+public class IndexerIOTalonFX implements IndexerIO {
+  protected final TalonFX motor;
+  protected final DigitalInput beamBreakInput;
+
+  private final StatusSignal<AngularVelocity> velocity;
+  private final StatusSignal<Voltage> appliedVolts;
+  private final StatusSignal<Current> supplyCurrent;
+
+  private final VoltageOut voltageRequest = new VoltageOut(0.0);
+  private final NeutralOut neutralRequest = new NeutralOut();
+
+  public IndexerIOTalonFX() {
+    motor = new TalonFX(6);
+
+    // The number parameter here is the DIO port on the RoboRIO
+    // that the beam break sensor is wired to.
+    beamBreakInput = new DigitalInput(0);
+
+    // Set the motor to brake mode so that it holds the game piece in
+    // position when not spinning.
+    TalonFXConfiguration motorConfig = new TalonFXConfiguration();
+    motorConfig.MotorOutput.NeutralMode = NeutralModeValue.Brake;
+
+    // Send the configuration to the motor controller.
+    motor.getConfigurator().apply(motorConfig);
+
+    velocity = motor.getVelocity();
+    appliedVolts = motor.getMotorVoltage();
+    supplyCurrent = motor.getSupplyCurrent();
+
+    BaseStatusSignal.setUpdateFrequencyForAll(50.0, velocity, appliedVolts, supplyCurrent);
+    motor.optimizeBusUtilization();
+  }
+
+  @Override
+  public void updateInputs(IndexerIOInputs inputs) {
+    inputs.connected = BaseStatusSignal.refreshAll(velocity, appliedVolts, supplyCurrent).isOK();
+    inputs.velocityRPS = velocity.getValueAsDouble();
+    inputs.appliedVolts = appliedVolts.getValueAsDouble();
+    inputs.supplyCurrentAmps = supplyCurrent.getValueAsDouble();
+
+    inputs.beamBroken = isBeamBroken();
+  }
+
+  @Override
+  public boolean isBeamBroken() {
+    // The beam break input is backwards: it reads false when something
+    // is blocking the beam.
+    return !beamBreakInput.get();
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    motor.setControl(voltageRequest.withOutput(volts));
+  }
+
+  @Override
+  public void stop() {
+    motor.setControl(neutralRequest);
+  }
+}
@@ -0,0 +1,52 @@
+package frc.robot.subsystems;
+
+import frc.robot.simulation.CanFaultChannel;
+
+/**
+ * Sends everything between the indexer code and the roller motor
+ * controller (TalonFX ID 6) through a simulated busy CAN bus. The beam
+ * break is wired straight into the RoboRIO, so it is never delayed.
+ */
+public class IndexerIOWithFaults implements IndexerIO {
+  private final IndexerIO io;
+  private final CanFaultChannel<IndexerIOInputs> channel;
+  private final IndexerIOInputs actualInputs;
+
+  public IndexerIOWithFaults(IndexerIO io) {
+    this.io = io;
+    channel = new CanFaultChannel<>("Indexer", IndexerIOInputs::new);
+    actualInputs = new IndexerIOInputs();
+  }
+
+  public CanFaultChannel<IndexerIOInputs> getChannel() {
+    return channel;
+  }
+
+  /** Gets what the roller is really doing, without any delay. */
+  public IndexerIOInputs getActualInputs() {
+    return actualInputs;
+  }
+
+  @Override
+  public void updateInputs(IndexerIOInputs inputs) {
+    channel.deliverRequests();
+    io.updateInputs(actualInputs);
+    channel.receiveReadings(actualInputs, inputs);
+    inputs.beamBroken = actualInputs.beamBroken;
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    channel.send(() -> io.setVoltage(volts));
+  }
+
+  @Override
+  public void stop() {
+    channel.send(io::stop);
+  }
+
+  @Override
+  public boolean isBeamBroken() {
+    return io.isBeamBroken();
+  }
+}
@@ -1,68 +1,143 @@
 package frc.robot.subsystems;
 
-import com.ctre.phoenix6.configs.TalonFXConfiguration;
-import com.ctre.phoenix6.controls.NeutralOut;
-import com.ctre.phoenix6.controls.VoltageOut;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.signals.NeutralModeValue;
-
-import edu.wpi.first.wpilibj.DigitalInput;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.diagnostics.AllocationProfiler;
+import frc.robot.diagnostics.MotorCheck;
+import frc.robot.diagnostics.SelfTestReport;
+import frc.robot.logging.InputLogger;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.TelemetryTable;
+import frc.robot.tuning.Tunables;
 
 public class IndexerSubsystem extends SubsystemBase {
   private static final double RECEIVE_VOLTAGE = 3.0;
   private static final double FEED_VOLTAGE = 5.0;
 
-  private final TalonFX motor;
-  private final DigitalInput beamBreakInput;
+  // The self-test runs the roller slowly for long enough to pass a piece
+  // (or a hand) through the beam break.
+  private static final double SELF_TEST_VOLTAGE = 2.0;
+  private static final double SELF_TEST_SECONDS = 3.0;
+  private static final double SELF_TEST_MIN_SPEED_RPS = 1.0;
+  private static final double SELF_TEST_MAX_CURRENT_AMPS = 20.0;
+
+  // Can be changed from the dashboard under "Tuning/Indexer".
+  private double receiveVoltage = RECEIVE_VOLTAGE;
+  private double feedVoltage = FEED_VOLTAGE;
+
+  private final IndexerIO io;
+  private final IndexerIO.IndexerIOInputs inputs;
+
+  // Whether the roller is pulling in a piece from the intake. The fast
+  // check stops the roller as soon as the piece reaches the beam break,
+  // instead of waiting for the next main loop.
+  private boolean receiving;
 
-  public IndexerSubsystem() {
-    motor = new TalonFX(6);
+  public IndexerSubsystem(IndexerIO io) {
+    this.io = io;
+    inputs = new IndexerIO.IndexerIOInputs();
+
+    // Show the indexer's state on the dashboard.
+    TelemetryTable telemetry = Telemetry.getTable("Indexer");
+    telemetry.addBoolean("HasGamePiece", 0.02, this::hasGamePiece);
+    telemetry.addDouble("RollerVoltage", () -> inputs.appliedVolts);
+    telemetry.addDouble("RollerSupplyCurrent", () -> inputs.supplyCurrentAmps);
+
+    Tunables.addDouble("Indexer/ReceiveVoltage", RECEIVE_VOLTAGE, value -> receiveVoltage = value);
+    Tunables.addDouble("Indexer/FeedVoltage", FEED_VOLTAGE, value -> feedVoltage = value);
+  }
 
-    // The number parameter here is the DIO port on the RoboRIO
-    // that the beam break sensor is wired to.
-    beamBreakInput = new DigitalInput(0);
+  @Override
+  public void periodic() {
+    AllocationProfiler.mark("Indexer");
 
-    // Set the motor to brake mode so that it holds the game piece in
-    // position when not spinning.
-    TalonFXConfiguration motorConfig = new TalonFXConfiguration();
-    motorConfig.MotorOutput.NeutralMode = NeutralModeValue.Brake;
+    // Read the sensors once per loop, and save them to the log.
+    io.updateInputs(inputs);
+    InputLogger.processInputs("Indexer", inputs);
+  }
 
-    // Send the configuration to the motor controller.
-    motor.getConfigurator().apply(motorConfig);
+  /**
+   * Stops the roller the moment a piece being received reaches the beam
+   * break. This runs every 10 ms, twice as often as {@link #periodic()}, so
+   * the piece doesn't overshoot the sensor.
+   */
+  public void fastPeriodic() {
+    if (receiving && io.isBeamBroken()) {
+      io.stop();
+      receiving = false;
+    }
   }
 
   public boolean hasGamePiece() {
-    // Get whether the beam break detects a piece. The beam brake
-    // input is backwards, so we need to invert it.
-    return !beamBreakInput.get();
+    // Get whether the beam break detects a piece.
+    return inputs.beamBroken;
+  }
+
+  /** Gets the current drawn from the battery by the roller motor. */
+  public double getSupplyCurrentAmps() {
+    return inputs.supplyCurrentAmps;
   }
 
   public Command idle() {
     return this.run(() -> {
       // Keep the roller still to conserve battery power.
-      motor.setControl(new NeutralOut());
-    });
+      io.stop();
+    }).withName("Idle");
   }
 
   public Command receivePieceFromIntake() {
-    return this.run(() -> {
-      if (hasGamePiece()) {
-        // If we have a game piece already, hold it in place.
-        motor.setControl(new NeutralOut());
-      } else {
-        // If we don't have a game piece, run the roller to take
-        // it from the intake.
-        motor.setControl(new VoltageOut(RECEIVE_VOLTAGE));
-      }
-    });
+    return this.runEnd(
+        () -> {
+          if (hasGamePiece()) {
+            // If we have a game piece already, hold it in place.
+            io.stop();
+            receiving = false;
+          } else if (!io.isBeamBroken()) {
+            // If we don't have a game piece, run the roller to take
+            // it from the intake, unless the fast check has just caught
+            // one.
+            io.setVoltage(receiveVoltage);
+            receiving = true;
+          }
+        },
+        () -> receiving = false)
+        .withName("ReceivePiece");
   }
 
   public Command feedPieceToShooter() {
     return this.run(() -> {
         // Spin the roller to feed the game piece into the shooter.
-        motor.setControl(new VoltageOut(FEED_VOLTAGE));
-    });
+        io.setVoltage(feedVoltage);
+    }).withName("FeedPiece");
+  }
+
+  /**
+   * Runs the roller slowly and checks that the motor responds, spins
+   * forward and draws a sensible current. The beam break must be seen both
+   * blocked and clear, so pass a piece through it while this runs.
+   */
+  public Command selfTest(SelfTestReport report) {
+    MotorCheck check = new MotorCheck(
+        "Indexer", SELF_TEST_MIN_SPEED_RPS, SELF_TEST_MAX_CURRENT_AMPS);
+    boolean[] beamSeen = new boolean[2];
+
+    return this.startRun(
+        () -> {
+          check.reset();
+          beamSeen[0] = false;
+          beamSeen[1] = false;
+        },
+        () -> {
+          io.setVoltage(SELF_TEST_VOLTAGE);
+          check.sample(inputs.connected, inputs.velocityRPS, inputs.supplyCurrentAmps);
+          beamSeen[inputs.beamBroken ? 1 : 0] = true;
+        })
+        .withTimeout(SELF_TEST_SECONDS)
+        .finallyDo(() -> {
+          io.stop();
+          check.report(report, 1.0);
+          report.check("Indexer/BeamBreak", beamSeen[0] && beamSeen[1],
+              beamSeen[1] ? (beamSeen[0] ? "toggled" : "always blocked") : "never blocked");
+        });
   }
 }
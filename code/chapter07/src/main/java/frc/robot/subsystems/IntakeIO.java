@@ -0,0 +1,85 @@
+package frc.robot.subsystems;
+
+import frc.robot.logging.LogTable;
+import frc.robot.logging.LoggableInputs;
+
+/**
+ * The hardware used by the intake. The methods here do nothing by default,
+ * which is what is used when replaying a log.
+ */
+public interface IntakeIO {
+  public static class IntakeIOInputs implements LoggableInputs {
+    public boolean rollerConnected;
+    public double rollerVelocityRPS;
+    public double rollerAppliedVolts;
+    public double rollerSupplyCurrentAmps;
+    public double rollerStatorCurrentAmps;
+    public double rollerFilteredCurrentAmps;
+    public boolean rollerPieceContact;
+    public double rollerContactTimestamp;
+
+    public boolean pivotConnected;
+    public double pivotPositionRotations;
+    public double pivotVelocityRPS;
+    public double pivotAppliedVolts;
+    public double pivotSupplyCurrentAmps;
+    public double pivotStatorCurrentAmps;
+
+    @Override
+    public void toLog(LogTable table) {
+      table.put("RollerConnected", rollerConnected);
+      table.put("RollerVelocityRPS", rollerVelocityRPS);
+      table.put("RollerAppliedVolts", rollerAppliedVolts);
+      table.put("RollerSupplyCurrentAmps", rollerSupplyCurrentAmps);
+      table.put("RollerStatorCurrentAmps", rollerStatorCurrentAmps);
+      table.put("RollerFilteredCurrentAmps", rollerFilteredCurrentAmps);
+      table.put("RollerPieceContact", rollerPieceContact);
+      table.put("RollerContactTimestamp", rollerContactTimestamp);
+      table.put("PivotConnected", pivotConnected);
+      table.put("PivotPositionRotations", pivotPositionRotations);
+      table.put("PivotVelocityRPS", pivotVelocityRPS);
+      table.put("PivotAppliedVolts", pivotAppliedVolts);
+      table.put("PivotSupplyCurrentAmps", pivotSupplyCurrentAmps);
+      table.put("PivotStatorCurrentAmps", pivotStatorCurrentAmps);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+      rollerConnected = table.get("RollerConnected", rollerConnected);
+      rollerVelocityRPS = table.get("RollerVelocityRPS", rollerVelocityRPS);
+      rollerAppliedVolts = table.get("RollerAppliedVolts", rollerAppliedVolts);
+      rollerSupplyCurrentAmps = table.get("RollerSupplyCurrentAmps", rollerSupplyCurrentAmps);
+      rollerStatorCurrentAmps = table.get("RollerStatorCurrentAmps", rollerStatorCurrentAmps);
+      rollerFilteredCurrentAmps = table.get("RollerFilteredCurrentAmps", rollerFilteredCurrentAmps);
+      rollerPieceContact = table.get("RollerPieceContact", rollerPieceContact);
+      rollerContactTimestamp = table.get("RollerContactTimestamp", rollerContactTimestamp);
+      pivotConnected = table.get("PivotConnected", pivotConnected);
+      pivotPositionRotations = table.get("PivotPositionRotations", pivotPositionRotations);
+      pivotVelocityRPS = table.get("PivotVelocityRPS", pivotVelocityRPS);
+      pivotAppliedVolts = table.get("PivotAppliedVolts", pivotAppliedVolts);
+      pivotSupplyCurrentAmps = table.get("PivotSupplyCurrentAmps", pivotSupplyCurrentAmps);
+      pivotStatorCurrentAmps = table.get("PivotStatorCurrentAmps", pivotStatorCurrentAmps);
+    }
+  }
+
+  /** Reads the latest sensor values. */
+  default void updateInputs(IntakeIOInputs inputs) {}
+
+  /** Runs the rollers at a voltage. */
+  default void setRollerVoltage(double volts) {}
+
+  /** Lets the rollers coast. */
+  default void stopRoller() {}
+
+  /** Moves the intake to an angle, in rotations of the intake arm. */
+  default void setPivotPosition(double rotations) {}
+
+  /** Drives the pivot with a voltage, without any PID. */
+  default void setPivotVoltage(double volts) {}
+
+  /** Tells the pivot motor what angle the intake is at now, such as after homing. */
+  default void resetPivotPosition(double rotations) {}
+
+  /** Changes the pivot motor controller's PID gains. */
+  default void configurePivotGains(double kP, double kD, double kG) {}
+}
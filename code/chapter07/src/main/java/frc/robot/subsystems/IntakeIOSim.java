@@ -0,0 +1,74 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix6.sim.TalonFXSimState;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
+
+/**
+ * The intake in simulation. The roller is a simple spinning mass, and the
+ * pivot is an arm that swings between the extended angle (0 degrees) and
+ * the retracted angle (90 degrees).
+ */
+public class IntakeIOSim extends IntakeIOTalonFX {
+  private static final double ROLLER_MOI = 0.0005; // kg*m^2
+  private static final double PIVOT_LENGTH = 0.3; // meters
+  private static final double PIVOT_MASS = 3.0; // kg
+  private static final double LOOP_PERIOD = 0.02;
+
+  private final TalonFXSimState rollerSimState;
+  private final TalonFXSimState pivotSimState;
+  private final DCMotorSim rollerSim;
+  private final SingleJointedArmSim pivotSim;
+  private final double startingRotations;
+
+  public IntakeIOSim(double startingRotations) {
+    super(startingRotations);
+    this.startingRotations = startingRotations;
+
+    rollerSimState = rollerMotor.getSimState();
+    pivotSimState = pivotMotor.getSimState();
+
+    DCMotor rollerGearbox = DCMotor.getKrakenX60(1);
+    rollerSim = new DCMotorSim(
+        LinearSystemId.createDCMotorSystem(rollerGearbox, ROLLER_MOI, 1.0),
+        rollerGearbox);
+
+    pivotSim = new SingleJointedArmSim(
+        DCMotor.getKrakenX60(1),
+        PIVOT_GEAR_RATIO,
+        SingleJointedArmSim.estimateMOI(PIVOT_LENGTH, PIVOT_MASS),
+        PIVOT_LENGTH,
+        0.0,
+        Math.PI / 2.0,
+        true,
+        Units.rotationsToRadians(startingRotations));
+  }
+
+  @Override
+  public void updateInputs(IntakeIOInputs inputs) {
+    double batteryVoltage = RobotController.getBatteryVoltage();
+
+    rollerSimState.setSupplyVoltage(batteryVoltage);
+    rollerSim.setInputVoltage(rollerSimState.getMotorVoltage());
+    rollerSim.update(LOOP_PERIOD);
+    rollerSimState.setRawRotorPosition(rollerSim.getAngularPositionRotations());
+    rollerSimState.setRotorVelocity(rollerSim.getAngularVelocityRadPerSec() / (2.0 * Math.PI));
+
+    pivotSimState.setSupplyVoltage(batteryVoltage);
+    pivotSim.setInputVoltage(pivotSimState.getMotorVoltage());
+    pivotSim.update(LOOP_PERIOD);
+    // The rotor sensor counts from zero when the robot turns on, and the
+    // motor controller adds that to the starting position we gave it.
+    double pivotTravel = Units.radiansToRotations(pivotSim.getAngleRads()) - startingRotations;
+    pivotSimState.setRawRotorPosition(pivotTravel * PIVOT_GEAR_RATIO);
+    pivotSimState.setRotorVelocity(
+        Units.radiansToRotations(pivotSim.getVelocityRadPerSec()) * PIVOT_GEAR_RATIO);
+
+    super.updateInputs(inputs);
+  }
+}
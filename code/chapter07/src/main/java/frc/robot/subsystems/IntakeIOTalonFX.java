@@ -0,0 +1,204 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.NeutralOut;
+import com.ctre.phoenix6.controls.PositionVoltage;
+import com.ctre.phoenix6.controls.VoltageOut;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.GravityTypeValue;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.tuning.TunedGains;
+
+/** The intake on a real robot, with TalonFX motors for the roller and pivot. */
+public class IntakeIOTalonFX implements IntakeIO {
+  protected static final double PIVOT_GEAR_RATIO = 25.0 / 1.0;
+
+  // How often the roller current and speed are checked for a piece.
+  private static final double ROLLER_MONITOR_FREQUENCY = 250.0;
+
+  protected final TalonFX rollerMotor;
+  protected final TalonFX pivotMotor;
+
+  private final StatusSignal<AngularVelocity> rollerVelocity;
+  private final StatusSignal<Voltage> rollerAppliedVolts;
+  private final StatusSignal<Current> rollerSupplyCurrent;
+  private final StatusSignal<Current> rollerStatorCurrent;
+  private final StatusSignal<Angle> pivotPosition;
+  private final StatusSignal<AngularVelocity> pivotVelocity;
+  private final StatusSignal<Voltage> pivotAppliedVolts;
+  private final StatusSignal<Current> pivotSupplyCurrent;
+  private final StatusSignal<Current> pivotStatorCurrent;
+
+  private final VoltageOut rollerVoltageRequest = new VoltageOut(0.0);
+  private final NeutralOut rollerNeutralRequest = new NeutralOut();
+  private final PositionVoltage pivotPositionRequest = new PositionVoltage(0.0);
+  private final VoltageOut pivotVoltageRequest = new VoltageOut(0.0);
+
+  // Shared with the roller monitor thread.
+  private final RollerContactDetector contactDetector = new RollerContactDetector();
+  private volatile boolean rollersRunning;
+  private volatile boolean pieceContact;
+  private volatile double contactTimestamp;
+  private volatile double filteredCurrent;
+
+  /**
+   * @param startingRotations the angle of the intake when the robot turns on
+   */
+  public IntakeIOTalonFX(double startingRotations) {
+    rollerMotor = new TalonFX(7);
+    pivotMotor = new TalonFX(8);
+
+    // Set the roller to coast mode, since it doesn't need to hold
+    // anything in place.
+    TalonFXConfiguration rollerConfig = new TalonFXConfiguration();
+    rollerConfig.MotorOutput.NeutralMode = NeutralModeValue.Coast;
+
+    // Set the pivot to brake mode so that it holds the intake steady,
+    // and configure the PID control parameters.
+    TalonFXConfiguration pivotConfig = new TalonFXConfiguration();
+    pivotConfig.MotorOutput.NeutralMode = NeutralModeValue.Brake;
+    pivotConfig.Feedback.SensorToMechanismRatio = PIVOT_GEAR_RATIO;
+    pivotConfig.Slot0 = pivotGains(
+        TunedGains.get("Intake.Pivot.kP", 0.0), // Should be tuned, or found with the auto-tuner
+        TunedGains.get("Intake.Pivot.kD", 0.0),
+        TunedGains.get("Intake.Pivot.kG", 0.0));
+
+    // Send the configurations to the motor controllers.
+    rollerMotor.getConfigurator().apply(rollerConfig);
+    pivotMotor.getConfigurator().apply(pivotConfig);
+
+    // Tell the pivot motor the initial position of the intake.
+    pivotMotor.setPosition(startingRotations);
+
+    // Give the pivot motor an initial control request to keep the intake
+    // in its starting position.
+    pivotMotor.setControl(pivotPositionRequest.withPosition(startingRotations));
+
+    rollerVelocity = rollerMotor.getVelocity();
+    rollerAppliedVolts = rollerMotor.getMotorVoltage();
+    rollerSupplyCurrent = rollerMotor.getSupplyCurrent();
+    rollerStatorCurrent = rollerMotor.getStatorCurrent();
+    pivotPosition = pivotMotor.getPosition();
+    pivotVelocity = pivotMotor.getVelocity();
+    pivotAppliedVolts = pivotMotor.getMotorVoltage();
+    pivotSupplyCurrent = pivotMotor.getSupplyCurrent();
+    pivotStatorCurrent = pivotMotor.getStatorCurrent();
+
+    BaseStatusSignal.setUpdateFrequencyForAll(50.0,
+        rollerVelocity, rollerAppliedVolts, rollerSupplyCurrent, rollerStatorCurrent,
+        pivotPosition, pivotVelocity, pivotAppliedVolts, pivotSupplyCurrent, pivotStatorCurrent);
+    // The roller current and speed are sent much faster so that we can see
+    // the moment a piece touches the rollers.
+    BaseStatusSignal.setUpdateFrequencyForAll(ROLLER_MONITOR_FREQUENCY,
+        rollerVelocity, rollerStatorCurrent);
+    rollerMotor.optimizeBusUtilization();
+    pivotMotor.optimizeBusUtilization();
+
+    // Watch the roller on its own thread, since the main loop only runs
+    // every 20 ms. The thread gets its own copies of the signals so that
+    // it doesn't share them with the main loop.
+    StatusSignal<Current> monitorCurrent = rollerStatorCurrent.clone();
+    StatusSignal<AngularVelocity> monitorVelocity = rollerVelocity.clone();
+    Thread monitorThread = new Thread(
+        () -> monitorRoller(monitorCurrent, monitorVelocity),
+        "Intake Roller Monitor");
+    monitorThread.setDaemon(true);
+    monitorThread.start();
+  }
+
+  private void monitorRoller(StatusSignal<Current> current, StatusSignal<AngularVelocity> velocity) {
+    double timeout = 2.0 / ROLLER_MONITOR_FREQUENCY;
+    while (true) {
+      // Wait for the next pair of samples from the motor controller.
+      if (!BaseStatusSignal.waitForAll(timeout, current, velocity).isOK()) {
+        continue;
+      }
+
+      contactDetector.update(
+          Timer.getFPGATimestamp(),
+          current.getValueAsDouble(),
+          velocity.getValueAsDouble(),
+          rollersRunning);
+
+      filteredCurrent = contactDetector.getFilteredCurrent();
+      contactTimestamp = contactDetector.getContactTime();
+      pieceContact = contactDetector.hasContact();
+    }
+  }
+
+  @Override
+  public void updateInputs(IntakeIOInputs inputs) {
+    inputs.rollerConnected = BaseStatusSignal.refreshAll(
+        rollerVelocity, rollerAppliedVolts, rollerSupplyCurrent, rollerStatorCurrent).isOK();
+    inputs.rollerVelocityRPS = rollerVelocity.getValueAsDouble();
+    inputs.rollerAppliedVolts = rollerAppliedVolts.getValueAsDouble();
+    inputs.rollerSupplyCurrentAmps = rollerSupplyCurrent.getValueAsDouble();
+    inputs.rollerStatorCurrentAmps = rollerStatorCurrent.getValueAsDouble();
+    inputs.rollerFilteredCurrentAmps = filteredCurrent;
+    inputs.rollerPieceContact = pieceContact;
+    inputs.rollerContactTimestamp = contactTimestamp;
+
+    inputs.pivotConnected = BaseStatusSignal.refreshAll(
+        pivotPosition, pivotVelocity, pivotAppliedVolts, pivotSupplyCurrent, pivotStatorCurrent).isOK();
+    inputs.pivotPositionRotations = pivotPosition.getValueAsDouble();
+    inputs.pivotVelocityRPS = pivotVelocity.getValueAsDouble();
+    inputs.pivotAppliedVolts = pivotAppliedVolts.getValueAsDouble();
+    inputs.pivotSupplyCurrentAmps = pivotSupplyCurrent.getValueAsDouble();
+    inputs.pivotStatorCurrentAmps = pivotStatorCurrent.getValueAsDouble();
+  }
+
+  @Override
+  public void setRollerVoltage(double volts) {
+    rollerMotor.setControl(rollerVoltageRequest.withOutput(volts));
+    rollersRunning = volts != 0.0;
+  }
+
+  @Override
+  public void stopRoller() {
+    rollerMotor.setControl(rollerNeutralRequest);
+    rollersRunning = false;
+  }
+
+  @Override
+  public void setPivotPosition(double rotations) {
+    pivotMotor.setControl(pivotPositionRequest.withPosition(rotations));
+  }
+
+  @Override
+  public void setPivotVoltage(double volts) {
+    pivotMotor.setControl(pivotVoltageRequest.withOutput(volts));
+  }
+
+  @Override
+  public void resetPivotPosition(double rotations) {
+    // Don't wait for the motor controller to answer, so the main loop
+    // isn't held up.
+    pivotMotor.setPosition(rotations, 0.0);
+  }
+
+  @Override
+  public void configurePivotGains(double kP, double kD, double kG) {
+    pivotMotor.getConfigurator().apply(pivotGains(kP, kD, kG));
+  }
+
+  private static Slot0Configs pivotGains(double kP, double kD, double kG) {
+    Slot0Configs gains = new Slot0Configs();
+    gains.kP = kP;
+    gains.kD = kD;
+
+    // An angle of zero is when the intake is sticking straight out, so the
+    // voltage needed to hold it up follows the cosine of the angle.
+    gains.kG = kG;
+    gains.GravityType = GravityTypeValue.Arm_Cosine;
+    return gains;
+  }
+}
@@ -0,0 +1,60 @@
+package frc.robot.subsystems;
+
+import frc.robot.simulation.CanFaultChannel;
+
+/**
+ * Sends everything between the intake code and the roller and pivot motor
+ * controllers (TalonFX IDs 7 and 8) through a simulated busy CAN bus.
+ */
+public class IntakeIOWithFaults implements IntakeIO {
+  private final IntakeIO io;
+  private final CanFaultChannel<IntakeIOInputs> channel;
+  private final IntakeIOInputs actualInputs;
+
+  public IntakeIOWithFaults(IntakeIO io) {
+    this.io = io;
+    channel = new CanFaultChannel<>("Intake", IntakeIOInputs::new);
+    actualInputs = new IntakeIOInputs();
+  }
+
+  public CanFaultChannel<IntakeIOInputs> getChannel() {
+    return channel;
+  }
+
+  @Override
+  public void updateInputs(IntakeIOInputs inputs) {
+    channel.deliverRequests();
+    io.updateInputs(actualInputs);
+    channel.receiveReadings(actualInputs, inputs);
+  }
+
+  @Override
+  public void setRollerVoltage(double volts) {
+    channel.send(() -> io.setRollerVoltage(volts));
+  }
+
+  @Override
+  public void stopRoller() {
+    channel.send(io::stopRoller);
+  }
+
+  @Override
+  public void setPivotPosition(double rotations) {
+    channel.send(() -> io.setPivotPosition(rotations));
+  }
+
+  @Override
+  public void setPivotVoltage(double volts) {
+    channel.send(() -> io.setPivotVoltage(volts));
+  }
+
+  @Override
+  public void resetPivotPosition(double rotations) {
+    channel.send(() -> io.resetPivotPosition(rotations));
+  }
+
+  @Override
+  public void configurePivotGains(double kP, double kD, double kG) {
+    channel.send(() -> io.configurePivotGains(kP, kD, kG));
+  }
+}
@@ -1,54 +1,124 @@
 package frc.robot.subsystems;
 
-import com.ctre.phoenix6.configs.TalonFXConfiguration;
-import com.ctre.phoenix6.controls.NeutralOut;
-import com.ctre.phoenix6.controls.PositionVoltage;
-import com.ctre.phoenix6.controls.VoltageOut;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.signals.NeutralModeValue;
-
 import edu.wpi.first.units.Units;
 import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.diagnostics.AllocationProfiler;
+import frc.robot.diagnostics.MotorCheck;
+import frc.robot.diagnostics.SelfTestReport;
+import frc.robot.logging.InputLogger;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.TelemetryTable;
+import frc.robot.tuning.AutoTuneCommand;
+import frc.robot.tuning.TunedGains;
+import frc.robot.tuning.Tunables;
 
 public class IntakeSubsystem extends SubsystemBase {
-  private static final Angle RETRACTED_ANGLE = Units.Degrees.of(90.0);
-  private static final Angle EXTENDED_ANGLE = Units.Degrees.of(0.0);
+  public static final Angle RETRACTED_ANGLE = Units.Degrees.of(90.0);
+  public static final Angle EXTENDED_ANGLE = Units.Degrees.of(0.0);
 
   private static final double ROLLER_VOLTAGE = 3.0;
 
-  private final TalonFX rollerMotor;
-  private final TalonFX pivotMotor;
-
-  public IntakeSubsystem() {
-    rollerMotor = new TalonFX(7);
-    pivotMotor = new TalonFX(8);
-
-    // Set the roller to coast mode, since it doesn't need to hold
-    // anything in place.
-    TalonFXConfiguration rollerConfig = new TalonFXConfiguration();
-    rollerConfig.MotorOutput.NeutralMode = NeutralModeValue.Coast;
-    
-    // Set the pivot to brake mode so that it holds the intake steady,
-    // and configure the PID control parameters.
-    TalonFXConfiguration pivotConfig = new TalonFXConfiguration();
-    pivotConfig.MotorOutput.NeutralMode = NeutralModeValue.Brake;
-    pivotConfig.Feedback.SensorToMechanismRatio = 25.0 / 1.0;
-    pivotConfig.Slot0.kP = 0.0; // Should be tuned to the physical robot
-    pivotConfig.Slot0.kD = 0.0; // Should be tuned to the physical robot
-    
-    // Send the configurations to the motor controllers.
-    rollerMotor.getConfigurator().apply(rollerConfig);
-    pivotMotor.getConfigurator().apply(pivotConfig);
-
-    // Tell the pivot motor the initial position of the intake. Here
-    // we're assuming the intake always starts fully retracted.
-    pivotMotor.setPosition(RETRACTED_ANGLE);
-
-    // Give the pivot motor an initial control request to keep the intake
-    // in the retracted position.
-    pivotMotor.setControl(new PositionVoltage(RETRACTED_ANGLE));
+  // The self-test spins the rollers slowly and lowers the intake a little
+  // way, so it can't hit anything.
+  private static final double SELF_TEST_ROLLER_VOLTAGE = 2.0;
+  private static final Angle SELF_TEST_PIVOT_ANGLE = Units.Degrees.of(70.0);
+  private static final double SELF_TEST_SECONDS = 1.5;
+  private static final double SELF_TEST_MIN_ROLLER_SPEED_RPS = 1.0;
+  private static final double SELF_TEST_MIN_PIVOT_SPEED_RPS = 0.01;
+  private static final double SELF_TEST_MAX_CURRENT_AMPS = 20.0;
+
+  // Homing lifts the intake gently into its retracted hard stop. It's
+  // there once the pivot motor pulls a lot of current without turning.
+  private static final double HOMING_VOLTAGE = 1.5;
+  private static final double HOMING_STALL_CURRENT_AMPS = 30.0;
+  private static final double HOMING_STALL_VELOCITY_RPS = 0.02;
+  private static final double HOMING_DEBOUNCE_SECONDS = 0.1;
+  private static final double HOMING_TIMEOUT_SECONDS = 0.8;
+
+  // Settings for the pivot auto-tuner. The first step moves the intake
+  // down, since it starts out retracted.
+  private static final double TUNE_STEP_VOLTAGE = -1.0;
+  private static final double TUNE_MARGIN_ROTATIONS = 0.02;
+  private static final double TUNE_SETTLE_SECONDS = 0.3;
+
+  private final IntakeIO io;
+  private final IntakeIO.IntakeIOInputs inputs;
+
+  private final HardStopDetector retractedStop;
+  private boolean homed;
+
+  // Can be changed from the dashboard under "Tuning/Intake".
+  private double rollerVoltage = ROLLER_VOLTAGE;
+
+  // The pivot gains are sent to the motor controller by a background
+  // thread when they're changed on the dashboard, and by the auto-tuner.
+  private volatile double pivotKP = TunedGains.get("Intake.Pivot.kP", 0.0);
+  private volatile double pivotKD = TunedGains.get("Intake.Pivot.kD", 0.0);
+  private volatile double pivotKG = TunedGains.get("Intake.Pivot.kG", 0.0);
+
+  public IntakeSubsystem(IntakeIO io) {
+    this.io = io;
+    inputs = new IntakeIO.IntakeIOInputs();
+    retractedStop = new HardStopDetector(
+        HOMING_STALL_CURRENT_AMPS, HOMING_STALL_VELOCITY_RPS, HOMING_DEBOUNCE_SECONDS);
+
+    // Show the intake's state on the dashboard.
+    TelemetryTable telemetry = Telemetry.getTable("Intake");
+    telemetry.addDouble("PivotAngleDegrees", 0.05,
+        () -> inputs.pivotPositionRotations * 360.0);
+    telemetry.addDouble("PivotSupplyCurrent", () -> inputs.pivotSupplyCurrentAmps);
+    telemetry.addDouble("RollerSupplyCurrent", () -> inputs.rollerSupplyCurrentAmps);
+    telemetry.addDouble("RollerFilteredCurrent", 0.02, () -> inputs.rollerFilteredCurrentAmps);
+    telemetry.addBoolean("PieceContact", 0.02, this::hasPieceContact);
+    telemetry.addBoolean("Homed", () -> homed);
+
+    Tunables.addDouble("Intake/RollerVoltage", ROLLER_VOLTAGE, value -> rollerVoltage = value);
+    Tunables.addConfig("Intake/PivotKP", pivotKP, value -> {
+      pivotKP = value;
+      io.configurePivotGains(pivotKP, pivotKD, pivotKG);
+      TunedGains.set("Intake.Pivot.kP", value);
+    });
+    Tunables.addConfig("Intake/PivotKD", pivotKD, value -> {
+      pivotKD = value;
+      io.configurePivotGains(pivotKP, pivotKD, pivotKG);
+      TunedGains.set("Intake.Pivot.kD", value);
+    });
+    Tunables.addConfig("Intake/PivotKG", pivotKG, value -> {
+      pivotKG = value;
+      io.configurePivotGains(pivotKP, pivotKD, pivotKG);
+      TunedGains.set("Intake.Pivot.kG", value);
+    });
+  }
+
+  @Override
+  public void periodic() {
+    AllocationProfiler.mark("Intake");
+
+    // Read the sensors once per loop, and save them to the log.
+    io.updateInputs(inputs);
+    InputLogger.processInputs("Intake", inputs);
+  }
+
+  /**
+   * Gets whether a game piece is being pulled in by the rollers. This is
+   * detected from the roller current, so it's known well before the piece
+   * reaches the indexer's beam break.
+   */
+  public boolean hasPieceContact() {
+    return inputs.rollerPieceContact;
+  }
+
+  /** Gets when the rollers first touched the current piece, in seconds. */
+  public double getPieceContactTime() {
+    return inputs.rollerContactTimestamp;
+  }
+
+  /** Gets the total current drawn from the battery by the intake's motors. */
+  public double getSupplyCurrentAmps() {
+    return inputs.rollerSupplyCurrentAmps + inputs.pivotSupplyCurrentAmps;
   }
 
   public Command extend() {
@@ -57,20 +127,161 @@ public class IntakeSubsystem extends SubsystemBase {
           // This will be run once when the command starts.
 
           // Tell the pivot motor to extend the intake.
-          pivotMotor.setControl(new PositionVoltage(EXTENDED_ANGLE));
+          io.setPivotPosition(EXTENDED_ANGLE.in(Units.Rotations));
 
           // Tell the roller motor to spin the rollers.
-          rollerMotor.setControl(new VoltageOut(ROLLER_VOLTAGE));
+          io.setRollerVoltage(rollerVoltage);
         }, 
         () -> {
           // This will be run once when the command stops.
 
           // Tell the pivot motor to retract the intake.
-          pivotMotor.setControl(new PositionVoltage(EXTENDED_ANGLE));
+          io.setPivotPosition(RETRACTED_ANGLE.in(Units.Rotations));
 
           // Tell the roller motor to turn off the rollers to conserve
           // battery power.
-          rollerMotor.setControl(new NeutralOut());
+          io.stopRoller();
+        }).withName("Extend");
+  }
+
+  /**
+   * Keeps the intake out with the rollers stopped, holding a piece until
+   * the indexer has room for it.
+   */
+  public Command hold() {
+    return this.startEnd(
+        () -> {
+          io.setPivotPosition(EXTENDED_ANGLE.in(Units.Rotations));
+          io.stopRoller();
+        },
+        () -> io.setPivotPosition(RETRACTED_ANGLE.in(Units.Rotations)))
+        .withName("Hold");
+  }
+
+  /** Gets whether the pivot angle has been found by {@link #home()}. */
+  public boolean isHomed() {
+    return homed;
+  }
+
+  /**
+   * Lifts the intake gently until it stops against the retracted hard
+   * stop, then tells the pivot motor that it's at the retracted angle.
+   * Until this has run, the intake is assumed to have started retracted.
+   * This does nothing once the intake has been homed.
+   */
+  public Command home() {
+    return this.startRun(
+        retractedStop::reset,
+        () -> {
+          io.setPivotVoltage(HOMING_VOLTAGE);
+          retractedStop.update(inputs.pivotStatorCurrentAmps, inputs.pivotVelocityRPS);
+        })
+        .until(retractedStop::isStopped)
+        .withTimeout(HOMING_TIMEOUT_SECONDS)
+        .finallyDo(interrupted -> {
+          if (retractedStop.isStopped()) {
+            io.resetPivotPosition(RETRACTED_ANGLE.in(Units.Rotations));
+            homed = true;
+          } else if (!interrupted) {
+            DriverStation.reportWarning(
+                "Intake didn't find its hard stop, so its starting angle is used", false);
+          }
+
+          // Hold the intake where it is meant to be.
+          io.setPivotPosition(RETRACTED_ANGLE.in(Units.Rotations));
+        })
+        .unless(() -> homed)
+        .withName("Home");
+  }
+
+  /**
+   * Finds PID gains for the pivot by moving it back and forth, then saves
+   * them for the next time the robot starts. This should only be run in
+   * test mode, with the intake clear of anything it could hit.
+   */
+  public Command autoTune() {
+    AutoTuneCommand.Mechanism pivot = new AutoTuneCommand.Mechanism() {
+      @Override
+      public void setVoltage(double volts) {
+        io.setPivotVoltage(volts);
+      }
+
+      @Override
+      public double getPosition() {
+        return inputs.pivotPositionRotations;
+      }
+
+      @Override
+      public double getVelocity() {
+        return inputs.pivotVelocityRPS;
+      }
+
+      @Override
+      public void applyGains(double kP, double kD, double kV, double kG) {
+        // The tuner measures the average pull of gravity over the quarter
+        // turn the intake swings through, which is 2/pi of the pull when
+        // the intake is sticking straight out.
+        double horizontalKG = kG * Math.PI / 2.0;
+
+        io.configurePivotGains(kP, kD, horizontalKG);
+
+        // Keep the dashboard numbers in step, so that changing one of them
+        // later doesn't send the old values of the others.
+        pivotKP = kP;
+        pivotKD = kD;
+        pivotKG = horizontalKG;
+        Tunables.set("Intake/PivotKP", kP);
+        Tunables.set("Intake/PivotKD", kD);
+        Tunables.set("Intake/PivotKG", horizontalKG);
+
+        TunedGains.set("Intake.Pivot.kP", kP);
+        TunedGains.set("Intake.Pivot.kD", kD);
+        TunedGains.set("Intake.Pivot.kG", horizontalKG);
+      }
+    };
+
+    return new AutoTuneCommand(
+        "Intake pivot",
+        pivot,
+        TUNE_STEP_VOLTAGE,
+        EXTENDED_ANGLE.in(Units.Rotations) + TUNE_MARGIN_ROTATIONS,
+        RETRACTED_ANGLE.in(Units.Rotations) - TUNE_MARGIN_ROTATIONS,
+        TUNE_SETTLE_SECONDS,
+        this);
+  }
+
+  /**
+   * Spins the rollers and lowers the intake a little way, and checks that
+   * both motors respond, move the right way and draw a sensible current.
+   */
+  public Command selfTest(SelfTestReport report) {
+    MotorCheck rollerCheck = new MotorCheck(
+        "Intake/Roller", SELF_TEST_MIN_ROLLER_SPEED_RPS, SELF_TEST_MAX_CURRENT_AMPS);
+    MotorCheck pivotCheck = new MotorCheck(
+        "Intake/Pivot", SELF_TEST_MIN_PIVOT_SPEED_RPS, SELF_TEST_MAX_CURRENT_AMPS);
+
+    return this.startRun(
+        () -> {
+          rollerCheck.reset();
+          pivotCheck.reset();
+          io.setRollerVoltage(SELF_TEST_ROLLER_VOLTAGE);
+          io.setPivotPosition(SELF_TEST_PIVOT_ANGLE.in(Units.Rotations));
+        },
+        () -> {
+          rollerCheck.sample(inputs.rollerConnected, inputs.rollerVelocityRPS,
+              inputs.rollerSupplyCurrentAmps);
+          pivotCheck.sample(inputs.pivotConnected, inputs.pivotVelocityRPS,
+              inputs.pivotSupplyCurrentAmps);
+        })
+        .withTimeout(SELF_TEST_SECONDS)
+        .finallyDo(() -> {
+          io.stopRoller();
+          io.setPivotPosition(RETRACTED_ANGLE.in(Units.Rotations));
+
+          rollerCheck.report(report, 1.0);
+
+          // Lowering the intake makes the angle smaller.
+          pivotCheck.report(report, -1.0);
         });
   }
 }
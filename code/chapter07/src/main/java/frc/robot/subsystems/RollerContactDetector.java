@@ -0,0 +1,112 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.filter.LinearFilter;
+
+/**
+ * Detects when a game piece touches a set of rollers, by watching for the
+ * jump in current and drop in speed that happens when the rollers start
+ * pushing on something. This is meant to be fed samples much faster than
+ * the main robot loop runs.
+ */
+class RollerContactDetector {
+  // Ignore the surge of current that happens while the rollers spin up.
+  private static final double SPIN_UP_SECONDS = 0.25;
+
+  // How far the current has to rise above normal to count as contact.
+  private static final double CURRENT_RISE_AMPS = 8.0;
+
+  // The rollers slow down to at least this fraction of their free speed
+  // when they grab a piece.
+  private static final double SLOWDOWN_FRACTION = 0.85;
+
+  // Contact must last this long, so a single noisy sample is ignored.
+  private static final double DEBOUNCE_SECONDS = 0.012;
+
+  // Filters are set up for samples every 4 ms. The fast filter smooths
+  // out noise, and the slow one learns the normal free-spinning values.
+  private final LinearFilter fastCurrent = LinearFilter.movingAverage(3);
+  private final LinearFilter baselineCurrent = LinearFilter.singlePoleIIR(0.2, 0.004);
+  private final LinearFilter baselineVelocity = LinearFilter.singlePoleIIR(0.2, 0.004);
+
+  private boolean running;
+  private double runningSince;
+  private double spikeSince = Double.NaN;
+  private boolean contact;
+  private double contactTime;
+  private double filteredCurrent;
+
+  /**
+   * Adds a new sample.
+   *
+   * @param timestamp when the sample was measured, in seconds
+   * @param currentAmps the roller motor's stator current
+   * @param velocityRPS the roller motor's speed
+   * @param rollersRunning whether the rollers are being told to spin
+   */
+  void update(double timestamp, double currentAmps, double velocityRPS, boolean rollersRunning) {
+    if (!rollersRunning) {
+      // Start over the next time the rollers turn on.
+      running = false;
+      contact = false;
+      spikeSince = Double.NaN;
+      fastCurrent.reset();
+      filteredCurrent = currentAmps;
+      return;
+    }
+
+    if (!running) {
+      running = true;
+      runningSince = timestamp;
+      baselineCurrent.reset();
+      baselineVelocity.reset();
+    }
+
+    filteredCurrent = fastCurrent.calculate(currentAmps);
+
+    if (timestamp - runningSince < SPIN_UP_SECONDS) {
+      // Still spinning up, so just learn what normal looks like.
+      baselineCurrent.calculate(currentAmps);
+      baselineVelocity.calculate(Math.abs(velocityRPS));
+      return;
+    }
+
+    if (contact) {
+      // Stay latched until the rollers stop, since the piece keeps
+      // moving through them.
+      return;
+    }
+
+    double normalCurrent = baselineCurrent.lastValue();
+    double normalVelocity = baselineVelocity.lastValue();
+    boolean spiking = filteredCurrent > normalCurrent + CURRENT_RISE_AMPS
+        && Math.abs(velocityRPS) < normalVelocity * SLOWDOWN_FRACTION;
+
+    if (spiking) {
+      if (Double.isNaN(spikeSince)) {
+        spikeSince = timestamp;
+      } else if (timestamp - spikeSince >= DEBOUNCE_SECONDS) {
+        contact = true;
+        contactTime = spikeSince;
+      }
+    } else {
+      spikeSince = Double.NaN;
+
+      // Only learn from samples where nothing is touching the rollers.
+      baselineCurrent.calculate(currentAmps);
+      baselineVelocity.calculate(Math.abs(velocityRPS));
+    }
+  }
+
+  boolean hasContact() {
+    return contact;
+  }
+
+  /** Gets when the contact started, in seconds. */
+  double getContactTime() {
+    return contactTime;
+  }
+
+  double getFilteredCurrent() {
+    return filteredCurrent;
+  }
+}
@@ -0,0 +1,45 @@
+package frc.robot.subsystems;
+
+import frc.robot.logging.LogTable;
+import frc.robot.logging.LoggableInputs;
+
+/**
+ * The hardware used by the shooter. The methods here do nothing by default,
+ * which is what is used when replaying a log.
+ */
+public interface ShooterIO {
+  public static class ShooterIOInputs implements LoggableInputs {
+    public boolean connected;
+    public double velocityRPS;
+    public double appliedVolts;
+    public double supplyCurrentAmps;
+    public double statorCurrentAmps;
+
+    @Override
+    public void toLog(LogTable table) {
+      table.put("Connected", connected);
+      table.put("VelocityRPS", velocityRPS);
+      table.put("AppliedVolts", appliedVolts);
+      table.put("SupplyCurrentAmps", supplyCurrentAmps);
+      table.put("StatorCurrentAmps", statorCurrentAmps);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+      connected = table.get("Connected", connected);
+      velocityRPS = table.get("VelocityRPS", velocityRPS);
+      appliedVolts = table.get("AppliedVolts", appliedVolts);
+      supplyCurrentAmps = table.get("SupplyCurrentAmps", supplyCurrentAmps);
+      statorCurrentAmps = table.get("StatorCurrentAmps", statorCurrentAmps);
+    }
+  }
+
+  /** Reads the latest sensor values. */
+  default void updateInputs(ShooterIOInputs inputs) {}
+
+  /** Runs the flywheel at a voltage. */
+  default void setVoltage(double volts) {}
+
+  /** Lets the flywheel coast. */
+  default void stop() {}
+}
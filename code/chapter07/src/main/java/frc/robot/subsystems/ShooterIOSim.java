@@ -0,0 +1,45 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix6.sim.TalonFXSimState;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+
+/**
+ * The shooter in simulation. This uses the same TalonFX code as the real
+ * robot, and feeds the simulated motor controller with a physics model of
+ * the flywheel.
+ */
+public class ShooterIOSim extends ShooterIOTalonFX {
+  private static final double FLYWHEEL_MOI = 0.004; // kg*m^2
+  private static final double LOOP_PERIOD = 0.02;
+
+  private final TalonFXSimState simState;
+  private final FlywheelSim flywheelSim;
+
+  public ShooterIOSim() {
+    simState = flywheelMotor.getSimState();
+
+    DCMotor gearbox = DCMotor.getKrakenX60(1);
+    flywheelSim = new FlywheelSim(
+        LinearSystemId.createFlywheelSystem(gearbox, FLYWHEEL_MOI, 1.0),
+        gearbox);
+  }
+
+  @Override
+  public void updateInputs(ShooterIOInputs inputs) {
+    // Run the physics using the voltage the simulated motor controller
+    // is applying.
+    simState.setSupplyVoltage(RobotController.getBatteryVoltage());
+    flywheelSim.setInputVoltage(simState.getMotorVoltage());
+    flywheelSim.update(LOOP_PERIOD);
+
+    double velocityRPS = flywheelSim.getAngularVelocityRPM() / 60.0;
+    simState.setRotorVelocity(velocityRPS);
+    simState.addRotorPosition(velocityRPS * LOOP_PERIOD);
+
+    super.updateInputs(inputs);
+  }
+}
@@ -0,0 +1,69 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.NeutralOut;
+import com.ctre.phoenix6.controls.VoltageOut;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.units.measure.Voltage;
+
+/** The shooter flywheel on a real robot, driven by a TalonFX. */
+public class ShooterIOTalonFX implements ShooterIO {
+  protected final TalonFX flywheelMotor;
+
+  private final StatusSignal<AngularVelocity> velocity;
+  private final StatusSignal<Voltage> appliedVolts;
+  private final StatusSignal<Current> supplyCurrent;
+  private final StatusSignal<Current> statorCurrent;
+
+  // Control requests are reused so that we don't create new objects
+  // every loop.
+  private final VoltageOut voltageRequest = new VoltageOut(0.0);
+  private final NeutralOut neutralRequest = new NeutralOut();
+
+  public ShooterIOTalonFX() {
+    flywheelMotor = new TalonFX(5);
+
+    // Set the motor to coast mode so that it can spin down slowly
+    // when stopping.
+    TalonFXConfiguration flywheelConfig = new TalonFXConfiguration();
+    flywheelConfig.MotorOutput.NeutralMode = NeutralModeValue.Coast;
+
+    // Send the configuration to the motor controller.
+    flywheelMotor.getConfigurator().apply(flywheelConfig);
+
+    velocity = flywheelMotor.getVelocity();
+    appliedVolts = flywheelMotor.getMotorVoltage();
+    supplyCurrent = flywheelMotor.getSupplyCurrent();
+    statorCurrent = flywheelMotor.getStatorCurrent();
+
+    // Ask for the signals we use every loop, and turn off the rest to
+    // save CAN bandwidth.
+    BaseStatusSignal.setUpdateFrequencyForAll(50.0, velocity, appliedVolts, supplyCurrent, statorCurrent);
+    flywheelMotor.optimizeBusUtilization();
+  }
+
+  @Override
+  public void updateInputs(ShooterIOInputs inputs) {
+    inputs.connected = BaseStatusSignal.refreshAll(velocity, appliedVolts, supplyCurrent, statorCurrent).isOK();
+    inputs.velocityRPS = velocity.getValueAsDouble();
+    inputs.appliedVolts = appliedVolts.getValueAsDouble();
+    inputs.supplyCurrentAmps = supplyCurrent.getValueAsDouble();
+    inputs.statorCurrentAmps = statorCurrent.getValueAsDouble();
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    flywheelMotor.setControl(voltageRequest.withOutput(volts));
+  }
+
+  @Override
+  public void stop() {
+    flywheelMotor.setControl(neutralRequest);
+  }
+}
@@ -0,0 +1,40 @@
+package frc.robot.subsystems;
+
+import frc.robot.simulation.CanFaultChannel;
+
+/**
+ * Sends everything between the shooter code and the flywheel motor
+ * controller (TalonFX ID 5) through a simulated busy CAN bus.
+ */
+public class ShooterIOWithFaults implements ShooterIO {
+  private final ShooterIO io;
+  private final CanFaultChannel<ShooterIOInputs> channel;
+  private final ShooterIOInputs actualInputs;
+
+  public ShooterIOWithFaults(ShooterIO io) {
+    this.io = io;
+    channel = new CanFaultChannel<>("Shooter", ShooterIOInputs::new);
+    actualInputs = new ShooterIOInputs();
+  }
+
+  public CanFaultChannel<ShooterIOInputs> getChannel() {
+    return channel;
+  }
+
+  @Override
+  public void updateInputs(ShooterIOInputs inputs) {
+    channel.deliverRequests();
+    io.updateInputs(actualInputs);
+    channel.receiveReadings(actualInputs, inputs);
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    channel.send(() -> io.setVoltage(volts));
+  }
+
+  @Override
+  public void stop() {
+    channel.send(io::stop);
+  }
+}
@@ -1,41 +1,223 @@
 package frc.robot.subsystems;
 
-import com.ctre.phoenix6.configs.TalonFXConfiguration;
-import com.ctre.phoenix6.controls.NeutralOut;
-import com.ctre.phoenix6.controls.VoltageOut;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.signals.NeutralModeValue;
-
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.FunctionalCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.diagnostics.AllocationProfiler;
+import frc.robot.diagnostics.MotorCheck;
+import frc.robot.diagnostics.SelfTestReport;
+import frc.robot.logging.InputLogger;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.TelemetryTable;
+import frc.robot.tuning.Tunables;
 
 public class ShooterSubsystem extends SubsystemBase {
     private static final double SHOOT_VOLTAGE = 6.0;
 
-    private final TalonFX flywheelMotor;
+    // Volts needed per rotation per second of flywheel speed, used to work
+    // out how fast the flywheel should end up spinning.
+    private static final double FLYWHEEL_KV = 0.12; // Should be measured on the physical robot
+
+    // The flywheel is ready to shoot once it reaches this fraction of the
+    // speed it's heading towards.
+    private static final double READY_FRACTION = 0.9;
+
+    // A shot is detected when the flywheel suddenly slows down by more than
+    // this fraction of its steady speed.
+    private static final double SHOT_DIP_FRACTION = 0.05;
+
+    // After a shot, the flywheel has recovered once it's back within this
+    // fraction of the speed it had before the shot, or of the speed it's
+    // heading towards now if that's lower.
+    private static final double RECOVERED_TOLERANCE = 0.02;
+
+    // Stop waiting for the flywheel to recover after this long, in case a
+    // low battery keeps it from getting back up to speed.
+    private static final double RECOVERY_TIMEOUT_SECONDS = 1.0;
+
+    // How much each loop's speed counts towards the steady speed. Smaller
+    // numbers make the steady speed follow more slowly.
+    private static final double STEADY_SMOOTHING = 0.2;
+
+    // The self-test spins the flywheel gently for a short time.
+    private static final double SELF_TEST_VOLTAGE = 2.0;
+    private static final double SELF_TEST_SECONDS = 1.0;
+    private static final double SELF_TEST_MIN_SPEED_RPS = 2.0;
+    private static final double SELF_TEST_MAX_CURRENT_AMPS = 20.0;
+
+    // Can be changed from the dashboard under "Tuning/Shooter".
+    private double shootVoltage = SHOOT_VOLTAGE;
+
+    private final ShooterIO io;
+    private final ShooterIO.ShooterIOInputs inputs;
+
+    // Shot detection
+    private boolean spinning;
+    private double steadyVelocity;
+    private boolean recovering;
+    private double preShotVelocity;
+    private double shotTime;
+    private double lowestVelocity;
+    private int shotCount;
+    private double lastDipRPS;
+    private double lastRecoverySeconds;
+    private double totalRecoverySeconds;
+    private int recoveredCount;
+
+    public ShooterSubsystem(ShooterIO io) {
+        this.io = io;
+        inputs = new ShooterIO.ShooterIOInputs();
+
+        // Show the flywheel's state on the dashboard. The speed is sent more
+        // often since it's useful to watch while shooting.
+        TelemetryTable telemetry = Telemetry.getTable("Shooter");
+        telemetry.addDouble("FlywheelVelocityRPS", 0.02, () -> inputs.velocityRPS);
+        telemetry.addDouble("FlywheelVoltage", () -> inputs.appliedVolts);
+        telemetry.addDouble("FlywheelSupplyCurrent", () -> inputs.supplyCurrentAmps);
+        telemetry.addDouble("ShotCount", () -> shotCount);
+        telemetry.addDouble("LastDipRPS", () -> lastDipRPS);
+        telemetry.addDouble("LastRecoverySeconds", () -> lastRecoverySeconds);
+        telemetry.addDouble("AverageRecoverySeconds",
+                () -> recoveredCount > 0 ? totalRecoverySeconds / recoveredCount : 0.0);
+        telemetry.addBoolean("ReadyToFire", 0.02, this::isReadyToFire);
+
+        Tunables.addDouble("Shooter/ShootVoltage", SHOOT_VOLTAGE, value -> shootVoltage = value);
+    }
+
+    @Override
+    public void periodic() {
+        AllocationProfiler.mark("Shooter");
+
+        // Read the sensors once per loop, and save them to the log.
+        io.updateInputs(inputs);
+        InputLogger.processInputs("Shooter", inputs);
+
+        detectShots();
+    }
+
+    /** Gets whether the flywheel is spinning fast enough to shoot. */
+    public boolean isAtSpeed() {
+        return isFastEnough(inputs.velocityRPS);
+    }
 
-    public ShooterSubsystem() {
-        flywheelMotor = new TalonFX(5);
+    /**
+     * Gets whether the flywheel is at speed and has recovered from the last
+     * shot, so the next piece will leave at the same speed.
+     */
+    public boolean isReadyToFire() {
+        return !recovering && isAtSpeed();
+    }
 
-        // Set the motor to coast mode so that it can spin down slowly
-        // when stopping.
-        TalonFXConfiguration flywheelConfig = new TalonFXConfiguration();
-        flywheelConfig.MotorOutput.NeutralMode = NeutralModeValue.Coast;
+    /** Gets how many shots have been detected since the robot started. */
+    public int getShotCount() {
+        return shotCount;
+    }
 
-        // Send the configuration to the motor controller.
-        flywheelMotor.getConfigurator().apply(flywheelConfig);
+    /** Gets the current drawn from the battery by the flywheel motor. */
+    public double getSupplyCurrentAmps() {
+        return inputs.supplyCurrentAmps;
+    }
+
+    /**
+     * Waits until the next shot is detected. This doesn't require the
+     * shooter, so it can run alongside the command spinning the flywheel.
+     */
+    public Command waitForShot() {
+        int[] countAtStart = new int[1];
+        return new FunctionalCommand(
+                () -> countAtStart[0] = shotCount,
+                () -> {},
+                interrupted -> {},
+                () -> shotCount != countAtStart[0]);
     }
 
     public Command idle() {
         return this.run(() -> {
             // Stop the flywheel to conserve battery power.
-            flywheelMotor.setControl(new NeutralOut());
-        });
+            io.stop();
+            spinning = false;
+        }).withName("Idle");
     }
 
     public Command spinFlywheel() {
         return this.run(() -> {
-            flywheelMotor.setControl(new VoltageOut(SHOOT_VOLTAGE));
-        });
+            io.setVoltage(shootVoltage);
+            spinning = true;
+        }).withName("SpinFlywheel");
+    }
+
+    private boolean isFastEnough(double velocity) {
+        return velocity >= READY_FRACTION * shootVoltage / FLYWHEEL_KV;
+    }
+
+    private void detectShots() {
+        double velocity = inputs.velocityRPS;
+        if (!spinning) {
+            recovering = false;
+            steadyVelocity = velocity;
+            return;
+        }
+
+        if (recovering) {
+            lowestVelocity = Math.min(lowestVelocity, velocity);
+
+            // The shoot voltage may have been lowered from the dashboard
+            // since the shot, so don't wait for a speed we can't reach.
+            double recoveredVelocity = Math.min(preShotVelocity, shootVoltage / FLYWHEEL_KV);
+            double secondsSinceShot = Timer.getFPGATimestamp() - shotTime;
+            if (velocity >= recoveredVelocity * (1.0 - RECOVERED_TOLERANCE)) {
+                recovering = false;
+                lastDipRPS = preShotVelocity - lowestVelocity;
+                lastRecoverySeconds = secondsSinceShot;
+                totalRecoverySeconds += lastRecoverySeconds;
+                recoveredCount++;
+                steadyVelocity = velocity;
+            } else if (secondsSinceShot >= RECOVERY_TIMEOUT_SECONDS) {
+                // Give up without counting this towards the recovery times,
+                // and look for the next shot from the speed we have now.
+                recovering = false;
+                steadyVelocity = velocity;
+            }
+            return;
+        }
+
+        // A piece passing through the flywheel takes energy out of it, so
+        // its speed drops much faster than it could by itself.
+        if (isFastEnough(steadyVelocity) && velocity < steadyVelocity * (1.0 - SHOT_DIP_FRACTION)) {
+            recovering = true;
+            preShotVelocity = steadyVelocity;
+            lowestVelocity = velocity;
+            shotTime = Timer.getFPGATimestamp();
+            shotCount++;
+
+            // Saved with the time of the loop that saw it, so the log
+            // analyzer can time each cycle.
+            InputLogger.recordEvent("Shooter/ShotCount", shotCount);
+            return;
+        }
+
+        steadyVelocity += (velocity - steadyVelocity) * STEADY_SMOOTHING;
+    }
+
+    /**
+     * Spins the flywheel gently and checks that the motor responds, spins
+     * forward and draws a sensible current.
+     */
+    public Command selfTest(SelfTestReport report) {
+        MotorCheck check = new MotorCheck(
+                "Shooter", SELF_TEST_MIN_SPEED_RPS, SELF_TEST_MAX_CURRENT_AMPS);
+
+        return this.startRun(
+                check::reset,
+                () -> {
+                    io.setVoltage(SELF_TEST_VOLTAGE);
+                    check.sample(inputs.connected, inputs.velocityRPS, inputs.supplyCurrentAmps);
+                })
+                .withTimeout(SELF_TEST_SECONDS)
+                .finallyDo(() -> {
+                    io.stop();
+                    check.report(report, 1.0);
+                });
     }
 }
@@ -0,0 +1,74 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.filter.SlewRateLimiter;
+
+/**
+ * Limits the output of one side of the drive base so that the wheels never
+ * try to accelerate faster than the carpet can push the robot.
+ *
+ * <p>With encoders, this uses a model of the motors to work out the largest
+ * voltage that still keeps the wheels gripping. That lets the robot use all
+ * of its traction the whole way up to top speed, instead of ramping slowly.
+ * Without encoders, it falls back to a simple limit on how fast the output
+ * can change.
+ */
+class TractionLimiter {
+  private final double kV;
+  private final double kA;
+  private final SlewRateLimiter fallbackLimiter;
+
+  private double lastOutput;
+
+  /**
+   * @param kV volts needed per meter per second of wheel speed
+   * @param kA volts needed per meter per second squared of acceleration
+   * @param fallbackRate how fast the output can change without encoders, in
+   *     units per second
+   */
+  TractionLimiter(double kV, double kA, double fallbackRate) {
+    this.kV = kV;
+    this.kA = kA;
+    fallbackLimiter = new SlewRateLimiter(fallbackRate);
+  }
+
+  /**
+   * Limits an output.
+   *
+   * @param desiredOutput the output the driver asked for, between -1 and 1
+   * @param groundSpeed how fast this side of the robot is moving over the
+   *     ground, in meters per second
+   * @param maxAccel the most acceleration the wheels can handle
+   * @param busVoltage the voltage at the motor controllers
+   * @param hasEncoders whether the ground speed is known
+   */
+  double calculate(
+      double desiredOutput,
+      double groundSpeed,
+      double maxAccel,
+      double busVoltage,
+      boolean hasEncoders) {
+    if (!hasEncoders || busVoltage <= 0.0) {
+      lastOutput = fallbackLimiter.calculate(desiredOutput);
+      return lastOutput;
+    }
+
+    // A motor needs kV * speed volts to hold its speed, plus kA volts for
+    // each m/s^2 of acceleration. Anything beyond that spins the wheels.
+    double holdVolts = kV * groundSpeed;
+    double tractionVolts = kA * maxAccel;
+    double minOutput = (holdVolts - tractionVolts) / busVoltage;
+    double maxOutput = (holdVolts + tractionVolts) / busVoltage;
+
+    lastOutput = MathUtil.clamp(desiredOutput, minOutput, maxOutput);
+    lastOutput = MathUtil.clamp(lastOutput, -1.0, 1.0);
+
+    // Keep the fallback in step, in case the encoders stop reporting.
+    fallbackLimiter.reset(lastOutput);
+    return lastOutput;
+  }
+
+  double getLastOutput() {
+    return lastOutput;
+  }
+}
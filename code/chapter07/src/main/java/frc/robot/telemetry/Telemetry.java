@@ -0,0 +1,42 @@
+package frc.robot.telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Keeps track of every {@link TelemetryTable} on the robot so that they can
+ * all be updated once per loop from {@code Robot.robotPeriodic()}.
+ */
+public final class Telemetry {
+  private static final List<TelemetryTable> tables = new ArrayList<>();
+
+  private Telemetry() {}
+
+  /**
+   * Creates a table of telemetry values. This should be called once when the
+   * robot starts, usually from a subsystem's constructor.
+   *
+   * @param name the NetworkTables table the values are published under
+   */
+  public static TelemetryTable getTable(String name) {
+    for (TelemetryTable table : tables) {
+      if (table.getName().equals(name)) {
+        return table;
+      }
+    }
+
+    TelemetryTable table = new TelemetryTable(name);
+    tables.add(table);
+    return table;
+  }
+
+  /** Publishes every value that is due and has changed since it was last sent. */
+  public static void update() {
+    double now = Timer.getFPGATimestamp();
+    for (int i = 0; i < tables.size(); i++) {
+      tables.get(i).update(now);
+    }
+  }
+}
@@ -0,0 +1,166 @@
+package frc.robot.telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.networktables.StructPublisher;
+import edu.wpi.first.util.struct.Struct;
+
+/**
+ * A group of values that are published to NetworkTables. Each value gets a
+ * typed publisher when it's added, so publishing doesn't need to look
+ * anything up by name while the robot is running. Values are only sampled
+ * at their own rate, and only sent when they change.
+ */
+public class TelemetryTable {
+  // How often values are published if a rate isn't given.
+  public static final double DEFAULT_PERIOD = 0.1;
+
+  private final String name;
+  private final NetworkTable table;
+  private final List<Entry> entries;
+
+  TelemetryTable(String name) {
+    this.name = name;
+    table = NetworkTableInstance.getDefault().getTable(name);
+    entries = new ArrayList<>();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void addDouble(String key, DoubleSupplier supplier) {
+    addDouble(key, DEFAULT_PERIOD, supplier);
+  }
+
+  /**
+   * Adds a number to the table.
+   *
+   * @param key the name of the value within the table
+   * @param periodSeconds how often the value is sampled and published
+   * @param supplier gets the current value
+   */
+  public void addDouble(String key, double periodSeconds, DoubleSupplier supplier) {
+    DoublePublisher publisher = table.getDoubleTopic(key).publish(options(periodSeconds));
+    entries.add(new Entry(periodSeconds) {
+      private double lastValue;
+
+      @Override
+      boolean publishIfChanged(boolean force) {
+        double value = supplier.getAsDouble();
+        if (!force && value == lastValue) {
+          return false;
+        }
+        lastValue = value;
+        publisher.set(value);
+        return true;
+      }
+    });
+  }
+
+  public void addBoolean(String key, BooleanSupplier supplier) {
+    addBoolean(key, DEFAULT_PERIOD, supplier);
+  }
+
+  /**
+   * Adds a true/false value to the table.
+   *
+   * @param key the name of the value within the table
+   * @param periodSeconds how often the value is sampled and published
+   * @param supplier gets the current value
+   */
+  public void addBoolean(String key, double periodSeconds, BooleanSupplier supplier) {
+    BooleanPublisher publisher = table.getBooleanTopic(key).publish(options(periodSeconds));
+    entries.add(new Entry(periodSeconds) {
+      private boolean lastValue;
+
+      @Override
+      boolean publishIfChanged(boolean force) {
+        boolean value = supplier.getAsBoolean();
+        if (!force && value == lastValue) {
+          return false;
+        }
+        lastValue = value;
+        publisher.set(value);
+        return true;
+      }
+    });
+  }
+
+  /**
+   * Adds a structured value, such as a Pose2d, to the table.
+   *
+   * @param key the name of the value within the table
+   * @param struct describes how to pack the value, for example {@code Pose2d.struct}
+   * @param periodSeconds how often the value is sampled and published
+   * @param supplier gets the current value
+   */
+  public <T> void addStruct(String key, Struct<T> struct, double periodSeconds, Supplier<T> supplier) {
+    StructPublisher<T> publisher = table.getStructTopic(key, struct).publish(options(periodSeconds));
+    entries.add(new Entry(periodSeconds) {
+      private T lastValue;
+
+      @Override
+      boolean publishIfChanged(boolean force) {
+        T value = supplier.get();
+        if (!force && value.equals(lastValue)) {
+          return false;
+        }
+        lastValue = value;
+        publisher.set(value);
+        return true;
+      }
+    });
+  }
+
+  void update(double now) {
+    for (int i = 0; i < entries.size(); i++) {
+      Entry entry = entries.get(i);
+      if (now < entry.nextPublishTime) {
+        continue;
+      }
+
+      // Always send the first value, even if it happens to match the
+      // default, so that the dashboard has something to show.
+      entry.publishIfChanged(!entry.published);
+      entry.published = true;
+
+      // Schedule the next sample. If the robot fell behind, skip ahead
+      // rather than publishing several times in a row to catch up.
+      entry.nextPublishTime += entry.periodSeconds;
+      if (entry.nextPublishTime < now) {
+        entry.nextPublishTime = now + entry.periodSeconds;
+      }
+    }
+  }
+
+  private static PubSubOption[] options(double periodSeconds) {
+    // Tell NetworkTables to batch updates to this topic at the same rate
+    // that we sample it, and to only send the latest value.
+    return new PubSubOption[] {
+      PubSubOption.periodic(periodSeconds),
+      PubSubOption.sendAll(false)
+    };
+  }
+
+  private abstract static class Entry {
+    final double periodSeconds;
+    double nextPublishTime;
+    boolean published;
+
+    Entry(double periodSeconds) {
+      this.periodSeconds = periodSeconds;
+    }
+
+    abstract boolean publishIfChanged(boolean force);
+  }
+}
@@ -0,0 +1,214 @@
+package frc.robot.tuning;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+
+/**
+ * Works out PID gains for a mechanism by experimenting on it.
+ *
+ * <p>The mechanism is driven with a fixed voltage in one direction, allowed
+ * to stop, and then driven with the same voltage in the other direction.
+ * From how fast it moves each way, and how quickly it gets up to speed, we
+ * can measure the mechanism's kV (volts per unit of speed), kA (volts per
+ * unit of acceleration) and kG (volts to hold it against gravity). Those
+ * are used to pick kP and kD so the mechanism settles at a new position in
+ * about the requested time without overshooting.
+ */
+public class AutoTuneCommand extends Command {
+  /** How the tuner drives and measures a mechanism. */
+  public interface Mechanism {
+    void setVoltage(double volts);
+
+    double getPosition();
+
+    double getVelocity();
+
+    /** Uses and saves the gains that were found. */
+    void applyGains(double kP, double kD, double kV, double kG);
+  }
+
+  private enum Phase { FIRST_STEP, PAUSE, SECOND_STEP, DONE }
+
+  private static final double STEP_SECONDS = 1.0;
+  private static final double PAUSE_SECONDS = 0.5;
+  private static final int MAX_SAMPLES = 100;
+
+  // The part of a step that is averaged to find the top speed.
+  private static final double STEADY_FRACTION = 0.25;
+
+  private final String name;
+  private final Mechanism mechanism;
+  private final double stepVolts;
+  private final double minPosition;
+  private final double maxPosition;
+  private final double targetSettleSeconds;
+  private final Timer timer;
+
+  private final double[] sampleTimes = new double[MAX_SAMPLES];
+  private final double[] sampleVelocities = new double[MAX_SAMPLES];
+  private int sampleCount;
+
+  private Phase phase;
+  private double firstSpeed;
+  private double firstTimeConstant;
+  private double secondSpeed;
+  private double secondTimeConstant;
+
+  /**
+   * @param name the name of the mechanism, used when logging the results
+   * @param mechanism how to drive and measure the mechanism
+   * @param stepVolts the voltage of the first step. The second step uses
+   *     the opposite voltage.
+   * @param minPosition a step stops early if the mechanism goes below this
+   * @param maxPosition a step stops early if the mechanism goes above this
+   * @param targetSettleSeconds how long the tuned mechanism should take to
+   *     settle at a new position
+   * @param requirement the subsystem that owns the mechanism
+   */
+  public AutoTuneCommand(
+      String name,
+      Mechanism mechanism,
+      double stepVolts,
+      double minPosition,
+      double maxPosition,
+      double targetSettleSeconds,
+      Subsystem requirement) {
+    this.name = name;
+    this.mechanism = mechanism;
+    this.stepVolts = stepVolts;
+    this.minPosition = minPosition;
+    this.maxPosition = maxPosition;
+    this.targetSettleSeconds = targetSettleSeconds;
+    timer = new Timer();
+
+    setName("AutoTune " + name);
+    addRequirements(requirement);
+  }
+
+  @Override
+  public void initialize() {
+    startPhase(Phase.FIRST_STEP);
+  }
+
+  @Override
+  public void execute() {
+    switch (phase) {
+      case FIRST_STEP:
+        if (runStep(stepVolts)) {
+          firstSpeed = steadySpeed();
+          firstTimeConstant = timeConstant(firstSpeed);
+          startPhase(Phase.PAUSE);
+        }
+        break;
+      case PAUSE:
+        mechanism.setVoltage(0.0);
+        if (timer.hasElapsed(PAUSE_SECONDS)) {
+          startPhase(Phase.SECOND_STEP);
+        }
+        break;
+      case SECOND_STEP:
+        if (runStep(-stepVolts)) {
+          secondSpeed = steadySpeed();
+          secondTimeConstant = timeConstant(secondSpeed);
+          computeGains();
+          startPhase(Phase.DONE);
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    mechanism.setVoltage(0.0);
+    if (interrupted && phase != Phase.DONE) {
+      DriverStation.reportWarning(
+          "Auto-tune of " + name + " was stopped before it finished", false);
+    }
+  }
+
+  @Override
+  public boolean isFinished() {
+    return phase == Phase.DONE;
+  }
+
+  private void startPhase(Phase newPhase) {
+    phase = newPhase;
+    sampleCount = 0;
+    timer.restart();
+  }
+
+  /** Drives the mechanism and records its speed. Returns true once the step is over. */
+  private boolean runStep(double volts) {
+    mechanism.setVoltage(volts);
+
+    if (sampleCount < MAX_SAMPLES) {
+      sampleTimes[sampleCount] = timer.get();
+      sampleVelocities[sampleCount] = mechanism.getVelocity();
+      sampleCount++;
+    }
+
+    // Stop early rather than run the mechanism into its hard stops.
+    double position = mechanism.getPosition();
+    boolean outOfRange = (volts > 0.0 && position >= maxPosition)
+        || (volts < 0.0 && position <= minPosition);
+
+    return outOfRange || timer.hasElapsed(STEP_SECONDS) || sampleCount == MAX_SAMPLES;
+  }
+
+  /** Averages the speed at the end of a step, once it has stopped speeding up. */
+  private double steadySpeed() {
+    int count = Math.max(1, (int) Math.round(sampleCount * STEADY_FRACTION));
+    double total = 0.0;
+    for (int i = sampleCount - count; i < sampleCount; i++) {
+      total += sampleVelocities[i];
+    }
+    return total / count;
+  }
+
+  /** Finds how long the mechanism took to reach 63% of its top speed. */
+  private double timeConstant(double speed) {
+    double threshold = speed * (1.0 - Math.exp(-1.0));
+    for (int i = 0; i < sampleCount; i++) {
+      if (Math.abs(sampleVelocities[i]) >= Math.abs(threshold)) {
+        return sampleTimes[i];
+      }
+    }
+    return sampleCount > 0 ? sampleTimes[sampleCount - 1] : 0.0;
+  }
+
+  private void computeGains() {
+    // Moving each way, the voltage is split between speed and gravity:
+    //   stepVolts = kV * firstSpeed + kG
+    //   -stepVolts = kV * secondSpeed + kG
+    double speedDifference = firstSpeed - secondSpeed;
+    if (Math.abs(speedDifference) < 1e-6 || Math.signum(speedDifference) != Math.signum(stepVolts)) {
+      DriverStation.reportWarning(
+          "Auto-tune of " + name + " failed: the mechanism didn't move both ways", false);
+      return;
+    }
+
+    double kV = 2.0 * stepVolts / speedDifference;
+    double kG = stepVolts - kV * firstSpeed;
+
+    // The time constant is how long the motor takes to get up to speed,
+    // and is kA / kV.
+    double kA = kV * (firstTimeConstant + secondTimeConstant) / 2.0;
+
+    // Choose gains that make the mechanism critically damped (no overshoot).
+    // A critically damped system settles to within 2% after about 5.8 / w
+    // seconds, where w is its natural frequency.
+    double naturalFrequency = 5.8 / targetSettleSeconds;
+    double kP = kA * naturalFrequency * naturalFrequency;
+    double kD = Math.max(0.0, 2.0 * naturalFrequency * kA - kV);
+
+    DataLogManager.log(String.format(
+        "Auto-tune of %s: kV=%.4f kA=%.4f kG=%.4f -> kP=%.4f kD=%.4f",
+        name, kV, kA, kG, kP, kD));
+    mechanism.applyGains(kP, kD, kV, kG);
+  }
+}
@@ -0,0 +1,127 @@
+package frc.robot.tuning;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.DoubleConsumer;
+
+import edu.wpi.first.networktables.DoubleEntry;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Numbers that can be changed from the dashboard while the robot is
+ * running, under the "Tuning" table in NetworkTables.
+ *
+ * <p>Subsystems keep each number in a normal field, and give a function
+ * that updates the field when the number changes. NetworkTables tells us
+ * about changes from its own thread, so they are saved up and all applied
+ * together by {@link #applyChanges()} at the start of the next loop. This
+ * way a command never sees half of a change, and reading a tunable number
+ * costs no more than reading a constant.
+ */
+public final class Tunables {
+  private static final NetworkTable table =
+      NetworkTableInstance.getDefault().getTable("Tuning");
+
+  // Changes from the dashboard, waiting for the next loop.
+  private static final Queue<Change> pendingChanges = new ConcurrentLinkedQueue<>();
+
+  // Sending a configuration to a motor controller can take a long time, so
+  // it's done on a separate thread to avoid delaying the main loop.
+  private static final ExecutorService configExecutor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "Tunable configs");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    return thread;
+  });
+
+  // Keeps the entries from being garbage collected, which would stop the
+  // listeners.
+  private static final Map<String, DoubleEntry> entries = new HashMap<>();
+
+  private Tunables() {}
+
+  /**
+   * Adds a number that can be changed from the dashboard. This should be
+   * called once when the robot starts, usually from a subsystem's
+   * constructor.
+   *
+   * @param key the name of the number in the "Tuning" table
+   * @param defaultValue the value to use until it's changed
+   * @param onChange called on the main robot thread with the new value
+   */
+  public static void addDouble(String key, double defaultValue, DoubleConsumer onChange) {
+    add(key, defaultValue, onChange, false);
+  }
+
+  /**
+   * Adds a number that is part of a motor controller's configuration. This
+   * works like {@link #addDouble}, except that {@code applyConfig} is called
+   * on a background thread so that the main loop keeps running while the
+   * configuration is sent.
+   */
+  public static void addConfig(String key, double defaultValue, DoubleConsumer applyConfig) {
+    add(key, defaultValue, applyConfig, true);
+  }
+
+  /**
+   * Shows a new value for a number on the dashboard, such as one found by
+   * an auto-tuner, so that the dashboard doesn't show an old value. This
+   * doesn't call the number's change function, since the code that found
+   * the value has already used it.
+   */
+  public static void set(String key, double value) {
+    DoubleEntry entry = entries.get(key);
+    if (entry != null) {
+      entry.set(value);
+    }
+  }
+
+  /**
+   * Applies every change made since the last loop. This should be called
+   * once per loop from {@code Robot.robotPeriodic()}, before the command
+   * scheduler runs.
+   */
+  public static void applyChanges() {
+    Change change;
+    while ((change = pendingChanges.poll()) != null) {
+      Change applied = change;
+      if (applied.background) {
+        configExecutor.execute(() -> applied.consumer.accept(applied.value));
+      } else {
+        applied.consumer.accept(applied.value);
+      }
+    }
+  }
+
+  private static void add(String key, double defaultValue, DoubleConsumer consumer, boolean background) {
+    DoubleEntry entry = table.getDoubleTopic(key).getEntry(defaultValue);
+    entry.setDefault(defaultValue);
+    entries.put(key, entry);
+
+    // Only listen for changes made by the dashboard, not our own default.
+    NetworkTableInstance.getDefault().addListener(
+        entry,
+        EnumSet.of(NetworkTableEvent.Kind.kValueRemote),
+        event -> pendingChanges.add(
+            new Change(consumer, event.valueData.value.getDouble(), background)));
+  }
+
+  private static final class Change {
+    final DoubleConsumer consumer;
+    final double value;
+    final boolean background;
+
+    Change(DoubleConsumer consumer, double value, boolean background) {
+      this.consumer = consumer;
+      this.value = value;
+      this.background = background;
+    }
+  }
+}
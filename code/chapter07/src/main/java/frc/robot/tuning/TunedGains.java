@@ -0,0 +1,100 @@
+package frc.robot.tuning;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * PID gains found by the auto-tuner. They're saved to a file in the deploy
+ * directory, and loaded when the robot starts so that the subsystems can use
+ * them in place of their default gains.
+ *
+ * <p>Gains are set both from the main loop, by the auto-tuner, and from the
+ * dashboard's config thread. The file is always written by one background
+ * thread, so neither waits for the file and two saves never overlap.
+ */
+public final class TunedGains {
+  private static final String FILE_NAME = "tuned_gains.properties";
+
+  private static final Properties gains = new Properties();
+
+  private static final ExecutorService saver = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "Tuned gains");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    return thread;
+  });
+
+  // Set while a save is waiting to start. Gains set before then are
+  // written by that save, so several gains set together are saved once.
+  private static final AtomicBoolean savePending = new AtomicBoolean();
+
+  private TunedGains() {}
+
+  /** Reads the saved gains. This must be called before the subsystems are created. */
+  public static void load() {
+    File file = getFile();
+    if (!file.exists()) {
+      return;
+    }
+
+    try (Reader reader = new FileReader(file)) {
+      gains.load(reader);
+    } catch (IOException e) {
+      DriverStation.reportWarning("Couldn't read " + FILE_NAME + ": " + e.getMessage(), false);
+    }
+  }
+
+  /**
+   * Gets a saved gain.
+   *
+   * @param key the name of the gain, such as "Climber.Slot0.kP"
+   * @param defaultValue the value to use if the gain hasn't been tuned
+   */
+  public static double get(String key, double defaultValue) {
+    String value = gains.getProperty(key);
+    if (value == null) {
+      return defaultValue;
+    }
+
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Changes a gain and saves every gain to the file. The file is written
+   * in the background, so this returns straight away.
+   */
+  public static void set(String key, double value) {
+    gains.setProperty(key, Double.toString(value));
+    if (savePending.compareAndSet(false, true)) {
+      saver.execute(TunedGains::save);
+    }
+  }
+
+  private static void save() {
+    savePending.set(false);
+    try (Writer writer = new FileWriter(getFile())) {
+      gains.store(writer, "Written by the auto-tuner");
+    } catch (IOException e) {
+      DriverStation.reportWarning("Couldn't write " + FILE_NAME + ": " + e.getMessage(), false);
+    }
+  }
+
+  private static File getFile() {
+    return new File(Filesystem.getDeployDirectory(), FILE_NAME);
+  }
+}
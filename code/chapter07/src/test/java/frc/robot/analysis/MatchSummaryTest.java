@@ -0,0 +1,75 @@
+package frc.robot.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogWriter;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+
+/** Writes a short log the way the robot does, and checks what's read back. */
+class MatchSummaryTest {
+  // A timestamp of zero means "now" to DataLog, so start a second in.
+  private static final long START = 1_000_000;
+
+  // Five loops. The third one runs 5 ms long.
+  private static final long[] LOOP_TIMES = {0, 20_000, 40_000, 65_000, 85_000};
+  private static final double[] LEFT_AMPS = {10.0, 30.0, 10.0, 10.0, 10.0};
+  private static final double[] RIGHT_AMPS = {5.0, 25.0, 5.0, 5.0, 5.0};
+  // The shot count is only saved in the loops that saw a shot.
+  private static final long[] SHOT_TIMES = {20_000, 65_000, 85_000};
+
+  private static final double EPSILON = 1e-9;
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void summarizesLog() throws IOException {
+    Path file = tempDir.resolve("match.wpilog");
+    try (DataLog log = new DataLogWriter(file.toString())) {
+      IntegerLogEntry timestamp = new IntegerLogEntry(log, "/RealInputs/Timestamp");
+      DoubleLogEntry left = new DoubleLogEntry(log, "/RealInputs/Drive/LeftSupplyCurrentAmps");
+      DoubleLogEntry right = new DoubleLogEntry(log, "/RealInputs/Drive/RightSupplyCurrentAmps");
+      DoubleLogEntry shots = new DoubleLogEntry(log, "/RealInputs/Shooter/ShotCount");
+      for (int i = 0; i < LOOP_TIMES.length; i++) {
+        long time = START + LOOP_TIMES[i];
+        timestamp.append(time, time);
+        left.append(LEFT_AMPS[i], time);
+        right.append(RIGHT_AMPS[i], time);
+      }
+      for (int i = 0; i < SHOT_TIMES.length; i++) {
+        shots.append(i + 1, START + SHOT_TIMES[i]);
+      }
+    }
+
+    MatchSummary summary = new MatchSummary("match");
+    WpilogReader.read(file, summary);
+
+    // Loop times
+    assertEquals(4, summary.loopCount);
+    assertEquals(3, summary.loopHistogram[20]);
+    assertEquals(1, summary.loopHistogram[25]);
+    assertEquals(25.0, summary.maxLoopMs, EPSILON);
+    // The last loop is taken to be as long as the one before it.
+    assertEquals(0.105, summary.durationSeconds, EPSILON);
+
+    // Shots, and the time between each one and the next
+    assertEquals(3, summary.shotCount);
+    assertEquals(2, summary.cycleCount);
+    assertEquals(0.045, summary.cycleSeconds[0], EPSILON);
+    assertEquals(0.020, summary.cycleSeconds[1], EPSILON);
+
+    // The peak is both sides added together in the same loop, and each
+    // reading lasts until the next one. The last one lasts one more loop.
+    MatchSummary.SubsystemCurrent drive = summary.currents.get("Drive");
+    assertEquals(55.0, drive.peakAmps, EPSILON);
+    assertEquals(1.45 + 0.925, drive.ampSeconds, EPSILON);
+  }
+}
@@ -0,0 +1,132 @@
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+import frc.robot.tuning.AutoTuneCommand;
+
+/**
+ * Runs the auto-tuner on the simulated climber, and checks what it finds
+ * against the motor model the simulation uses.
+ */
+class ClimberAutoTuneTest {
+  private static final double LOOP_PERIOD = 0.02;
+  private static final double STEP_VOLTS = 2.0;
+  private static final double SETTLE_SECONDS = 0.5;
+
+  // Stop the step down short of the bottom of the arms' travel, since the
+  // arms stop dead there.
+  private static final double MIN_POSITION = 1.0;
+  private static final double MAX_POSITION = 1000.0;
+
+  // The simulated motor controllers take a moment to start.
+  private static final int MAX_STARTUP_LOOPS = 100;
+  private static final int MAX_TUNE_LOOPS = 200;
+
+  @BeforeAll
+  static void setup() {
+    assertTrue(HAL.initialize(500, 0));
+
+    // The motor controllers only drive the motors while the robot is enabled.
+    DriverStationSim.setEnabled(true);
+    DriverStationSim.notifyNewData();
+  }
+
+  @Test
+  void findsTheMotorModel() throws InterruptedException {
+    ClimberIOSim io = new ClimberIOSim();
+    ClimberIO.ClimberIOInputs inputs = new ClimberIO.ClimberIOInputs();
+    for (int i = 0; i < MAX_STARTUP_LOOPS; i++) {
+      io.updateInputs(inputs);
+      if (inputs.leftConnected && inputs.rightConnected) {
+        break;
+      }
+      Thread.sleep((long) (LOOP_PERIOD * 1000));
+    }
+    assertTrue(inputs.leftConnected && inputs.rightConnected, "The motor controllers didn't start");
+
+    TunedArms arms = new TunedArms(io, inputs);
+    AutoTuneCommand command = new AutoTuneCommand(
+        "Climber", arms, STEP_VOLTS, MIN_POSITION, MAX_POSITION, SETTLE_SECONDS,
+        new Subsystem() {});
+
+    // The tuner times its steps with the robot's clock, and the simulated
+    // motor controllers run in real time, so this runs in real time too.
+    command.initialize();
+    for (int i = 0; i < MAX_TUNE_LOOPS && !command.isFinished(); i++) {
+      io.updateInputs(inputs);
+      command.execute();
+      Thread.sleep((long) (LOOP_PERIOD * 1000));
+    }
+    command.end(false);
+    assertTrue(arms.tuned, "The tuner didn't finish");
+
+    // Positions are in rotor rotations, so the top speed only depends on
+    // the motor. The arms don't fight gravity in the simulation.
+    DCMotor motor = DCMotor.getKrakenX60(1);
+    double expectedKV = 2.0 * Math.PI / motor.KvRadPerSecPerVolt;
+    assertEquals(expectedKV, arms.kV, 0.05 * expectedKV);
+    assertEquals(0.0, arms.kG, 0.05 * STEP_VOLTS);
+
+    // The tuner picks kP to give the requested settling time, which shows
+    // the kA it found. The speeds are only measured once a loop, so the
+    // time constant it finds can be up to a loop or so longer than the
+    // real one, but never shorter.
+    double naturalFrequency = 5.8 / SETTLE_SECONDS;
+    double kA = arms.kP / (naturalFrequency * naturalFrequency);
+    double timeConstant = motor.KvRadPerSecPerVolt * ClimberIOSim.SPOOL_MOI * motor.rOhms
+        / (ClimberIOSim.SPOOL_GEAR_RATIO * ClimberIOSim.SPOOL_GEAR_RATIO * motor.KtNMPerAmp);
+    assertTrue(kA >= 0.95 * expectedKV * timeConstant, "kA " + kA + " is too small");
+    assertTrue(kA <= expectedKV * (timeConstant + 2.0 * LOOP_PERIOD), "kA " + kA + " is too large");
+
+    // kD makes up the damping the motor doesn't already have.
+    assertEquals(Math.max(0.0, 2.0 * naturalFrequency * kA - arms.kV), arms.kD, 1e-9);
+  }
+
+  /** Drives both arms together, and keeps the gains instead of saving them. */
+  private static class TunedArms implements AutoTuneCommand.Mechanism {
+    private final ClimberIO io;
+    private final ClimberIO.ClimberIOInputs inputs;
+    boolean tuned;
+    double kP;
+    double kD;
+    double kV;
+    double kG;
+
+    TunedArms(ClimberIO io, ClimberIO.ClimberIOInputs inputs) {
+      this.io = io;
+      this.inputs = inputs;
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+      io.setVoltages(volts, volts);
+    }
+
+    @Override
+    public double getPosition() {
+      return (inputs.leftPositionRotations + inputs.rightPositionRotations) / 2.0;
+    }
+
+    @Override
+    public double getVelocity() {
+      return (inputs.leftVelocityRPS + inputs.rightVelocityRPS) / 2.0;
+    }
+
+    @Override
+    public void applyGains(double kP, double kD, double kV, double kG) {
+      tuned = true;
+      this.kP = kP;
+      this.kD = kD;
+      this.kV = kV;
+      this.kG = kG;
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Slams the stick forward on the simulated drive base, with and without the
+ * traction limiter, and checks that limiting the output gets the robot up
+ * to speed sooner because the wheels never break loose.
+ */
+class TractionLimiterTest {
+  private static final double LOOP_PERIOD = 0.02;
+  private static final int LOOPS = 100;
+
+  @BeforeAll
+  static void setup() {
+    assertTrue(HAL.initialize(500, 0));
+  }
+
+  @Test
+  void limitedOutputNeverSlips() {
+    DriveRun run = slam(true);
+    assertFalse(run.slipped, "The wheels slipped");
+    assertTrue(run.maxWheelAccel <= DriveSubsystem.TRACTION_ACCEL,
+        "The wheels accelerated at " + run.maxWheelAccel + " m/s^2");
+  }
+
+  @Test
+  void limitedOutputReachesTopSpeedSooner() {
+    DriveRun unlimited = slam(false);
+    DriveRun limited = slam(true);
+
+    // Full output spins the wheels, so the robot slides up to speed
+    // instead of being driven there.
+    assertTrue(unlimited.slipped);
+    assertTrue(unlimited.maxWheelAccel > DriveSubsystem.TRACTION_ACCEL);
+
+    // Both runs end at the same top speed, so compare how long each took to
+    // get most of the way there.
+    double topSpeed = unlimited.finalSpeed;
+    double unlimitedTime = unlimited.timeToReach(0.9 * topSpeed);
+    double limitedTime = limited.timeToReach(0.9 * topSpeed);
+    assertTrue(limitedTime < unlimitedTime,
+        "Limited took " + limitedTime + " s, unlimited took " + unlimitedTime + " s");
+  }
+
+  private static DriveRun slam(boolean limited) {
+    DriveIOSim io = new DriveIOSim();
+    DriveSubsystem drive = new DriveSubsystem(io);
+
+    DriveRun run = new DriveRun();
+    for (int i = 0; i < LOOPS; i++) {
+      drive.periodic();
+      run.record(io);
+
+      // The right motors are backwards.
+      if (limited) {
+        drive.setTractionLimitedOutput(1.0, -1.0);
+      } else {
+        io.setOutput(1.0, -1.0);
+      }
+    }
+    return run;
+  }
+
+  /** What the simulated robot did each loop during one run. */
+  private static class DriveRun {
+    private final double[] speeds = new double[LOOPS];
+    private int count;
+    private double lastWheelVelocity;
+    private double maxWheelAccel;
+    private boolean slipped;
+    private double finalSpeed;
+
+    void record(DriveIOSim io) {
+      double wheelVelocity = io.getWheelVelocity();
+      maxWheelAccel = Math.max(maxWheelAccel, (wheelVelocity - lastWheelVelocity) / LOOP_PERIOD);
+      lastWheelVelocity = wheelVelocity;
+      slipped |= io.isSlipping();
+
+      speeds[count++] = io.getChassisVelocity();
+      finalSpeed = io.getChassisVelocity();
+    }
+
+    double timeToReach(double speed) {
+      for (int i = 0; i < count; i++) {
+        if (speeds[i] >= speed) {
+          return (i + 1) * LOOP_PERIOD;
+        }
+      }
+      return Double.POSITIVE_INFINITY;
+    }
+  }
+}